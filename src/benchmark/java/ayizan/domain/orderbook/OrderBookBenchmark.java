@@ -7,7 +7,7 @@ import ayizan.domain.Orders.Side;
 import ayizan.domain.Orders.TimeInForce;
 import ayizan.domain.Sides;
 import ayizan.domain.orderbook.OrderBook.Matcher;
-import ayizan.domain.orderbook.limit.LimitOrderBook;
+import ayizan.domain.orderbook.limit.LimitOrderBook.LimitOrderBookBuilder;
 import com.google.caliper.Param;
 import com.google.caliper.Runner;
 import com.google.caliper.SimpleBenchmark;
@@ -16,13 +16,15 @@ import java.util.Random;
 
 import static ayizan.domain.StandardUnits.toLots;
 import static ayizan.domain.StandardUnits.toTicks;
+import static java.lang.Math.rint;
 
 public class OrderBookBenchmark extends SimpleBenchmark
 {
     private static final Identifier ID = new Identifier("1", 1);
+    private static final double TICK_SIZE = 0.01;
     private static final InstrumentSpecification INSTRUMENT = InstrumentSpecification.newBuilder().
             setSymbol("XXX.GOOG").
-            setTickSize(0.01).
+            setTickSize(TICK_SIZE).
             setLotSize(1).
             setMultiplier(1).
             build();
@@ -37,6 +39,7 @@ public class OrderBookBenchmark extends SimpleBenchmark
     };
 
     @Param({"100", "1000000"}) private int size;
+    @Param({"0", "4096"}) private int ladderSize;
     private BenchmarkState benchmarkState;
 
     public static void main(String... arguments) throws Exception
@@ -47,7 +50,7 @@ public class OrderBookBenchmark extends SimpleBenchmark
     @Override
     public void setUp()
     {
-        this.benchmarkState = new BenchmarkState();
+        this.benchmarkState = new BenchmarkState(ladderSize);
     }
 
     public void timeAcceptCancelWithOrders(final int iterations)
@@ -71,9 +74,12 @@ public class OrderBookBenchmark extends SimpleBenchmark
         orderBook.commit();
     }
 
-    private static OrderBook setupOrderBook(final BenchmarkState benchmarkState, final int size)
+    private static OrderBook setupOrderBook(final BenchmarkState benchmarkState, final int ladderSize, final int size)
     {
-        final OrderBook orderBook = new LimitOrderBook(INSTRUMENT);
+        final OrderBook orderBook = LimitOrderBookBuilder.newBuilder().
+                setInstrument(INSTRUMENT).
+                setLadderSize(ladderSize).
+                build();
         for(int i = 0; i < size; i++) {
             final double price = benchmarkState.nextPrice();
             final double quantity = benchmarkState.nextQuantity();
@@ -99,18 +105,18 @@ public class OrderBookBenchmark extends SimpleBenchmark
         private final Sequence quantitySequence;
         private final OrderBook[] orderBooks;
 
-        private BenchmarkState()
+        private BenchmarkState(final int ladderSize)
         {
             this.randomNumberGenerator = new Random(0);
             this.priceSequence =  Sequence.gaussianSequence(randomNumberGenerator, 1000000);
             this.quantitySequence = Sequence.gaussianSequence(randomNumberGenerator, 1000000);
             this.orderBooks = new OrderBook[] {
-                    setupOrderBook(this, 0),
-                    setupOrderBook(this, 10),
-                    setupOrderBook(this, 100),
-                    setupOrderBook(this, 1000),
-                    setupOrderBook(this, 10000),
-                    setupOrderBook(this, 100000),
+                    setupOrderBook(this, ladderSize, 0),
+                    setupOrderBook(this, ladderSize, 10),
+                    setupOrderBook(this, ladderSize, 100),
+                    setupOrderBook(this, ladderSize, 1000),
+                    setupOrderBook(this, ladderSize, 10000),
+                    setupOrderBook(this, ladderSize, 100000),
             };
         }
 
@@ -126,7 +132,7 @@ public class OrderBookBenchmark extends SimpleBenchmark
 
         public double nextPrice()
         {
-            return 100.0 + 10.0 * priceSequence.next();
+            return rint((100.0 + 10.0 * priceSequence.next()) / TICK_SIZE) * TICK_SIZE;
         }
 
         public double nextQuantity()
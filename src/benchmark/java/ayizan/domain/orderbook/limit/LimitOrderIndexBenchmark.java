@@ -0,0 +1,104 @@
+package ayizan.domain.orderbook.limit;
+
+import ayizan.domain.Identifier;
+import com.google.caliper.Param;
+import com.google.caliper.Runner;
+import com.google.caliper.SimpleBenchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class LimitOrderIndexBenchmark extends SimpleBenchmark
+{
+    @Param({"1000", "1000000"}) private int size;
+    private BenchmarkState benchmarkState;
+
+    public static void main(String... arguments) throws Exception
+    {
+        Runner.main(LimitOrderIndexBenchmark.class, arguments);
+    }
+
+    @Override
+    public void setUp()
+    {
+        benchmarkState = new BenchmarkState(size);
+    }
+
+    public long timeHashMapLookup(final int iterations)
+    {
+        final Map<Identifier, LimitOrder> limitOrdersByIdentifier = benchmarkState.limitOrdersByIdentifier;
+        long orderIds = 0;
+        for(int i = iterations; i-- != 0;) {
+            final LimitOrder limitOrder = benchmarkState.nextLimitOrder();
+            final Identifier identifier = limitOrder.getIdentifier();
+            orderIds += limitOrdersByIdentifier.get(new Identifier(identifier.getId(), identifier.getAttributionId())).getOrderId();
+        }
+        return orderIds;
+    }
+
+    public long timeIndexLookup(final int iterations)
+    {
+        final LimitOrderIndex limitOrderIndex = benchmarkState.limitOrderIndex;
+        long orderIds = 0;
+        for(int i = iterations; i-- != 0;) {
+            final LimitOrder limitOrder = benchmarkState.nextLimitOrder();
+            final Identifier identifier = limitOrder.getIdentifier();
+            orderIds += limitOrderIndex.get(identifier.getId(), identifier.getAttributionId()).getOrderId();
+        }
+        return orderIds;
+    }
+
+    public int timeHashMapRemovePut(final int iterations)
+    {
+        final Map<Identifier, LimitOrder> limitOrdersByIdentifier = benchmarkState.limitOrdersByIdentifier;
+        for(int i = iterations; i-- != 0;) {
+            final LimitOrder limitOrder = benchmarkState.nextLimitOrder();
+            limitOrdersByIdentifier.remove(limitOrder.getIdentifier());
+            limitOrdersByIdentifier.put(limitOrder.getIdentifier(), limitOrder);
+        }
+        return limitOrdersByIdentifier.size();
+    }
+
+    public int timeIndexRemovePut(final int iterations)
+    {
+        final LimitOrderIndex limitOrderIndex = benchmarkState.limitOrderIndex;
+        for(int i = iterations; i-- != 0;) {
+            final LimitOrder limitOrder = benchmarkState.nextLimitOrder();
+            limitOrderIndex.remove(limitOrder);
+            limitOrderIndex.put(limitOrder);
+        }
+        return limitOrderIndex.size();
+    }
+
+    private static class BenchmarkState
+    {
+        private final Map<Identifier, LimitOrder> limitOrdersByIdentifier;
+        private final LimitOrderIndex limitOrderIndex;
+        private final LimitOrder[] limitOrders;
+        private final int[] sequence;
+        private int ptr;
+
+        private BenchmarkState(final int size)
+        {
+            final Random randomNumberGenerator = new Random(0);
+            this.limitOrdersByIdentifier = new HashMap<Identifier, LimitOrder>();
+            this.limitOrderIndex = new LimitOrderIndex(size);
+            this.limitOrders = new LimitOrder[size];
+            this.sequence = new int[1000000];
+
+            for(int i = 0; i < size; i++) {
+                final LimitOrder limitOrder = new LimitOrder().setIdentifier(new Identifier(String.valueOf(i), randomNumberGenerator.nextInt(100))).setOrderId(i);
+                limitOrdersByIdentifier.put(limitOrder.getIdentifier(), limitOrder);
+                limitOrderIndex.put(limitOrder);
+                limitOrders[i] = limitOrder;
+            }
+            for(int i = 0; i < sequence.length; i++) sequence[i] = randomNumberGenerator.nextInt(size);
+        }
+
+        public LimitOrder nextLimitOrder()
+        {
+            return limitOrders[sequence[ptr++ % sequence.length]];
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ayizan.service.exchange;
 
 import ayizan.benchmark.Sequence;
+import ayizan.domain.Depths.DepthSnapshotOrBuilder;
+import ayizan.domain.Depths.DepthUpdateOrBuilder;
 import ayizan.domain.Executions.AcceptExecutionOrBuilder;
 import ayizan.domain.Executions.CancelExecutionOrBuilder;
 import ayizan.domain.Executions.ReplaceExecutionOrBuilder;
@@ -188,6 +190,16 @@ public class ExchangeBenchmark extends SimpleBenchmark
         {
         }
 
+        @Override
+        public void notify(final DepthUpdateOrBuilder depthUpdate)
+        {
+        }
+
+        @Override
+        public void notify(final DepthSnapshotOrBuilder depthSnapshot)
+        {
+        }
+
         @Override
         public void commit()
         {
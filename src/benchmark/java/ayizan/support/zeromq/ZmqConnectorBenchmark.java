@@ -1,14 +1,11 @@
 package ayizan.support.zeromq;
 
 import ayizan.kernel.Executors;
-import ayizan.message.Messages.Packet;
-import ayizan.message.Messages.PacketOrBuilder;
 import ayizan.support.zeromq.ZmqConnector.Publication;
 import ayizan.support.zeromq.ZmqConnector.Subscription;
 import com.google.caliper.Param;
 import com.google.caliper.Runner;
 import com.google.caliper.SimpleBenchmark;
-import com.google.protobuf.ByteString;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -21,6 +18,8 @@ public class ZmqConnectorBenchmark extends SimpleBenchmark
     private static final ZmqTopic TOPIC = new ZmqTopic("tcp://127.0.0.1:5555");
 
     @Param({"1000000"}) private int messageCount;
+    @Param({"1", "32"}) private int batchSize;
+    @Param({"false", "true"}) private boolean direct;
     private BenchmarkState benchmarkState;
 
     public static void main(String... arguments) throws Exception
@@ -31,7 +30,7 @@ public class ZmqConnectorBenchmark extends SimpleBenchmark
     @Override
     protected void setUp() throws Exception
     {
-        benchmarkState = new BenchmarkState();
+        benchmarkState = new BenchmarkState(batchSize, direct);
     }
 
     public void timeSendReceive(final int iterations) throws Exception
@@ -65,7 +64,7 @@ public class ZmqConnectorBenchmark extends SimpleBenchmark
         }
 
         @Override
-        public boolean next(final PacketOrBuilder packet)
+        public boolean next(final long id, final int schema, final ByteBuffer payload)
         {
             return (++count < messageCount);
         }
@@ -79,13 +78,13 @@ public class ZmqConnectorBenchmark extends SimpleBenchmark
         private final ZmqConnector connector;
         private final CountDownLatch countDownLatch;
 
-        private BenchmarkState() throws Exception
+        private BenchmarkState(final int batchSize, final boolean direct) throws Exception
         {
             this.executorService =  Executors.newExecutor();
             this.connector = new ZmqConnector();
-            this.subscription = connector.subscribe(TOPIC);
-            this.publication = connector.publish(TOPIC);
-            this.countDownLatch = start();
+            this.subscription = connector.subscribe(TOPIC, direct);
+            this.publication = connector.publish(TOPIC, direct);
+            this.countDownLatch = start(batchSize);
         }
 
         public ZmqConnector.Subscription subscribe()
@@ -107,14 +106,13 @@ public class ZmqConnectorBenchmark extends SimpleBenchmark
             connector.close();
         }
 
-        private CountDownLatch start() throws Exception
+        private CountDownLatch start(final int batchSize) throws Exception
         {
             final CountDownLatch startLatch = new CountDownLatch(1);
             final CountDownLatch endLatch = new CountDownLatch(1);
             executorService.submit(new Runnable()
             {
-                private final Packet.Builder packet = Packet.newBuilder();
-                private final ByteBuffer buffer = ByteBuffer.allocate(128);
+                private final ByteBuffer buffer = ByteBuffer.allocate(8);
 
                 @Override
                 public void run()
@@ -122,8 +120,8 @@ public class ZmqConnectorBenchmark extends SimpleBenchmark
                     startLatch.countDown();
                     for(int i = 1; endLatch.getCount() > 0 && !Thread.currentThread().isInterrupted(); i++) {
                         ((ByteBuffer) buffer.clear()).putLong(System.nanoTime());
-                        packet.setId(i).setSchema(0).setPayload(ByteString.copyFrom((ByteBuffer) buffer.flip()));
-                        publication.publish(packet);
+                        publication.offer(i, 0, buffer.array(), 0, buffer.position());
+                        if(i % batchSize == 0) publication.flush();
                     }
                 }
             });
@@ -2,13 +2,43 @@ package ayizan.domain;
 
 public class Identifier
 {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
     private String id;
     private int attributionId;
+    private long longHashCode;
+
+    public Identifier()
+    {
+    }
 
     public Identifier(final String id, final int attributionId)
+    {
+        set(id, attributionId);
+    }
+
+    public Identifier set(final String id, final int attributionId)
     {
         this.id = id;
         this.attributionId = attributionId;
+        this.longHashCode = longHashCode(id, attributionId);
+        return this;
+    }
+
+    public static long longHashCode(final String id, final int attributionId)
+    {
+        long hash = (FNV_OFFSET_BASIS ^ attributionId) * FNV_PRIME;
+        for(int i = 0, length = id.length(); i < length; i++) hash = (hash ^ id.charAt(i)) * FNV_PRIME;
+
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    public boolean equals(final String id, final int attributionId)
+    {
+        return (this.attributionId == attributionId && this.id.equals(id));
     }
 
     public String getId()
@@ -21,6 +51,11 @@ public class Identifier
         return attributionId;
     }
 
+    public long longHashCode()
+    {
+        return longHashCode;
+    }
+
     @Override
     public boolean equals(final Object object)
     {
@@ -5,6 +5,10 @@ import ayizan.domain.Instruments.InstrumentSpecification;
 import ayizan.domain.Orders.Side;
 import ayizan.domain.Orders.TimeInForce;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 public interface OrderBook
 {
     public interface Matcher
@@ -12,19 +16,53 @@ public interface OrderBook
         boolean next(Order order);
     }
 
+    public interface LevelVisitor
+    {
+        void level(Side side, long price, long quantity, int orderCount);
+    }
+
+    public interface DepthListener
+    {
+        void addLevel(Side side, long price, long quantity, int orderCount);
+
+        void updateLevel(Side side, long price, long quantity, int orderCount);
+
+        void deleteLevel(Side side, long price);
+    }
+
     String getSymbol();
 
     InstrumentSpecification getInstrument();
 
     boolean isOpen();
 
+    int getOrderCount();
+
+    int getLevelCount(Side side);
+
     Order status(Identifier identifier);
 
+    Order status(String id, int attributionId);
+
     Order accept(Identifier identifier, Side side, long price, long quantity, long filledQuantity, TimeInForce timeInForce);
 
+    Order accept(String id, int attributionId, Side side, long price, long quantity, long filledQuantity, TimeInForce timeInForce);
+
     Order cancel(Identifier identifier);
 
+    Order cancel(String id, int attributionId);
+
     void execute(Side side, Matcher matcher);
 
+    long liquidity(Side side, long price, long quantity, int attributionId);
+
+    void depth(DepthListener depthListener);
+
+    void snapshot(int levels, LevelVisitor levelVisitor);
+
     long commit();
+
+    void writeSnapshot(DataOutput output, long sequence) throws IOException;
+
+    long readSnapshot(DataInput input) throws IOException;
 }
@@ -0,0 +1,115 @@
+package ayizan.domain.orderbook;
+
+import ayizan.domain.Instruments.InstrumentSpecification;
+
+import java.util.Arrays;
+
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkNotNull;
+import static java.lang.Math.max;
+
+public class OrderBookRepository
+{
+    public static final int UNKNOWN_SYMBOL_ID = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    public interface OrderBookFactory
+    {
+        OrderBook newInstance(InstrumentSpecification instrumentSpecification);
+    }
+
+    private final OrderBookFactory orderBookFactory;
+
+    private InstrumentSpecification[] instruments;
+    private OrderBook[] orderBooks;
+    private String[] symbols;
+    private int[] symbolIds;
+    private int mask;
+    private int size;
+
+    public OrderBookRepository(final OrderBookFactory orderBookFactory)
+    {
+        this(orderBookFactory, DEFAULT_CAPACITY);
+    }
+
+    public OrderBookRepository(final OrderBookFactory orderBookFactory, final int capacity)
+    {
+        checkArgument(capacity >= 0, "Invalid capacity '%s'", capacity);
+        this.orderBookFactory = checkNotNull(orderBookFactory, "orderBookFactory is null");
+        this.instruments = new InstrumentSpecification[max(1, capacity)];
+        this.orderBooks = new OrderBook[max(1, capacity)];
+        allocateSymbols(capacity);
+    }
+
+    public int register(final InstrumentSpecification instrumentSpecification)
+    {
+        final String symbol = instrumentSpecification.getSymbol();
+        checkArgument(lookupSymbolId(symbol) == UNKNOWN_SYMBOL_ID, "Instrument '%s' already registered", symbol);
+
+        if(size == instruments.length) {
+            instruments = Arrays.copyOf(instruments, size << 1);
+            orderBooks = Arrays.copyOf(orderBooks, size << 1);
+        }
+        if((size << 1) >= symbols.length) rehashSymbols(symbols.length << 1);
+
+        final int symbolId = size++;
+        instruments[symbolId] = instrumentSpecification;
+        putSymbol(symbol, symbolId);
+        return symbolId;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int lookupSymbolId(final String symbol)
+    {
+        for(int index = symbol.hashCode() & mask; symbols[index] != null; index = (index + 1) & mask) {
+            if(symbols[index].equals(symbol)) return symbolIds[index];
+        }
+        return UNKNOWN_SYMBOL_ID;
+    }
+
+    public InstrumentSpecification lookupInstrument(final int symbolId)
+    {
+        return (symbolId >= 0 && symbolId < size)? instruments[symbolId] : null;
+    }
+
+    public OrderBook lookup(final String symbol)
+    {
+        return lookup(lookupSymbolId(symbol));
+    }
+
+    public OrderBook lookup(final int symbolId)
+    {
+        if(symbolId < 0 || symbolId >= size) return null;
+
+        final OrderBook orderBook = orderBooks[symbolId];
+        return (orderBook != null)? orderBook : (orderBooks[symbolId] = orderBookFactory.newInstance(instruments[symbolId]));
+    }
+
+    private void putSymbol(final String symbol, final int symbolId)
+    {
+        int index = symbol.hashCode() & mask;
+        while(symbols[index] != null) index = (index + 1) & mask;
+        symbols[index] = symbol;
+        symbolIds[index] = symbolId;
+    }
+
+    private void rehashSymbols(final int capacity)
+    {
+        allocateSymbols(capacity);
+        for(int symbolId = 0; symbolId < size; symbolId++) putSymbol(instruments[symbolId].getSymbol(), symbolId);
+    }
+
+    private void allocateSymbols(final int capacity)
+    {
+        int powerOfTwo = DEFAULT_CAPACITY;
+        while(powerOfTwo < (capacity << 1)) powerOfTwo <<= 1;
+        this.symbols = new String[powerOfTwo];
+        this.symbolIds = new int[powerOfTwo];
+        this.mask = powerOfTwo - 1;
+    }
+}
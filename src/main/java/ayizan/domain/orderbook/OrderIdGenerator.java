@@ -13,7 +13,22 @@ public class OrderIdGenerator implements IdGenerator<Long>
 
     @Override
     public Long next()
+    {
+        return nextLong();
+    }
+
+    public long nextLong()
     {
         return ++id;
     }
+
+    public long current()
+    {
+        return id;
+    }
+
+    public void reset(final long id)
+    {
+        this.id = id;
+    }
 }
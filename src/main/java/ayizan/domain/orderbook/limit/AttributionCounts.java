@@ -0,0 +1,78 @@
+package ayizan.domain.orderbook.limit;
+
+import static ayizan.util.Preconditions.checkArgument;
+
+class AttributionCounts
+{
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] attributionIds;
+    private int[] counts;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    AttributionCounts()
+    {
+        allocate(MIN_CAPACITY);
+    }
+
+    public int get(final int attributionId)
+    {
+        for(int index = index(attributionId); used[index]; index = (index + 1) & mask) {
+            if(attributionIds[index] == attributionId) return counts[index];
+        }
+        return 0;
+    }
+
+    public void add(final int attributionId, final int delta)
+    {
+        int index = index(attributionId);
+        for(; used[index]; index = (index + 1) & mask) {
+            if(attributionIds[index] == attributionId) {
+                counts[index] += delta;
+                return;
+            }
+        }
+        used[index] = true;
+        attributionIds[index] = attributionId;
+        counts[index] = delta;
+        if(++size > resizeThreshold) resize();
+    }
+
+    private void resize()
+    {
+        checkArgument(counts.length < MAX_CAPACITY, "Attribution capacity exceeded");
+
+        final int[] previousAttributionIds = attributionIds;
+        final int[] previousCounts = counts;
+        final boolean[] previousUsed = used;
+        allocate(previousCounts.length << 1);
+        for(int i = 0; i < previousCounts.length; i++) {
+            if(previousUsed[i]) {
+                int index = index(previousAttributionIds[i]);
+                while(used[index]) index = (index + 1) & mask;
+                used[index] = true;
+                attributionIds[index] = previousAttributionIds[i];
+                counts[index] = previousCounts[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity)
+    {
+        this.attributionIds = new int[capacity];
+        this.counts = new int[capacity];
+        this.used = new boolean[capacity];
+        this.mask = capacity - 1;
+        this.resizeThreshold = capacity >>> 1;
+    }
+
+    private int index(final int attributionId)
+    {
+        final int hash = attributionId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
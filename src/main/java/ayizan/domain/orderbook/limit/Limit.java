@@ -1,13 +1,33 @@
 package ayizan.domain.orderbook.limit;
 
+import ayizan.domain.Orders.Side;
+
 public class Limit
 {
+    private Side side;
     private long price;
+    private long quantity;
+    private int orderCount;
+    private long publishedQuantity;
+    private int publishedOrderCount;
+    private boolean changed;
 
     LimitOrder _head;
     LimitOrder _tail;
     Limit _next;
     Limit _previous;
+    Limit _nextChanged;
+
+    public Side getSide()
+    {
+        return side;
+    }
+
+    public Limit setSide(final Side side)
+    {
+        this.side = side;
+        return this;
+    }
 
     public long getPrice()
     {
@@ -20,8 +40,22 @@ public class Limit
         return this;
     }
 
+    public long getQuantity()
+    {
+        return quantity;
+    }
+
+    public int getOrderCount()
+    {
+        return orderCount;
+    }
+
     public Limit add(final LimitOrder limitOrder)
     {
+        limitOrder._limit = this;
+        quantity += limitOrder.getWorkingQuantity();
+        orderCount++;
+
         if(isEmpty()) _head = limitOrder;
         else {
             limitOrder._previous = _tail;
@@ -33,9 +67,16 @@ public class Limit
 
     public Limit remove(final LimitOrder limitOrder)
     {
+        limitOrder._limit = null;
+        quantity -= limitOrder.getWorkingQuantity();
+        orderCount--;
+
         if(_tail == limitOrder) _tail = limitOrder._previous;
         if(_head == limitOrder) _head = limitOrder._next;
-        if(limitOrder._previous != null) limitOrder._previous = limitOrder._next;
+        if(limitOrder._previous != null) limitOrder._previous._next = limitOrder._next;
+        if(limitOrder._next != null) limitOrder._next._previous = limitOrder._previous;
+        limitOrder._previous = null;
+        limitOrder._next = null;
         return this;
     }
 
@@ -43,4 +84,68 @@ public class Limit
     {
         return _head == null;
     }
+
+    void reduce(final long quantity)
+    {
+        this.quantity -= quantity;
+    }
+
+    boolean isChanged()
+    {
+        return changed;
+    }
+
+    Limit setChanged(final boolean changed)
+    {
+        this.changed = changed;
+        return this;
+    }
+
+    boolean isPublished()
+    {
+        return publishedOrderCount > 0;
+    }
+
+    boolean isModified()
+    {
+        return quantity != publishedQuantity || orderCount != publishedOrderCount;
+    }
+
+    Limit publish()
+    {
+        publishedQuantity = quantity;
+        publishedOrderCount = orderCount;
+        return this;
+    }
+
+    void clear()
+    {
+        _head = null;
+        _tail = null;
+        _previous = null;
+        _nextChanged = null;
+        quantity = 0;
+        orderCount = 0;
+        publishedQuantity = 0;
+        publishedOrderCount = 0;
+        changed = false;
+    }
+
+    Limit link(final Limit previous, final Limit next)
+    {
+        _previous = previous;
+        _next = next;
+        if(previous != null) previous._next = this;
+        if(next != null) next._previous = this;
+        return this;
+    }
+
+    Limit unlink()
+    {
+        if(_previous != null) _previous._next = _next;
+        if(_next != null) _next._previous = _previous;
+        _previous = null;
+        _next = null;
+        return this;
+    }
 }
@@ -0,0 +1,182 @@
+package ayizan.domain.orderbook.limit;
+
+import ayizan.domain.Orders.Side;
+
+import static ayizan.util.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+class LimitLadder implements Limits
+{
+    private static final int MIN_SIZE = 64;
+    private static final int MAX_SIZE = 1 << 30;
+
+    private final Side side;
+    private final long tickSize;
+    private final int maxSize;
+
+    private Limit[] limits;
+    private long[] occupied;
+    private long basePrice;
+    private int bestIndex;
+
+    LimitLadder(final Side side, final long tickSize, final int size, final int maxSize)
+    {
+        checkArgument(tickSize > 0, "Invalid tick size '%s'", tickSize);
+        checkArgument(size > 0 && size <= MAX_SIZE, "Invalid ladder size '%s'", size);
+        checkArgument(maxSize >= size && maxSize <= MAX_SIZE, "Invalid maximum ladder size '%s'", maxSize);
+        this.side = side;
+        this.tickSize = tickSize;
+        this.maxSize = ceilingPowerOfTwo(maxSize);
+        this.limits = new Limit[ceilingPowerOfTwo(size)];
+        this.occupied = new long[limits.length >>> 6];
+        this.bestIndex = -1;
+    }
+
+    @Override
+    public Limit best()
+    {
+        return (bestIndex < 0)? null : limits[bestIndex];
+    }
+
+    @Override
+    public Limit get(final long price)
+    {
+        final long index = index(price);
+        return (index >= 0 && index < limits.length)? limits[(int) index] : null;
+    }
+
+    @Override
+    public Limit add(final Limit limit)
+    {
+        long index = index(limit.getPrice());
+        if(index < 0 || index >= limits.length) index = recentre(limit.getPrice());
+
+        final int slot = (int) index;
+        limits[slot] = limit;
+        occupied[slot >>> 6] |= (1L << slot);
+
+        final Limit previous = limitAt(betterThan(slot));
+        if(previous == null) {
+            limit.link(null, best());
+            bestIndex = slot;
+        }
+        else limit.link(previous, previous._next);
+        return limit;
+    }
+
+    @Override
+    public Limit remove(final Limit limit)
+    {
+        final int slot = (int) index(limit.getPrice());
+        limits[slot] = null;
+        occupied[slot >>> 6] &= ~(1L << slot);
+
+        if(slot == bestIndex) bestIndex = (limit._next == null)? -1 : (int) index(limit._next.getPrice());
+        return limit.unlink();
+    }
+
+    @Override
+    public boolean isValid(final long price)
+    {
+        if((price % tickSize) != 0) return false;
+
+        final long index = index(price);
+        return (index >= 0 && index < limits.length) || span(price) <= maxSize;
+    }
+
+    private long index(final long price)
+    {
+        return (price - basePrice) / tickSize;
+    }
+
+    private long priceAt(final int index)
+    {
+        return basePrice + (index * tickSize);
+    }
+
+    private Limit limitAt(final int index)
+    {
+        return (index < 0)? null : limits[index];
+    }
+
+    private int betterThan(final int slot)
+    {
+        if(bestIndex < 0) return -1;
+        switch(side) {
+            case BUY:  return (slot > bestIndex)? -1 : nextOccupied(slot + 1);
+            case SELL: return (slot < bestIndex)? -1 : previousOccupied(slot - 1);
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    private long recentre(final long price)
+    {
+        if(bestIndex < 0) {
+            basePrice = price - ((limits.length >>> 1) * tickSize);
+            return index(price);
+        }
+
+        final int first = nextOccupied(0);
+        final long low = min(price, priceAt(first));
+        final long span = span(price);
+
+        int size = limits.length;
+        while(size < (span << 1) && size < maxSize) size <<= 1;
+
+        final long base = low - (((size - span) >>> 1) * tickSize);
+        final Limit[] recentredLimits = new Limit[size];
+        final long[] recentredOccupied = new long[size >>> 6];
+        for(int index = first; index >= 0; index = nextOccupied(index + 1)) {
+            final int slot = (int) ((priceAt(index) - base) / tickSize);
+            recentredLimits[slot] = limits[index];
+            recentredOccupied[slot >>> 6] |= (1L << slot);
+        }
+
+        final long bestPrice = priceAt(bestIndex);
+        this.limits = recentredLimits;
+        this.occupied = recentredOccupied;
+        this.basePrice = base;
+        this.bestIndex = (int) index(bestPrice);
+        return index(price);
+    }
+
+    private long span(final long price)
+    {
+        if(bestIndex < 0) return 1;
+
+        final long distance = max(price, priceAt(previousOccupied(limits.length - 1))) - min(price, priceAt(nextOccupied(0)));
+        return (distance < 0)? Long.MAX_VALUE : (distance / tickSize) + 1;
+    }
+
+    private int nextOccupied(final int from)
+    {
+        if(from >= limits.length) return -1;
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L << from);
+        while(bits == 0) {
+            if(++word == occupied.length) return -1;
+            bits = occupied[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    private int previousOccupied(final int from)
+    {
+        if(from < 0) return -1;
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L >>> (63 - (from & 63)));
+        while(bits == 0) {
+            if(word-- == 0) return -1;
+            bits = occupied[word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    private static int ceilingPowerOfTwo(final int size)
+    {
+        int powerOfTwo = MIN_SIZE;
+        while(powerOfTwo < size) powerOfTwo <<= 1;
+        return powerOfTwo;
+    }
+}
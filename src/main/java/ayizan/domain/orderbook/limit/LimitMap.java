@@ -0,0 +1,65 @@
+package ayizan.domain.orderbook.limit;
+
+import ayizan.domain.Orders.Side;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import static ayizan.domain.Sides.priceComparator;
+
+class LimitMap implements Limits
+{
+    private final Map<Long, Limit> limitsByPrice;
+    private final Comparator<Long> priceComparator;
+
+    private Limit best;
+
+    LimitMap(final Side side)
+    {
+        this.limitsByPrice = new HashMap<Long, Limit>();
+        this.priceComparator = priceComparator(side);
+    }
+
+    @Override
+    public Limit best()
+    {
+        return best;
+    }
+
+    @Override
+    public Limit get(final long price)
+    {
+        return limitsByPrice.get(price);
+    }
+
+    @Override
+    public Limit add(final Limit limit)
+    {
+        Limit previous = null;
+        Limit next = best;
+        while(next != null && priceComparator.compare(limit.getPrice(), next.getPrice()) != 1) {
+            previous = next;
+            next = next._next;
+        }
+        if(previous == null) best = limit;
+
+        limitsByPrice.put(limit.getPrice(), limit);
+        return limit.link(previous, next);
+    }
+
+    @Override
+    public Limit remove(final Limit limit)
+    {
+        if(best == limit) best = limit._next;
+
+        limitsByPrice.remove(limit.getPrice());
+        return limit.unlink();
+    }
+
+    @Override
+    public boolean isValid(final long price)
+    {
+        return true;
+    }
+}
@@ -8,7 +8,7 @@ import ayizan.domain.orderbook.Order;
 
 public class LimitOrder implements Order
 {
-    private Identifier identifier;
+    private final Identifier identifier;
     private long orderId;
     private Side side;
     private TimeInForce timeInForce;
@@ -20,6 +20,12 @@ public class LimitOrder implements Order
 
     LimitOrder _next;
     LimitOrder _previous;
+    Limit _limit;
+
+    LimitOrder()
+    {
+        this.identifier = new Identifier();
+    }
 
     @Override
     public Identifier getIdentifier()
@@ -29,7 +35,12 @@ public class LimitOrder implements Order
 
     LimitOrder setIdentifier(final Identifier identifier)
     {
-        this.identifier = identifier;
+        return setIdentifier(identifier.getId(), identifier.getAttributionId());
+    }
+
+    LimitOrder setIdentifier(final String id, final int attributionId)
+    {
+        identifier.set(id, attributionId);
         return this;
     }
 
@@ -152,6 +163,7 @@ public class LimitOrder implements Order
     @Override
     public LimitOrder fill(final long quantity)
     {
+        if(_limit != null) _limit.reduce(quantity);
         filledQuantity += quantity;
         workingQuantity -= quantity;
         return this;
@@ -160,6 +172,7 @@ public class LimitOrder implements Order
     @Override
     public LimitOrder cancel()
     {
+        if(_limit != null) _limit.reduce(workingQuantity);
         workingQuantity = 0;
         return this;
     }
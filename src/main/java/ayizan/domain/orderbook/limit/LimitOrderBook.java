@@ -7,39 +7,68 @@ import ayizan.domain.Orders.TimeInForce;
 import ayizan.domain.orderbook.ExecutionIdGenerator;
 import ayizan.domain.Identifier;
 import ayizan.domain.orderbook.OrderBook;
+import ayizan.domain.orderbook.OrderBookRepository.OrderBookFactory;
 import ayizan.domain.orderbook.OrderIdGenerator;
+import ayizan.util.Builder;
 
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
-import static ayizan.domain.Sides.priceComparator;
+import static ayizan.domain.Sides.flip;
+import static ayizan.domain.StandardUnits.toTicks;
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkNotNull;
+import static ayizan.util.Preconditions.checkState;
+import static java.lang.Math.max;
 
 public class LimitOrderBook implements OrderBook
 {
+    private static final int DEFAULT_ORDER_POOL_SIZE = 1024;
+    private static final int DEFAULT_LIMIT_POOL_SIZE = 128;
+    private static final int DEFAULT_MAX_LADDER_SIZE = 1 << 20;
+    private static final int SNAPSHOT_VERSION = 1;
+
     private final OrderIdGenerator orderIdGenerator;
     private final ExecutionIdGenerator executionIdGenerator;
-    private final Map<Identifier, LimitOrder> limitOrdersByIdentifier;
-    private final Map<Long, Limit> bidsByPrice;
-    private final Map<Long, Limit> asksByPrice;
+    private final LimitOrderPool limitOrderPool;
+    private final LimitPool limitPool;
+    private final LimitOrderIndex limitOrdersByIdentifier;
+    private final Limits bids;
+    private final Limits asks;
+    private final AttributionCounts bidAttributions;
+    private final AttributionCounts askAttributions;
     private final InstrumentSpecification instrument;
 
     private enum State { ACCEPTING, EXECUTING, ADDING, CANCELING, WAITING }
 
-    private Limit bestBid;
-    private Limit bestAsk;
     private LimitOrder acceptLimitOrder;
     private LimitOrder cancelLimitOrder;
     private State state;
 
+    private boolean depthTracking;
+    private int bidLevelCount;
+    private int askLevelCount;
+    private Limit changedHead;
+    private Limit changedTail;
+
     public LimitOrderBook(final InstrumentSpecification instrumentSpecification)
     {
-        this.limitOrdersByIdentifier = new HashMap<Identifier, LimitOrder>();
-        this.bidsByPrice = new HashMap<Long, Limit>();
-        this.asksByPrice = new HashMap<Long, Limit>();
+        this(instrumentSpecification, 0, 0, DEFAULT_ORDER_POOL_SIZE, DEFAULT_LIMIT_POOL_SIZE);
+    }
+
+    private LimitOrderBook(final InstrumentSpecification instrumentSpecification, final int ladderSize, final int maxLadderSize, final int orderPoolSize, final int limitPoolSize)
+    {
+        this.limitOrdersByIdentifier = new LimitOrderIndex(orderPoolSize);
+        this.bids = newLimits(Side.BUY, instrumentSpecification, ladderSize, maxLadderSize);
+        this.asks = newLimits(Side.SELL, instrumentSpecification, ladderSize, maxLadderSize);
+        this.bidAttributions = new AttributionCounts();
+        this.askAttributions = new AttributionCounts();
         this.orderIdGenerator = new OrderIdGenerator();
         this.executionIdGenerator = new ExecutionIdGenerator();
-        this.acceptLimitOrder = new LimitOrder();
+        this.limitOrderPool = new LimitOrderPool(orderPoolSize);
+        this.limitPool = new LimitPool(limitPoolSize);
+        this.acceptLimitOrder = limitOrderPool.allocate();
         this.state = State.WAITING;
 
         this.instrument = instrumentSpecification;
@@ -60,12 +89,36 @@ public class LimitOrderBook implements OrderBook
         return true;
     }
 
+    @Override
+    public int getOrderCount()
+    {
+        return limitOrdersByIdentifier.size();
+    }
+
+    @Override
+    public int getLevelCount(final Side side)
+    {
+        switch(side) {
+            case BUY:  return bidLevelCount;
+            case SELL: return askLevelCount;
+        }
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public LimitOrder status(final Identifier identifier)
     {
+        limitOrderPool.recycle();
         return limitOrdersByIdentifier.get(identifier);
     }
 
+    @Override
+    public LimitOrder status(final String id, final int attributionId)
+    {
+        limitOrderPool.recycle();
+        return limitOrdersByIdentifier.get(id, attributionId);
+    }
+
     @Override
     public LimitOrder accept(final Identifier identifier,
                              final Side side,
@@ -74,22 +127,55 @@ public class LimitOrderBook implements OrderBook
                              final long filledQuantity,
                              final TimeInForce timeInForce)
     {
+        return accept(identifier.getId(), identifier.getAttributionId(), side, price, quantity, filledQuantity, timeInForce);
+    }
+
+    @Override
+    public LimitOrder accept(final String id,
+                             final int attributionId,
+                             final Side side,
+                             final long price,
+                             final long quantity,
+                             final long filledQuantity,
+                             final TimeInForce timeInForce)
+    {
+        limitOrderPool.recycle();
         state = State.ACCEPTING;
-        return acceptLimitOrder.setIdentifier(identifier).
-                setOrderId(orderIdGenerator.next()).
+        return acceptLimitOrder.setIdentifier(id, attributionId).
+                setOrderId(orderIdGenerator.nextLong()).
                 setSide(side).
                 setPrice(price).
                 setQuantity(quantity).
                 setWorkingQuantity(quantity - filledQuantity).
                 setFilledQuantity(filledQuantity).
                 setTimeInForce(timeInForce).
-                setRejectReason(RejectReason.NONE);
+                setRejectReason(isDuplicate(acceptLimitOrder.getIdentifier())? RejectReason.DUPLICATE_ORDER :
+                                !limits(side).isValid(price)? RejectReason.INVALID_PRICE :
+                                RejectReason.NONE);
+    }
+
+    private boolean isDuplicate(final Identifier identifier)
+    {
+        final LimitOrder limitOrder = limitOrdersByIdentifier.get(identifier);
+        return limitOrder != null && limitOrder != cancelLimitOrder;
     }
 
     @Override
     public LimitOrder cancel(final Identifier identifier)
     {
-        final LimitOrder limitOrder = limitOrdersByIdentifier.get(identifier);
+        limitOrderPool.recycle();
+        return cancelling(limitOrdersByIdentifier.get(identifier));
+    }
+
+    @Override
+    public LimitOrder cancel(final String id, final int attributionId)
+    {
+        limitOrderPool.recycle();
+        return cancelling(limitOrdersByIdentifier.get(id, attributionId));
+    }
+
+    private LimitOrder cancelling(final LimitOrder limitOrder)
+    {
         if(limitOrder != null) {
             state = State.CANCELING;
             cancelLimitOrder = limitOrder;
@@ -104,12 +190,12 @@ public class LimitOrderBook implements OrderBook
         switch(side) {
             case BUY:
                 state = State.EXECUTING;
-                execute(bestAsk, matcher);
+                execute(asks.best(), matcher);
                 state = current;
                 return;
             case SELL:
                 state = State.EXECUTING;
-                execute(bestBid, matcher);
+                execute(bids.best(), matcher);
                 state = current;
                 return;
         }
@@ -119,130 +205,342 @@ public class LimitOrderBook implements OrderBook
 
     private void execute(final Limit limit, final Matcher matcher)
     {
-        for(Limit depth = limit; depth != null; depth = depth._next) {
-            for(LimitOrder order = depth._head; order != null; order = order._next) {
+        for(Limit depth = limit, nextDepth; depth != null; depth = nextDepth) {
+            nextDepth = depth._next;
+            for(LimitOrder order = depth._head, nextOrder; order != null; order = nextOrder) {
+                nextOrder = order._next;
                 final boolean next = matcher.next(order);
+                changed(depth);
                 if(order.isCompleted()) removeLimitOrder(order);
                 if(!next) return;
             }
         }
     }
 
+    @Override
+    public long liquidity(final Side side, final long price, final long quantity, final int attributionId)
+    {
+        final Limit best = limits(flip(side)).best();
+
+        long depthQuantity = 0;
+        for(Limit depth = best; depth != null && depthQuantity < quantity && isWithinLimit(side, price, depth.getPrice()); depth = depth._next) {
+            depthQuantity += depth.getQuantity();
+        }
+        if(depthQuantity < quantity) return depthQuantity;
+        if(attributions(flip(side)).get(attributionId) == 0) return quantity;
+
+        long liquidity = 0;
+        for(Limit depth = best; depth != null && isWithinLimit(side, price, depth.getPrice()); depth = depth._next) {
+            for(LimitOrder order = depth._head; order != null; order = order._next) {
+                if(order.getIdentifier().getAttributionId() != attributionId) liquidity += order.getWorkingQuantity();
+                if(liquidity >= quantity) return quantity;
+            }
+        }
+        return liquidity;
+    }
+
+    @Override
+    public void depth(final DepthListener depthListener)
+    {
+        if(!depthTracking) {
+            depthTracking = true;
+            for(Limit depth = bids.best(); depth != null; depth = depth._next) changed(depth);
+            for(Limit depth = asks.best(); depth != null; depth = depth._next) changed(depth);
+        }
+
+        for(Limit limit = changedHead, nextLimit; limit != null; limit = nextLimit) {
+            nextLimit = limit._nextChanged;
+            if(limit.isEmpty()) {
+                if(limit.isPublished()) depthListener.deleteLevel(limit.getSide(), limit.getPrice());
+                limitPool.release(limit);
+            }
+            else {
+                if(!limit.isPublished()) depthListener.addLevel(limit.getSide(), limit.getPrice(), limit.getQuantity(), limit.getOrderCount());
+                else if(limit.isModified()) depthListener.updateLevel(limit.getSide(), limit.getPrice(), limit.getQuantity(), limit.getOrderCount());
+                limit.publish().setChanged(false)._nextChanged = null;
+            }
+        }
+        changedHead = null;
+        changedTail = null;
+    }
+
+    @Override
+    public void snapshot(final int levels, final LevelVisitor levelVisitor)
+    {
+        int level = 0;
+        for(Limit depth = bids.best(); depth != null && level++ < levels; depth = depth._next) levelVisitor.level(Side.BUY, depth.getPrice(), depth.getQuantity(), depth.getOrderCount());
+
+        level = 0;
+        for(Limit depth = asks.best(); depth != null && level++ < levels; depth = depth._next) levelVisitor.level(Side.SELL, depth.getPrice(), depth.getQuantity(), depth.getOrderCount());
+    }
+
     @Override
     public long commit()
     {
         switch(state) {
             case ACCEPTING:
                 state = (acceptLimitOrder.isRejected())? State.WAITING : State.ADDING;
+                removeCancelledLimitOrder();
                 break;
             case CANCELING:
                 state = State.WAITING;
-                if(cancelLimitOrder != null && cancelLimitOrder.isCompleted()) {
-                    removeLimitOrder(cancelLimitOrder);
-                    cancelLimitOrder = null;
-                }
+                removeCancelledLimitOrder();
                 break;
             case ADDING:
                 state = State.WAITING;
                 if(!acceptLimitOrder.isCompleted()) {
                     addLimitOrder(acceptLimitOrder);
-                    acceptLimitOrder = new LimitOrder();
+                    acceptLimitOrder = limitOrderPool.allocate();
                 }
                 break;
         }
-        return executionIdGenerator.next();
+        return executionIdGenerator.nextLong();
+    }
+
+    @Override
+    public void writeSnapshot(final DataOutput output, final long sequence) throws IOException
+    {
+        output.writeInt(SNAPSHOT_VERSION);
+        output.writeUTF(getSymbol());
+        output.writeLong(sequence);
+        output.writeLong(orderIdGenerator.current());
+        output.writeLong(executionIdGenerator.current());
+        output.writeInt(countLimitOrders(bids.best()) + countLimitOrders(asks.best()));
+        writeLimitOrders(output, bids.best());
+        writeLimitOrders(output, asks.best());
+    }
+
+    @Override
+    public long readSnapshot(final DataInput input) throws IOException
+    {
+        checkState(limitOrdersByIdentifier.size() == 0, "Snapshot loaded into non-empty order book");
+        final int version = input.readInt();
+        checkArgument(version == SNAPSHOT_VERSION, "Unsupported snapshot version '%s'", version);
+        final String symbol = input.readUTF();
+        checkArgument(symbol.equals(getSymbol()), "Snapshot symbol '%s' != '%s'", symbol, getSymbol());
+
+        final long sequence = input.readLong();
+        orderIdGenerator.reset(input.readLong());
+        executionIdGenerator.reset(input.readLong());
+        for(int i = 0, size = input.readInt(); i < size; i++) {
+            final LimitOrder limitOrder = readLimitOrder(input, limitOrderPool.allocate());
+            checkArgument(limitOrdersByIdentifier.get(limitOrder.getIdentifier()) == null, "Duplicate order '%s' in snapshot", limitOrder.getIdentifier());
+            checkArgument(limits(limitOrder.getSide()).isValid(limitOrder.getPrice()), "Invalid price '%s' for order '%s' in snapshot", limitOrder.getPrice(), limitOrder.getIdentifier());
+            addLimitOrder(limitOrder);
+        }
+        return sequence;
+    }
+
+    private static int countLimitOrders(final Limit limit)
+    {
+        int count = 0;
+        for(Limit depth = limit; depth != null; depth = depth._next) count += depth.getOrderCount();
+        return count;
+    }
+
+    private static void writeLimitOrders(final DataOutput output, final Limit limit) throws IOException
+    {
+        for(Limit depth = limit; depth != null; depth = depth._next) {
+            for(LimitOrder order = depth._head; order != null; order = order._next) {
+                output.writeUTF(order.getIdentifier().getId());
+                output.writeInt(order.getIdentifier().getAttributionId());
+                output.writeLong(order.getOrderId());
+                output.writeByte(order.getSide().getNumber());
+                output.writeByte(order.getTimeInForce().getNumber());
+                output.writeLong(order.getPrice());
+                output.writeLong(order.getQuantity());
+                output.writeLong(order.getWorkingQuantity());
+                output.writeLong(order.getFilledQuantity());
+            }
+        }
+    }
+
+    private static LimitOrder readLimitOrder(final DataInput input, final LimitOrder limitOrder) throws IOException
+    {
+        return limitOrder.
+                setIdentifier(input.readUTF(), input.readInt()).
+                setOrderId(input.readLong()).
+                setSide(Side.valueOf(input.readByte())).
+                setTimeInForce(TimeInForce.valueOf(input.readByte())).
+                setPrice(input.readLong()).
+                setQuantity(input.readLong()).
+                setWorkingQuantity(input.readLong()).
+                setFilledQuantity(input.readLong()).
+                setRejectReason(RejectReason.NONE);
+    }
+
+    private void removeCancelledLimitOrder()
+    {
+        if(cancelLimitOrder != null && cancelLimitOrder.isCompleted()) removeLimitOrder(cancelLimitOrder);
+        cancelLimitOrder = null;
     }
 
     private void addLimitOrder(final LimitOrder limitOrder)
     {
-        final Side side = limitOrder.getSide();
-        final Map<Long, Limit> limits = limits(side);
+        final Limits limits = limits(limitOrder.getSide());
         final Limit limit = limits.get(limitOrder.getPrice());
 
-        if(limit == null) updateBestBidAsk(side, addLimit(bestLimit(side), priceComparator(side), newLimit(limits, limitOrder.getPrice())).add(limitOrder));
-        else limit.add(limitOrder);
+        if(limit == null) {
+            changed(limits.add(newLimit(limitOrder.getSide(), limitOrder.getPrice()))).add(limitOrder);
+            countLevel(limitOrder.getSide(), 1);
+        }
+        else changed(limit).add(limitOrder);
 
-        limitOrdersByIdentifier.put(limitOrder.getIdentifier(), limitOrder);
+        attributions(limitOrder.getSide()).add(limitOrder.getIdentifier().getAttributionId(), 1);
+        limitOrdersByIdentifier.put(limitOrder);
     }
 
     private void removeLimitOrder(final LimitOrder limitOrder)
     {
-        final Side side = limitOrder.getSide();
-        final Map<Long, Limit> limitDepths = limits(side);
-        final Limit limit = limitDepths.get(limitOrder.getPrice()).remove(limitOrder);
-        if(limit.isEmpty()) updateBestBidAsk(side, removeLimit(limitDepths, limit));
+        final Limits limits = limits(limitOrder.getSide());
+        final Limit limit = changed(limits.get(limitOrder.getPrice())).remove(limitOrder);
+        if(limit.isEmpty()) {
+            limits.remove(limit);
+            countLevel(limitOrder.getSide(), -1);
+            if(!depthTracking) limitPool.release(limit);
+        }
 
-        limitOrdersByIdentifier.remove(limitOrder.getIdentifier());
+        attributions(limitOrder.getSide()).add(limitOrder.getIdentifier().getAttributionId(), -1);
+        limitOrdersByIdentifier.remove(limitOrder);
+        limitOrderPool.release(limitOrder);
     }
 
-    private Limit updateBestBidAsk(final Side side, final Limit limit)
+    private void countLevel(final Side side, final int delta)
     {
         switch(side) {
             case BUY:
-                if(bestBid == null || bestBid._previous != null) bestBid = limit;
-                else if(bestBid == limit) bestBid = limit._next;
-                break;
+                bidLevelCount += delta;
+                return;
             case SELL:
-                if(bestAsk == null || bestAsk._previous != null) bestAsk = limit;
-                else if(bestAsk == limit) bestAsk = limit._next;
-                break;
+                askLevelCount += delta;
+                return;
         }
-        return limit;
+        throw new UnsupportedOperationException();
     }
 
-    private Limit addLimit(final Limit bestLimit, final Comparator<Long> priceComparator, final Limit newLimit)
+    private Limit newLimit(final Side side, final long price)
     {
-        if(bestLimit != null) {
-            Limit candidate = bestLimit;
-            do {
-                if(priceComparator.compare(newLimit.getPrice(), candidate.getPrice()) == 1) {
-                    newLimit._previous = candidate._previous;
-                    candidate._previous = newLimit;
-                    newLimit._next = candidate;
-                    return newLimit;
-                }
-                if(candidate._next == null) {
-                    candidate._next = newLimit;
-                    newLimit._previous = candidate;
-                    return newLimit;
-                }
-            }
-            while((candidate = candidate._next) != null);
-        }
-        return newLimit;
+        return limitPool.allocate().setSide(side).setPrice(price);
     }
 
-    private Limit removeLimit(final Map<Long, Limit> map, final Limit limit)
+    private Limit changed(final Limit limit)
     {
-        if(limit._previous != null) limit._previous._next = limit._next;
-        if(limit._next != null) limit._next._previous = limit._previous;
-        return map.remove(limit.getPrice());
+        if(depthTracking && !limit.isChanged()) {
+            if(changedTail == null) changedHead = limit;
+            else changedTail._nextChanged = limit;
+            changedTail = limit.setChanged(true);
+        }
+        return limit;
     }
 
-
-    private Limit newLimit(final Map<Long, Limit> map, final long price)
+    private static boolean isWithinLimit(final Side side, final long limitPrice, final long price)
     {
-        final Limit limit = new Limit().setPrice(price);
-        map.put(price, limit);
-        return limit;
+        switch(side) {
+            case BUY:  return price <= limitPrice;
+            case SELL: return price >= limitPrice;
+        }
+        throw new UnsupportedOperationException();
     }
 
-
-    private Map<Long, Limit> limits(final Side side)
+    private Limits limits(final Side side)
     {
         switch(side) {
-            case BUY:  return bidsByPrice;
-            case SELL: return asksByPrice;
+            case BUY:  return bids;
+            case SELL: return asks;
         }
         throw new UnsupportedOperationException();
     }
 
-    private Limit bestLimit(final Side side)
+    private AttributionCounts attributions(final Side side)
     {
         switch(side) {
-            case BUY:  return bestBid;
-            case SELL: return bestAsk;
+            case BUY:  return bidAttributions;
+            case SELL: return askAttributions;
         }
         throw new UnsupportedOperationException();
     }
+
+    public static OrderBookFactory newOrderBookFactory()
+    {
+        return newOrderBookFactory(LimitOrderBookBuilder.newBuilder());
+    }
+
+    public static OrderBookFactory newOrderBookFactory(final LimitOrderBookBuilder limitOrderBookBuilder)
+    {
+        return new OrderBookFactory()
+        {
+            @Override
+            public OrderBook newInstance(final InstrumentSpecification instrumentSpecification)
+            {
+                return limitOrderBookBuilder.setInstrument(instrumentSpecification).build();
+            }
+        };
+    }
+
+    private static Limits newLimits(final Side side, final InstrumentSpecification instrumentSpecification, final int ladderSize, final int maxLadderSize)
+    {
+        return (ladderSize > 0)? new LimitLadder(side, max(1, toTicks(instrumentSpecification.getTickSize())), ladderSize, max(ladderSize, maxLadderSize)) : new LimitMap(side);
+    }
+
+
+    public static class LimitOrderBookBuilder implements Builder<LimitOrderBook>
+    {
+        private InstrumentSpecification instrumentSpecification;
+        private int ladderSize;
+        private int maxLadderSize = DEFAULT_MAX_LADDER_SIZE;
+        private int orderPoolSize = DEFAULT_ORDER_POOL_SIZE;
+        private int limitPoolSize = DEFAULT_LIMIT_POOL_SIZE;
+
+        public static LimitOrderBookBuilder newBuilder()
+        {
+            return new LimitOrderBookBuilder();
+        }
+
+        public LimitOrderBookBuilder setInstrument(final InstrumentSpecification instrumentSpecification)
+        {
+            this.instrumentSpecification = instrumentSpecification;
+            return this;
+        }
+
+        public LimitOrderBookBuilder setLadderSize(final int ladderSize)
+        {
+            this.ladderSize = ladderSize;
+            return this;
+        }
+
+        public LimitOrderBookBuilder setMaxLadderSize(final int maxLadderSize)
+        {
+            this.maxLadderSize = maxLadderSize;
+            return this;
+        }
+
+        public LimitOrderBookBuilder setOrderPoolSize(final int orderPoolSize)
+        {
+            this.orderPoolSize = orderPoolSize;
+            return this;
+        }
+
+        public LimitOrderBookBuilder setLimitPoolSize(final int limitPoolSize)
+        {
+            this.limitPoolSize = limitPoolSize;
+            return this;
+        }
+
+        @Override
+        public LimitOrderBook build()
+        {
+            return new LimitOrderBook(checkNotNull(instrumentSpecification, "instrument is null"), ladderSize, maxLadderSize, orderPoolSize, limitPoolSize);
+        }
+
+        @Override
+        public LimitOrderBookBuilder clear()
+        {
+            instrumentSpecification = null;
+            ladderSize = 0;
+            maxLadderSize = DEFAULT_MAX_LADDER_SIZE;
+            orderPoolSize = DEFAULT_ORDER_POOL_SIZE;
+            limitPoolSize = DEFAULT_LIMIT_POOL_SIZE;
+            return this;
+        }
+    }
 }
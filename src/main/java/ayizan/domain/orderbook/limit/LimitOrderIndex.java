@@ -0,0 +1,129 @@
+package ayizan.domain.orderbook.limit;
+
+import ayizan.domain.Identifier;
+
+import static ayizan.util.Preconditions.checkArgument;
+
+class LimitOrderIndex
+{
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] hashes;
+    private LimitOrder[] limitOrders;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    LimitOrderIndex(final int expectedSize)
+    {
+        checkArgument(expectedSize >= 0 && expectedSize <= (MAX_CAPACITY >>> 1), "Invalid index size '%s'", expectedSize);
+        allocate(ceilingPowerOfTwo(expectedSize << 1));
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public LimitOrder get(final Identifier identifier)
+    {
+        return get(identifier.longHashCode(), identifier.getId(), identifier.getAttributionId());
+    }
+
+    public LimitOrder get(final String id, final int attributionId)
+    {
+        return get(Identifier.longHashCode(id, attributionId), id, attributionId);
+    }
+
+    public LimitOrder put(final LimitOrder limitOrder)
+    {
+        final Identifier identifier = limitOrder.getIdentifier();
+        final long hash = identifier.longHashCode();
+        for(int index = index(hash); ; index = (index + 1) & mask) {
+            final LimitOrder candidate = limitOrders[index];
+            if(candidate == null) {
+                hashes[index] = hash;
+                limitOrders[index] = limitOrder;
+                if(++size > resizeThreshold) resize();
+                return null;
+            }
+            if(hashes[index] == hash && candidate.getIdentifier().equals(identifier.getId(), identifier.getAttributionId())) return candidate;
+        }
+    }
+
+    public LimitOrder remove(final LimitOrder limitOrder)
+    {
+        for(int index = index(limitOrder.getIdentifier().longHashCode()); ; index = (index + 1) & mask) {
+            final LimitOrder candidate = limitOrders[index];
+            if(candidate == null) return null;
+            if(candidate == limitOrder) {
+                compact(index);
+                size--;
+                return candidate;
+            }
+        }
+    }
+
+    private LimitOrder get(final long hash, final String id, final int attributionId)
+    {
+        for(int index = index(hash); ; index = (index + 1) & mask) {
+            final LimitOrder candidate = limitOrders[index];
+            if(candidate == null) return null;
+            if(hashes[index] == hash && candidate.getIdentifier().equals(id, attributionId)) return candidate;
+        }
+    }
+
+    private void compact(final int removedIndex)
+    {
+        int gap = removedIndex;
+        for(int index = (gap + 1) & mask; limitOrders[index] != null; index = (index + 1) & mask) {
+            final int home = index(hashes[index]);
+            if(((index - home) & mask) >= ((index - gap) & mask)) {
+                hashes[gap] = hashes[index];
+                limitOrders[gap] = limitOrders[index];
+                gap = index;
+            }
+        }
+        hashes[gap] = 0;
+        limitOrders[gap] = null;
+    }
+
+    private void resize()
+    {
+        checkArgument(limitOrders.length < MAX_CAPACITY, "Index capacity exceeded");
+
+        final long[] previousHashes = hashes;
+        final LimitOrder[] previousLimitOrders = limitOrders;
+        allocate(previousLimitOrders.length << 1);
+        for(int i = 0; i < previousLimitOrders.length; i++) {
+            final LimitOrder limitOrder = previousLimitOrders[i];
+            if(limitOrder != null) {
+                int index = index(previousHashes[i]);
+                while(limitOrders[index] != null) index = (index + 1) & mask;
+                hashes[index] = previousHashes[i];
+                limitOrders[index] = limitOrder;
+            }
+        }
+    }
+
+    private void allocate(final int capacity)
+    {
+        this.hashes = new long[capacity];
+        this.limitOrders = new LimitOrder[capacity];
+        this.mask = capacity - 1;
+        this.resizeThreshold = capacity >>> 1;
+    }
+
+    private int index(final long hash)
+    {
+        return ((int) (hash ^ (hash >>> 32))) & mask;
+    }
+
+    private static int ceilingPowerOfTwo(final int capacity)
+    {
+        int powerOfTwo = MIN_CAPACITY;
+        while(powerOfTwo < capacity) powerOfTwo <<= 1;
+        return powerOfTwo;
+    }
+}
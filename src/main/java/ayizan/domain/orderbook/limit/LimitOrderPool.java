@@ -0,0 +1,45 @@
+package ayizan.domain.orderbook.limit;
+
+class LimitOrderPool
+{
+    private LimitOrder free;
+    private LimitOrder released;
+    private LimitOrder releasedTail;
+
+    LimitOrderPool(final int size)
+    {
+        for(int i = 0; i < size; i++) {
+            final LimitOrder limitOrder = new LimitOrder();
+            limitOrder._next = free;
+            free = limitOrder;
+        }
+    }
+
+    LimitOrder allocate()
+    {
+        final LimitOrder limitOrder = free;
+        if(limitOrder == null) return new LimitOrder();
+
+        free = limitOrder._next;
+        limitOrder._next = null;
+        return limitOrder;
+    }
+
+    void release(final LimitOrder limitOrder)
+    {
+        if(released == null) releasedTail = limitOrder;
+        limitOrder._previous = null;
+        limitOrder._next = released;
+        released = limitOrder;
+    }
+
+    void recycle()
+    {
+        if(released != null) {
+            releasedTail._next = free;
+            free = released;
+            released = null;
+            releasedTail = null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ayizan.domain.orderbook.limit;
+
+class LimitPool
+{
+    private Limit free;
+
+    LimitPool(final int size)
+    {
+        for(int i = 0; i < size; i++) release(new Limit());
+    }
+
+    Limit allocate()
+    {
+        final Limit limit = free;
+        if(limit == null) return new Limit();
+
+        free = limit._next;
+        limit._next = null;
+        return limit;
+    }
+
+    void release(final Limit limit)
+    {
+        limit.clear();
+        limit._next = free;
+        free = limit;
+    }
+}
@@ -0,0 +1,14 @@
+package ayizan.domain.orderbook.limit;
+
+interface Limits
+{
+    Limit best();
+
+    Limit get(long price);
+
+    Limit add(Limit limit);
+
+    Limit remove(Limit limit);
+
+    boolean isValid(long price);
+}
@@ -0,0 +1,173 @@
+package ayizan.kernel;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import static ayizan.util.Exceptions.rethrow;
+import static ayizan.util.Exceptions.swallow;
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkNotNull;
+import static ayizan.util.Preconditions.checkState;
+
+public final class Affinity
+{
+    private static final File THREAD_SELF = new File("/proc/thread-self");
+    private static final String THREAD_STATUS = "status";
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+    private static final String TASKSET = "taskset";
+
+    private Affinity() {}
+
+    public static Runnable pinned(final String cpus, final Runnable runnable)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try {
+                    bind(cpus);
+                }
+                catch(final IllegalStateException e) {
+                    swallow(e);
+                }
+                runnable.run();
+            }
+        };
+    }
+
+    public static <T> T callPinned(final ThreadFactory threadFactory, final String cpus, final Callable<T> callable)
+    {
+        final FutureTask<T> task = new FutureTask<T>(new Callable<T>()
+        {
+            @Override
+            public T call() throws Exception
+            {
+                bind(cpus);
+                return callable.call();
+            }
+        });
+        threadFactory.newThread(task).start();
+        return get(task);
+    }
+
+    public static void submitPinned(final ExecutorService executorService, final String cpus, final Runnable runnable)
+    {
+        final FutureTask<Void> binding = new FutureTask<Void>(new Callable<Void>()
+        {
+            @Override
+            public Void call()
+            {
+                bind(cpus);
+                return null;
+            }
+        });
+        executorService.submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                binding.run();
+                try {
+                    binding.get();
+                }
+                catch(final Exception e) {
+                    return;
+                }
+                runnable.run();
+            }
+        });
+        get(binding);
+    }
+
+    public static String[] split(final String cpus)
+    {
+        final List<String> cpuList = new ArrayList<String>();
+        for(final String range : checkNotNull(cpus, "cpus is null").split(",")) {
+            final int separator = range.indexOf('-');
+            final int first = Integer.parseInt((separator < 0)? range : range.substring(0, separator));
+            final int last = (separator < 0)? first : Integer.parseInt(range.substring(separator + 1));
+            checkArgument(first <= last, "Invalid cpu range '%s'", range);
+            for(int cpu = first; cpu <= last; cpu++) cpuList.add(Integer.toString(cpu));
+        }
+        return cpuList.toArray(new String[cpuList.size()]);
+    }
+
+    public static void bind(final String cpus)
+    {
+        checkNotNull(cpus, "cpus is null");
+        final long threadId = threadId();
+        checkState(threadId >= 0, "Unable to bind thread '%s' to cpus '%s': no thread id", Thread.currentThread().getName(), cpus);
+        try {
+            final Process process = new ProcessBuilder(TASKSET, "-p", "-c", cpus, Long.toString(threadId)).redirectErrorStream(true).start();
+            try {
+                final StringBuilder output = new StringBuilder();
+                for(int c; (c = process.getInputStream().read()) >= 0;) output.append((char) c);
+                final int status = process.waitFor();
+                checkState(status == 0, "Unable to bind thread '%s' to cpus '%s': %s", Thread.currentThread().getName(), cpus, output.toString().trim());
+            }
+            finally {
+                process.destroy();
+            }
+        }
+        catch(final IOException e) {
+            throw new IllegalStateException("Unable to bind thread '" + Thread.currentThread().getName() + "' to cpus '" + cpus + "'", e);
+        }
+        catch(final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted binding thread '" + Thread.currentThread().getName() + "' to cpus '" + cpus + "'", e);
+        }
+    }
+
+    private static <T> T get(final FutureTask<T> task)
+    {
+        try {
+            return task.get();
+        }
+        catch(final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rethrow(e);
+        }
+        catch(final ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    static String cpus()
+    {
+        try {
+            final BufferedReader reader = new BufferedReader(new FileReader(new File(THREAD_SELF, THREAD_STATUS)));
+            try {
+                for(String line; (line = reader.readLine()) != null;) {
+                    if(line.startsWith(CPUS_ALLOWED_LIST)) return line.substring(CPUS_ALLOWED_LIST.length()).trim();
+                }
+                return null;
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch(final IOException e) {
+            return null;
+        }
+    }
+
+    static long threadId()
+    {
+        try {
+            return THREAD_SELF.exists()? Long.parseLong(THREAD_SELF.getCanonicalFile().getName()) : -1;
+        }
+        catch(final Exception e) {
+            return -1;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package ayizan.kernel;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static ayizan.util.Exceptions.swallow;
@@ -8,12 +11,18 @@ import static ayizan.util.Exceptions.swallow;
 public final class Executors
 {
     private static final long DEFAULT_TIMEOUT = 250;
+    private static final String DEFAULT_THREAD_NAME = "ayizan";
 
     private Executors() {}
 
     public static ExecutorService newExecutor()
     {
-        return java.util.concurrent.Executors.newCachedThreadPool();
+        return newExecutor(new NamedThreadFactory(DEFAULT_THREAD_NAME));
+    }
+
+    public static ExecutorService newExecutor(final ThreadFactory threadFactory)
+    {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS, new SynchronousQueue<Runnable>(), threadFactory);
     }
 
     public static void closeQuietly(final ExecutorService executorService)
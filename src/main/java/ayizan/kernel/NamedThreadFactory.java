@@ -0,0 +1,40 @@
+package ayizan.kernel;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class NamedThreadFactory implements ThreadFactory
+{
+    private final String name;
+    private final boolean daemon;
+    private final int priority;
+    private final String cpus;
+    private final AtomicInteger threads;
+
+    public NamedThreadFactory(final String name)
+    {
+        this(name, true, Thread.NORM_PRIORITY, null);
+    }
+
+    public NamedThreadFactory(final String name, final boolean daemon, final int priority, final String cpus)
+    {
+        checkArgument(priority >= Thread.MIN_PRIORITY && priority <= Thread.MAX_PRIORITY, "Invalid thread priority '%s'", priority);
+        this.name = checkNotNull(name, "thread name is null");
+        this.daemon = daemon;
+        this.priority = priority;
+        this.cpus = cpus;
+        this.threads = new AtomicInteger();
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable)
+    {
+        final Thread thread = new Thread((cpus == null)? runnable : Affinity.pinned(cpus, runnable), name + "-" + threads.incrementAndGet());
+        thread.setDaemon(daemon);
+        thread.setPriority(priority);
+        return thread;
+    }
+}
@@ -22,6 +22,11 @@ public abstract class Clock
         clock.sleepFor(duration, timeUnit);
     }
 
+    public static Clock getClock()
+    {
+        return clock;
+    }
+
     public static void setClock(final Clock clock)
     {
         Clock.clock = checkNotNull(clock);
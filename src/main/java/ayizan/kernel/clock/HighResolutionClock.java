@@ -0,0 +1,106 @@
+package ayizan.kernel.clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class HighResolutionClock extends SystemClock
+{
+    private static final long DEFAULT_CALIBRATION_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final long DEFAULT_TOLERANCE = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long WALL_CLOCK_RESOLUTION = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static final TimeSource SYSTEM_TIME_SOURCE = new TimeSource()
+    {
+        @Override
+        public long currentTimeMillis()
+        {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+    };
+
+    private final TimeSource timeSource;
+    private final long calibrationInterval;
+    private final long tolerance;
+    private final AtomicReference<Anchor> anchor;
+
+    public HighResolutionClock()
+    {
+        this(DEFAULT_CALIBRATION_INTERVAL, DEFAULT_TOLERANCE, TimeUnit.NANOSECONDS);
+    }
+
+    public HighResolutionClock(final long calibrationInterval, final long tolerance, final TimeUnit timeUnit)
+    {
+        this(SYSTEM_TIME_SOURCE, calibrationInterval, tolerance, timeUnit);
+    }
+
+    HighResolutionClock(final TimeSource timeSource, final long calibrationInterval, final long tolerance, final TimeUnit timeUnit)
+    {
+        checkArgument(calibrationInterval > 0, "Invalid calibration interval '%s'", calibrationInterval);
+        checkArgument(timeUnit.toNanos(tolerance) > WALL_CLOCK_RESOLUTION, "Tolerance '%s' not above wall clock resolution", tolerance);
+        this.timeSource = checkNotNull(timeSource, "time source is null");
+        this.calibrationInterval = timeUnit.toNanos(calibrationInterval);
+        this.tolerance = timeUnit.toNanos(tolerance);
+        this.anchor = new AtomicReference<Anchor>(anchor());
+    }
+
+    @Override
+    protected long currentTime(final TimeUnit timeUnit)
+    {
+        final long nanoTime = timeSource.nanoTime();
+        Anchor anchor = this.anchor.get();
+        if(nanoTime - anchor.nanoTime >= calibrationInterval) anchor = calibrate(anchor, nanoTime);
+        return timeUnit.convert(nanoTime + anchor.offset, TimeUnit.NANOSECONDS);
+    }
+
+    private Anchor calibrate(final Anchor anchor, final long nanoTime)
+    {
+        final long currentTime = TimeUnit.MILLISECONDS.toNanos(timeSource.currentTimeMillis());
+        final long sampleTime = timeSource.nanoTime();
+        if(sampleTime - nanoTime > tolerance - WALL_CLOCK_RESOLUTION) return anchor;
+
+        final long offset = currentTime - sampleTime;
+        final Anchor calibration = (offset >= anchor.offset || anchor.offset - offset > tolerance)? new Anchor(nanoTime, offset) : new Anchor(nanoTime, anchor.offset);
+        return this.anchor.compareAndSet(anchor, calibration)? calibration : this.anchor.get();
+    }
+
+    private Anchor anchor()
+    {
+        final long millis = timeSource.currentTimeMillis();
+        long currentMillis;
+        long nanoTime;
+        do {
+            currentMillis = timeSource.currentTimeMillis();
+            nanoTime = timeSource.nanoTime();
+        }
+        while(currentMillis == millis);
+        return new Anchor(nanoTime, TimeUnit.MILLISECONDS.toNanos(currentMillis) - nanoTime);
+    }
+
+    interface TimeSource
+    {
+        long currentTimeMillis();
+
+        long nanoTime();
+    }
+
+    private static class Anchor
+    {
+        private final long nanoTime;
+        private final long offset;
+
+        private Anchor(final long nanoTime, final long offset)
+        {
+            this.nanoTime = nanoTime;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ayizan.kernel.clock;
+
+import java.util.concurrent.TimeUnit;
+
+public class ManualClock extends Clock
+{
+    private long time;
+
+    public ManualClock setTime(final long time, final TimeUnit timeUnit)
+    {
+        this.time = timeUnit.toNanos(time);
+        return this;
+    }
+
+    @Override
+    protected void sleepFor(final long duration, final TimeUnit timeUnit)
+    {
+        time += timeUnit.toNanos(duration);
+    }
+
+    @Override
+    protected long currentTime(final TimeUnit timeUnit)
+    {
+        return timeUnit.convert(time, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,97 @@
+package ayizan.kernel.metrics;
+
+import java.util.Arrays;
+
+import static ayizan.util.Preconditions.checkArgument;
+
+public class Histogram
+{
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int BUCKET_COUNT = (65 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT;
+
+    private final long[] counts;
+    private long totalCount;
+    private long min;
+    private long max;
+
+    public Histogram()
+    {
+        this.counts = new long[BUCKET_COUNT];
+        reset();
+    }
+
+    public void record(final long value)
+    {
+        final long v = Math.max(value, 0);
+        counts[index(v)]++;
+        totalCount++;
+        if(v < min) min = v;
+        if(v > max) max = v;
+    }
+
+    public Histogram add(final Histogram histogram)
+    {
+        for(int i = 0; i < BUCKET_COUNT; i++) counts[i] += histogram.counts[i];
+        totalCount += histogram.totalCount;
+        min = Math.min(min, histogram.min);
+        max = Math.max(max, histogram.max);
+        return this;
+    }
+
+    public Histogram reset()
+    {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+        return this;
+    }
+
+    public long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    public long getMin()
+    {
+        return (totalCount == 0)? 0 : min;
+    }
+
+    public long getMax()
+    {
+        return max;
+    }
+
+    public long getValueAtPercentile(final double percentile)
+    {
+        checkArgument(percentile >= 0 && percentile <= 100, "Invalid percentile '%s'", percentile);
+        if(totalCount == 0) return 0;
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long count = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts[i];
+            if(count >= rank) return Math.min(highestEquivalentValue(i), max);
+        }
+        return max;
+    }
+
+    static int index(final long value)
+    {
+        if(value < (SUB_BUCKET_HALF_COUNT << 1)) return (int) value;
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    static long lowestEquivalentValue(final int index)
+    {
+        if(index < (SUB_BUCKET_HALF_COUNT << 1)) return index;
+        final int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        return (long) (index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT) << shift;
+    }
+
+    static long highestEquivalentValue(final int index)
+    {
+        return (index + 1 < BUCKET_COUNT)? lowestEquivalentValue(index + 1) - 1 : Long.MAX_VALUE;
+    }
+}
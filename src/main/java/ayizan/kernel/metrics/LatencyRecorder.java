@@ -0,0 +1,43 @@
+package ayizan.kernel.metrics;
+
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class LatencyRecorder
+{
+    private final String name;
+    private volatile Histogram active;
+    private volatile long phase;
+    private Histogram inactive;
+
+    public LatencyRecorder(final String name)
+    {
+        this.name = checkNotNull(name, "recorder name is null");
+        this.active = new Histogram();
+        this.inactive = new Histogram();
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void record(final long latency)
+    {
+        final long phase = this.phase;
+        this.phase = phase + 1;
+        active.record(latency);
+        this.phase = phase + 2;
+    }
+
+    public synchronized Histogram interval()
+    {
+        final Histogram interval = active;
+        active = inactive.reset();
+        final long phase = this.phase;
+        if((phase & 1) != 0) {
+            while(this.phase == phase) Thread.yield();
+        }
+        inactive = interval;
+        return interval;
+    }
+}
@@ -0,0 +1,43 @@
+package ayizan.kernel.metrics;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class LatencyReporter implements Runnable
+{
+    private final Iterable<LatencyRecorder> latencyRecorders;
+    private final PrintStream out;
+
+    public LatencyReporter(final Iterable<LatencyRecorder> latencyRecorders, final PrintStream out)
+    {
+        this.latencyRecorders = checkNotNull(latencyRecorders, "latency recorders are null");
+        this.out = checkNotNull(out, "output is null");
+    }
+
+    @Override
+    public void run()
+    {
+        for(final LatencyRecorder latencyRecorder : latencyRecorders) {
+            final Histogram histogram = latencyRecorder.interval();
+            if(histogram.getTotalCount() > 0) out.println(format(latencyRecorder.getName(), histogram));
+        }
+    }
+
+    public static String format(final String name, final Histogram histogram)
+    {
+        return String.format("%s count=%d p50=%.3fus p99=%.3fus p99.99=%.3fus max=%.3fus",
+                             name,
+                             histogram.getTotalCount(),
+                             micros(histogram.getValueAtPercentile(50)),
+                             micros(histogram.getValueAtPercentile(99)),
+                             micros(histogram.getValueAtPercentile(99.99)),
+                             micros(histogram.getMax()));
+    }
+
+    private static double micros(final long nanos)
+    {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
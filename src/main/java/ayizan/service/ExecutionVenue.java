@@ -1,7 +1,11 @@
 package ayizan.service;
 
+import ayizan.domain.Depths.DepthAction;
+import ayizan.domain.Depths.DepthSnapshotOrBuilder;
+import ayizan.domain.Depths.DepthUpdateOrBuilder;
 import ayizan.domain.Executions.AcceptExecutionOrBuilder;
 import ayizan.domain.Executions.CancelExecutionOrBuilder;
+import ayizan.domain.Executions.RejectReason;
 import ayizan.domain.Executions.ReplaceExecutionOrBuilder;
 import ayizan.domain.Executions.StatusExecutionOrBuilder;
 import ayizan.domain.Executions.TradeExecutionOrBuilder;
@@ -9,6 +13,10 @@ import ayizan.domain.Orders.CancelOrderSpecificationOrBuilder;
 import ayizan.domain.Orders.CancelReplaceOrderSpecificationOrBuilder;
 import ayizan.domain.Orders.OrderStatusSpecificationOrBuilder;
 import ayizan.domain.Orders.PlaceOrderSpecificationOrBuilder;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import ayizan.domain.orderbook.Order;
+import ayizan.domain.orderbook.OrderBook.LevelVisitor;
 
 public interface ExecutionVenue
 {
@@ -26,9 +34,51 @@ public interface ExecutionVenue
 
         void notify(StatusExecutionOrBuilder statusExecution);
 
+        void notify(DepthUpdateOrBuilder depthUpdate);
+
+        void notify(DepthSnapshotOrBuilder depthSnapshot);
+
         void commit();
     }
 
+    public interface ExecutionRecord
+    {
+        ExecutionRecord setExecution(long timestampNanos, int attributionId, String symbol, String id, String referenceId);
+
+        ExecutionRecord setExecutionId(long executionId);
+
+        ExecutionRecord setTrade(long tradePrice, long tradeQuantity);
+
+        ExecutionRecord setRejectReason(RejectReason rejectReason);
+
+        ExecutionRecord setOrder(Order order);
+
+        ExecutionRecord setOrder(long orderId, Side side, TimeInForce timeInForce, long price, long quantity, long workingQuantity, long filledQuantity);
+
+        ExecutionRecord setReplaceOrder(Order order);
+    }
+
+    public interface ExecutionWriter
+    {
+        ExecutionRecord claimAcceptExecution(int length);
+
+        ExecutionRecord claimTradeExecution(int length);
+
+        ExecutionRecord claimReplaceExecution(int length);
+
+        ExecutionRecord claimCancelExecution(int length);
+
+        ExecutionRecord claimStatusExecution(int length);
+
+        void publish();
+
+        void writeDepthUpdate(String symbol, long timestampNanos, DepthAction action, Side side, long price, long quantity, int orderCount);
+
+        LevelVisitor claimDepthSnapshot(String symbol, long timestampNanos);
+
+        void publishDepthSnapshot();
+    }
+
     void placeOrder(PlaceOrderSpecificationOrBuilder placeOrderSpecification, ExecutionCallback executionCallback);
 
     void cancelReplaceOrder(CancelReplaceOrderSpecificationOrBuilder cancelReplaceOrderSpecification, ExecutionCallback executionCallback);
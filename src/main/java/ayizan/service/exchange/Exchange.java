@@ -1,36 +1,42 @@
 package ayizan.service.exchange;
 
-import ayizan.domain.Executions.AcceptExecution;
-import ayizan.domain.Executions.CancelExecution;
-import ayizan.domain.Executions.OrderState.Builder;
+import ayizan.domain.Depths.DepthAction;
 import ayizan.domain.Executions.RejectReason;
-import ayizan.domain.Executions.ReplaceExecution;
-import ayizan.domain.Executions.StatusExecution;
-import ayizan.domain.Executions.TradeExecution;
 import ayizan.domain.Instruments.InstrumentSpecification;
 import ayizan.domain.Orders.CancelOrderSpecificationOrBuilder;
 import ayizan.domain.Orders.CancelReplaceOrderSpecificationOrBuilder;
 import ayizan.domain.Orders.OrderStatusSpecificationOrBuilder;
 import ayizan.domain.Orders.PlaceOrderSpecificationOrBuilder;
+import ayizan.domain.Orders.Side;
 import ayizan.domain.Orders.TimeInForce;
-import ayizan.domain.Identifier;
 import ayizan.domain.orderbook.Order;
 import ayizan.domain.orderbook.OrderBook;
+import ayizan.domain.orderbook.OrderBook.DepthListener;
+import ayizan.domain.orderbook.OrderBookRepository;
 import ayizan.domain.orderbook.limit.LimitOrderBook;
 import ayizan.kernel.clock.Clock;
 import ayizan.service.ExecutionVenue;
+import ayizan.service.exchange.SymbolMetrics.Instruction;
+import ayizan.support.codec.ExecutionFlyweight;
 import ayizan.service.exchange.policy.AcceptPolicy.OrderAcceptPolicy;
 import ayizan.service.exchange.policy.AcceptPolicy.ReplaceOrderAcceptPolicy;
 import ayizan.service.exchange.policy.CancelPolicy;
 import ayizan.service.exchange.policy.CancelPolicy.GoodTillCancelPolicy;
 import ayizan.service.exchange.policy.CancelPolicy.ImmediateCancelPolicy;
 import ayizan.service.exchange.policy.FillPolicy;
+import ayizan.service.exchange.policy.FillPolicy.FillOrKillPolicy;
 import ayizan.service.exchange.policy.FillPolicy.PartialFillPolicy;
+import ayizan.service.exchange.policy.SnapshotPolicy;
+import ayizan.service.exchange.policy.SnapshotPolicy.NoSnapshotPolicy;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
+import static ayizan.util.Preconditions.checkArgument;
+
 
-//TODO: implement snapshot & replay api
 //TODO: implement time api
 public class Exchange implements ExecutionVenue
 {
@@ -46,113 +52,207 @@ public class Exchange implements ExecutionVenue
     private final OrderAcceptPolicy orderAcceptPolicy;
     private final ReplaceOrderAcceptPolicy replaceOrderAcceptPolicy;
     private final PartialFillPolicy partialFillPolicy;
+    private final FillOrKillPolicy fillOrKillPolicy;
     private final ImmediateCancelPolicy immediateCancelPolicy;
     private final GoodTillCancelPolicy goodTillCancelPolicy;
+    private final SnapshotPolicy<?> snapshotPolicy;
 
-    private final OrderBook orderBook;
+    private final OrderBookRepository orderBookRepository;
+    private final ExchangeMetrics exchangeMetrics;
 
     public Exchange()
+    {
+        this(newOrderBookRepository(DEFAULT_INSTRUMENT));
+    }
+
+    public Exchange(final OrderBookRepository orderBookRepository)
+    {
+        this(orderBookRepository, NoSnapshotPolicy.allocate());
+    }
+
+    public Exchange(final OrderBookRepository orderBookRepository, final SnapshotPolicy<?> snapshotPolicy)
     {
         this.executionPublisher = new ExecutionPublisher();
         this.orderAcceptPolicy = OrderAcceptPolicy.allocate().setExecutionPublisher(executionPublisher);
         this.replaceOrderAcceptPolicy = ReplaceOrderAcceptPolicy.allocate().setExecutionPublisher(executionPublisher);
         this.partialFillPolicy = PartialFillPolicy.allocate().setExecutionPublisher(executionPublisher);
+        this.fillOrKillPolicy = FillOrKillPolicy.allocate(partialFillPolicy).setExecutionPublisher(executionPublisher);
         this.goodTillCancelPolicy = GoodTillCancelPolicy.allocate().setExecutionPublisher(executionPublisher);
         this.immediateCancelPolicy = ImmediateCancelPolicy.allocate().setExecutionPublisher(executionPublisher);
+        this.snapshotPolicy = snapshotPolicy.setExecutionPublisher(executionPublisher);
+
+        this.orderBookRepository = orderBookRepository;
+        this.exchangeMetrics = new ExchangeMetrics(orderBookRepository);
+    }
+
+    public ExchangeMetrics getMetrics()
+    {
+        return exchangeMetrics;
+    }
+
+    public void writeSnapshot(final DataOutput output, final long sequence) throws IOException
+    {
+        output.writeInt(orderBookRepository.size());
+        for(int symbolId = 0; symbolId < orderBookRepository.size(); symbolId++) orderBookRepository.lookup(symbolId).writeSnapshot(output, sequence);
+    }
+
+    public long readSnapshot(final DataInput input) throws IOException
+    {
+        final int size = input.readInt();
+        checkArgument(size == orderBookRepository.size(), "Snapshot order book count '%s' != '%s'", size, orderBookRepository.size());
+
+        long sequence = 0;
+        for(int symbolId = 0; symbolId < size; symbolId++) {
+            final long orderBookSequence = orderBookRepository.lookup(symbolId).readSnapshot(input);
+            checkArgument(symbolId == 0 || orderBookSequence == sequence, "Snapshot sequence '%s' != '%s' for symbol '%s'", orderBookSequence, sequence, orderBookRepository.lookupInstrument(symbolId).getSymbol());
+            sequence = orderBookSequence;
+        }
+        return sequence;
+    }
+
+    public void expireSnapshots(final ExecutionCallback executionCallback)
+    {
+        expireSnapshots(executionCallback, Clock.now(TimeUnit.NANOSECONDS));
+    }
+
+    public void expireSnapshots(final ExecutionCallback executionCallback, final long timestampNanos)
+    {
+        executionPublisher.start(executionCallback, timestampNanos);
+        for(int symbolId = 0; symbolId < orderBookRepository.size(); symbolId++) snapshotPolicy.expire(orderBookRepository.lookup(symbolId));
+        executionPublisher.commit();
+    }
 
-        this.orderBook = new LimitOrderBook(DEFAULT_INSTRUMENT); //TODO: replace with OrderBookRepository
+    public static OrderBookRepository newOrderBookRepository(final InstrumentSpecification... instrumentSpecifications)
+    {
+        final OrderBookRepository orderBookRepository = new OrderBookRepository(LimitOrderBook.newOrderBookFactory(), instrumentSpecifications.length);
+        for(final InstrumentSpecification instrumentSpecification : instrumentSpecifications) orderBookRepository.register(instrumentSpecification);
+        return orderBookRepository;
     }
 
     @Override
     public void placeOrder(final PlaceOrderSpecificationOrBuilder placeOrderSpecification, final ExecutionCallback executionCallback)
+    {
+        placeOrder(placeOrderSpecification, executionCallback, Clock.now(TimeUnit.NANOSECONDS));
+    }
+
+    public void placeOrder(final PlaceOrderSpecificationOrBuilder placeOrderSpecification, final ExecutionCallback executionCallback, final long timestampNanos)
     {
         RejectReason rejectReason;
-        executionPublisher.start(executionCallback);
+        executionPublisher.start(executionCallback, timestampNanos);
 
-        final OrderBook orderBook = lookupOrderBook(placeOrderSpecification.getSymbol());
+        final int symbolId = lookupSymbolId(placeOrderSpecification.hasSymbolId(), placeOrderSpecification.getSymbolId(), placeOrderSpecification.getSymbol());
+        final OrderBook orderBook = orderBookRepository.lookup(symbolId);
         if(!isRejected(rejectReason = isOpen(orderBook))) {
             final FillPolicy fillPolicy = lookupFillPolicy(placeOrderSpecification.getTimeInForce());
             final CancelPolicy cancelPolicy = lookupCancelPolicy(placeOrderSpecification.getTimeInForce());
             final Order order = orderAcceptPolicy.accept(orderBook,
-                                                         new Identifier(placeOrderSpecification.getId(), placeOrderSpecification.getAttributionId()),
+                                                         placeOrderSpecification.getId(),
+                                                         placeOrderSpecification.getAttributionId(),
                                                          placeOrderSpecification.getSide(),
                                                          placeOrderSpecification.getPrice(),
                                                          placeOrderSpecification.getQuantity(),
                                                          placeOrderSpecification.getTimeInForce());
             if(!isRejected(rejectReason = isValid(order)) && isExecutable(order)) {
                 fillPolicy.fill(orderBook, order);
-                cancelPolicy.cancel(orderBook, order.getIdentifier(), order);
+                cancelPolicy.cancel(orderBook, order.getIdentifier().getId(), order);
             }
         }
 
         if(isRejected(rejectReason)) executionPublisher.publishAcceptRejection(placeOrderSpecification, rejectReason);
-        executionPublisher.commit();
+        publishDepth(orderBook);
+        commit(symbolId, orderBook, Instruction.PLACE_ORDER, rejectReason);
     }
 
     @Override
     public void cancelReplaceOrder(final CancelReplaceOrderSpecificationOrBuilder cancelReplaceOrderSpecification, final ExecutionCallback executionCallback)
+    {
+        cancelReplaceOrder(cancelReplaceOrderSpecification, executionCallback, Clock.now(TimeUnit.NANOSECONDS));
+    }
+
+    public void cancelReplaceOrder(final CancelReplaceOrderSpecificationOrBuilder cancelReplaceOrderSpecification, final ExecutionCallback executionCallback, final long timestampNanos)
     {
         RejectReason rejectReason;
-        executionPublisher.start(executionCallback);
+        executionPublisher.start(executionCallback, timestampNanos);
 
-        final OrderBook orderBook = lookupOrderBook(cancelReplaceOrderSpecification.getSymbol());
+        final int symbolId = lookupSymbolId(cancelReplaceOrderSpecification.hasSymbolId(), cancelReplaceOrderSpecification.getSymbolId(), cancelReplaceOrderSpecification.getSymbol());
+        final OrderBook orderBook = orderBookRepository.lookup(symbolId);
         if(!isRejected(rejectReason = isOpen(orderBook))) {
-
-            final Identifier identifier = new Identifier(cancelReplaceOrderSpecification.getId(), cancelReplaceOrderSpecification.getAttributionId());
-            final Identifier cancelIdentifier = new Identifier(cancelReplaceOrderSpecification.getCancelId(), cancelReplaceOrderSpecification.getAttributionId());
             final Order order = replaceOrderAcceptPolicy.accept(orderBook,
-                                                                identifier,
-                                                                cancelIdentifier,
+                                                                cancelReplaceOrderSpecification.getId(),
+                                                                cancelReplaceOrderSpecification.getAttributionId(),
+                                                                cancelReplaceOrderSpecification.getCancelId(),
                                                                 cancelReplaceOrderSpecification.getPrice(),
                                                                 cancelReplaceOrderSpecification.getQuantity());
             if(!isRejected(rejectReason = isValid(order)) && isExecutable(order)) {
                 lookupFillPolicy(order.getTimeInForce()).fill(orderBook, order);
-                lookupCancelPolicy(order.getTimeInForce()).cancel(orderBook, identifier, order);
+                lookupCancelPolicy(order.getTimeInForce()).cancel(orderBook, order.getIdentifier().getId(), order);
             }
         }
 
         if(isRejected(rejectReason)) executionPublisher.publishReplaceRejection(cancelReplaceOrderSpecification, rejectReason);
-        executionPublisher.commit();
+        publishDepth(orderBook);
+        commit(symbolId, orderBook, Instruction.CANCEL_REPLACE_ORDER, rejectReason);
     }
 
     @Override
     public void cancelOrder(final CancelOrderSpecificationOrBuilder cancelOrderSpecification, final ExecutionCallback executionCallback)
+    {
+        cancelOrder(cancelOrderSpecification, executionCallback, Clock.now(TimeUnit.NANOSECONDS));
+    }
+
+    public void cancelOrder(final CancelOrderSpecificationOrBuilder cancelOrderSpecification, final ExecutionCallback executionCallback, final long timestampNanos)
     {
         RejectReason rejectReason;
-        executionPublisher.start(executionCallback);
+        executionPublisher.start(executionCallback, timestampNanos);
 
-        final OrderBook orderBook = lookupOrderBook(cancelOrderSpecification.getSymbol());
+        final int symbolId = lookupSymbolId(cancelOrderSpecification.hasSymbolId(), cancelOrderSpecification.getSymbolId(), cancelOrderSpecification.getSymbol());
+        final OrderBook orderBook = orderBookRepository.lookup(symbolId);
         if(!isRejected(rejectReason = isOpen(orderBook))) {
-            final Identifier identifier = new Identifier(cancelOrderSpecification.getId(), cancelOrderSpecification.getAttributionId());
-            final Identifier cancelIdentifier = new Identifier(cancelOrderSpecification.getCancelId(), cancelOrderSpecification.getAttributionId());
-            final Order order = orderBook.cancel(cancelIdentifier);
+            final Order order = orderBook.cancel(cancelOrderSpecification.getCancelId(), cancelOrderSpecification.getAttributionId());
 
             if(!isRejected(rejectReason = isValid(order)) && isExecutable(order)) {
-                immediateCancelPolicy.cancel(orderBook, identifier, order);
+                immediateCancelPolicy.cancel(orderBook, cancelOrderSpecification.getId(), order);
             }
         }
         if(isRejected(rejectReason)) executionPublisher.publishCancelRejection(cancelOrderSpecification, rejectReason);
-        executionPublisher.commit();
+        publishDepth(orderBook);
+        commit(symbolId, orderBook, Instruction.CANCEL_ORDER, rejectReason);
     }
 
     @Override
     public void orderStatus(final OrderStatusSpecificationOrBuilder orderStatusSpecification, final ExecutionCallback executionCallback)
+    {
+        orderStatus(orderStatusSpecification, executionCallback, Clock.now(TimeUnit.NANOSECONDS));
+    }
+
+    public void orderStatus(final OrderStatusSpecificationOrBuilder orderStatusSpecification, final ExecutionCallback executionCallback, final long timestampNanos)
     {
         RejectReason rejectReason;
-        executionPublisher.start(executionCallback);
+        executionPublisher.start(executionCallback, timestampNanos);
 
-        final OrderBook orderBook = lookupOrderBook(orderStatusSpecification.getSymbol());
+        final int symbolId = lookupSymbolId(orderStatusSpecification.hasSymbolId(), orderStatusSpecification.getSymbolId(), orderStatusSpecification.getSymbol());
+        final OrderBook orderBook = orderBookRepository.lookup(symbolId);
         if(!isRejected(rejectReason = isOpen(orderBook))) {
 
-            final Identifier identifier = new Identifier(orderStatusSpecification.getId(), orderStatusSpecification.getAttributionId());
-            final Identifier statusIdentifier = new Identifier(orderStatusSpecification.getStatusId(), orderStatusSpecification.getAttributionId());
-            final Order order = orderBook.status(statusIdentifier);
+            final Order order = orderBook.status(orderStatusSpecification.getStatusId(), orderStatusSpecification.getAttributionId());
             if(!isRejected(rejectReason = isValid(order))) {
-                executionPublisher.publishOrderStatusExecution(identifier, orderStatusSpecification.getSymbol(), order);
+                executionPublisher.publishOrderStatusExecution(orderStatusSpecification.getId(), orderStatusSpecification.getSymbol(), order);
             }
         }
 
         if(isRejected(rejectReason)) executionPublisher.publishOrderStatusRejection(orderStatusSpecification, rejectReason);
+        commit(symbolId, orderBook, Instruction.ORDER_STATUS, rejectReason);
+    }
+
+    private void publishDepth(final OrderBook orderBook)
+    {
+        executionPublisher.publishDepth(orderBook);
+        snapshotPolicy.snapshot(orderBook);
+    }
+
+    private void commit(final int symbolId, final OrderBook orderBook, final Instruction instruction, final RejectReason rejectReason)
+    {
+        exchangeMetrics.record(symbolId, instruction, rejectReason, executionPublisher.getTradeCount(), orderBook);
         executionPublisher.commit();
     }
 
@@ -181,9 +281,13 @@ public class Exchange implements ExecutionVenue
                 RejectReason.NONE;
     }
 
-    private OrderBook lookupOrderBook(final String symbol)
+    private int lookupSymbolId(final boolean hasSymbolId, final int symbolId, final String symbol)
     {
-        return (orderBook.getInstrument().getSymbol().equals(symbol))? orderBook : null;
+        if(hasSymbolId) {
+            final InstrumentSpecification instrument = orderBookRepository.lookupInstrument(symbolId);
+            return (instrument != null && instrument.getSymbol().equals(symbol))? symbolId : OrderBookRepository.UNKNOWN_SYMBOL_ID;
+        }
+        return orderBookRepository.lookupSymbolId(symbol);
     }
 
     private FillPolicy lookupFillPolicy(final TimeInForce timeInForce)
@@ -194,7 +298,7 @@ public class Exchange implements ExecutionVenue
             case GOOD_TILL_CANCEL:
                 return partialFillPolicy;
             case FILL_OR_KILL:
-                break;
+                return fillOrKillPolicy;
         }
         throw new UnsupportedOperationException();
     }
@@ -213,221 +317,230 @@ public class Exchange implements ExecutionVenue
     }
 
 
-    public static class ExecutionPublisher
+    public static class ExecutionPublisher implements DepthListener
     {
-        private AcceptExecution.Builder acceptExecution;
-        private TradeExecution.Builder tradeExecution;
-        private ReplaceExecution.Builder replaceExecution;
-        private CancelExecution.Builder cancelExecution;
-        private StatusExecution.Builder statusExecution;
+        private final ExecutionBuilder executionBuilder;
 
         private ExecutionCallback executionCallback;
+        private ExecutionWriter executionWriter;
+        private String depthSymbol;
+        private long startTime;
+        private int tradeCount;
 
         public ExecutionPublisher()
         {
-            this.acceptExecution = AcceptExecution.newBuilder();
-            this.tradeExecution = TradeExecution.newBuilder();
-            this.replaceExecution = ReplaceExecution.newBuilder();
-            this.cancelExecution = CancelExecution.newBuilder();
-            this.statusExecution = StatusExecution.newBuilder();
+            this.executionBuilder = new ExecutionBuilder();
         }
 
-        public ExecutionPublisher start(final ExecutionCallback executionCallback)
+        public ExecutionPublisher start(final ExecutionCallback executionCallback, final long startTime)
         {
             this.executionCallback = executionCallback;
+            this.executionWriter = (executionCallback instanceof ExecutionWriter)? (ExecutionWriter) executionCallback : executionBuilder.wrap(executionCallback);
+            this.startTime = startTime;
+            this.tradeCount = 0;
             executionCallback.start();
             return this;
         }
 
+        public long getTimestamp(final TimeUnit timeUnit)
+        {
+            return timeUnit.convert(startTime, TimeUnit.NANOSECONDS);
+        }
+
+        public int getTradeCount()
+        {
+            return tradeCount;
+        }
+
         public ExecutionPublisher commit()
         {
             executionCallback.commit();
             executionCallback = null;
+            executionWriter = null;
+            executionBuilder.wrap(null);
             return this;
         }
 
         public ExecutionPublisher publishAcceptExecution(final long executionId, final String symbol, final Order acceptOrder)
         {
-            executionCallback.notify(toAcceptExecution(executionId, symbol, acceptOrder));
+            final ExecutionRecord acceptExecution = executionWriter.claimAcceptExecution(ExecutionFlyweight.encodedLength(symbol, acceptOrder.getIdentifier().getId(), ""));
+            try {
+                acceptExecution.
+                        setExecution(startTime, acceptOrder.getIdentifier().getAttributionId(), symbol, acceptOrder.getIdentifier().getId(), "").
+                        setExecutionId(executionId).
+                        setRejectReason(acceptOrder.getRejectReason()).
+                        setOrder(acceptOrder);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
         public ExecutionPublisher publishAcceptRejection(final PlaceOrderSpecificationOrBuilder placeOrderSpecification, final RejectReason rejectReason)
         {
-            executionCallback.notify(toAcceptRejection(placeOrderSpecification, rejectReason));
+            final ExecutionRecord acceptExecution = executionWriter.claimAcceptExecution(ExecutionFlyweight.encodedLength(placeOrderSpecification.getSymbol(), placeOrderSpecification.getId(), ""));
+            try {
+                acceptExecution.
+                        setExecution(startTime, placeOrderSpecification.getAttributionId(), placeOrderSpecification.getSymbol(), placeOrderSpecification.getId(), "").
+                        setExecutionId(0).
+                        setRejectReason(rejectReason).
+                        setOrder(0, placeOrderSpecification.getSide(), placeOrderSpecification.getTimeInForce(), placeOrderSpecification.getPrice(), placeOrderSpecification.getQuantity(), 0, 0);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
         public ExecutionPublisher publishTradeExecution(final long executionId, final String symbol, final Order aggressiveOrder, final Order passiveOrder, final long tradePrice, final long tradeQuantity)
         {
-            executionCallback.notify(toTradeExecution(executionId, symbol, aggressiveOrder, tradePrice, tradeQuantity));
-            executionCallback.notify(toTradeExecution(executionId, symbol, passiveOrder, tradePrice, tradeQuantity));
+            tradeCount++;
+            writeTradeExecution(executionId, symbol, aggressiveOrder, tradePrice, tradeQuantity);
+            writeTradeExecution(executionId, symbol, passiveOrder, tradePrice, tradeQuantity);
             return this;
         }
 
         public ExecutionPublisher publishReplaceExecution(final long executionId, final String symbol, final Order cancelOrder, final Order replaceOrder)
         {
-            executionCallback.notify(toReplaceExecution(executionId, symbol, cancelOrder, replaceOrder));
+            final ExecutionRecord replaceExecution = executionWriter.claimReplaceExecution(ExecutionFlyweight.encodedLength(symbol, replaceOrder.getIdentifier().getId(), cancelOrder.getIdentifier().getId()));
+            try {
+                replaceExecution.
+                        setExecution(startTime, replaceOrder.getIdentifier().getAttributionId(), symbol, replaceOrder.getIdentifier().getId(), cancelOrder.getIdentifier().getId()).
+                        setExecutionId(executionId).
+                        setOrder(cancelOrder).
+                        setReplaceOrder(replaceOrder);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
         public ExecutionPublisher publishReplaceRejection(final CancelReplaceOrderSpecificationOrBuilder cancelReplaceOrderSpecification, final RejectReason rejectReason)
         {
-            executionCallback.notify(toReplaceRejection(cancelReplaceOrderSpecification, rejectReason));
+            final ExecutionRecord replaceExecution = executionWriter.claimReplaceExecution(ExecutionFlyweight.encodedLength(cancelReplaceOrderSpecification.getSymbol(), cancelReplaceOrderSpecification.getId(), cancelReplaceOrderSpecification.getCancelId()));
+            try {
+                replaceExecution.
+                        setExecution(startTime, cancelReplaceOrderSpecification.getAttributionId(), cancelReplaceOrderSpecification.getSymbol(), cancelReplaceOrderSpecification.getId(), cancelReplaceOrderSpecification.getCancelId()).
+                        setRejectReason(rejectReason);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
-        public ExecutionPublisher publishCancelExecution(final long executionId, final String symbol, final Identifier identifier, final Order cancelOrder)
+        public ExecutionPublisher publishCancelExecution(final long executionId, final String symbol, final String id, final Order cancelOrder)
         {
-            executionCallback.notify(toCancelExecution(executionId, symbol, identifier, cancelOrder));
+            final ExecutionRecord cancelExecution = executionWriter.claimCancelExecution(ExecutionFlyweight.encodedLength(symbol, id, cancelOrder.getIdentifier().getId()));
+            try {
+                cancelExecution.
+                        setExecution(startTime, cancelOrder.getIdentifier().getAttributionId(), symbol, id, cancelOrder.getIdentifier().getId()).
+                        setExecutionId(executionId).
+                        setOrder(cancelOrder);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
 
         public ExecutionPublisher publishCancelRejection(final CancelOrderSpecificationOrBuilder cancelOrderSpecification, final RejectReason rejectReason)
         {
-            executionCallback.notify(toCancelRejection(cancelOrderSpecification, rejectReason));
+            final ExecutionRecord cancelExecution = executionWriter.claimCancelExecution(ExecutionFlyweight.encodedLength(cancelOrderSpecification.getSymbol(), cancelOrderSpecification.getId(), cancelOrderSpecification.getCancelId()));
+            try {
+                cancelExecution.
+                        setExecution(startTime, cancelOrderSpecification.getAttributionId(), cancelOrderSpecification.getSymbol(), cancelOrderSpecification.getId(), cancelOrderSpecification.getCancelId()).
+                        setRejectReason(rejectReason);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
-        public ExecutionPublisher publishOrderStatusExecution(final Identifier identifier, final String symbol, final Order statusOrder)
+        public ExecutionPublisher publishOrderStatusExecution(final String id, final String symbol, final Order statusOrder)
         {
-            executionCallback.notify(toStatusExecution(identifier, symbol, statusOrder));
+            final ExecutionRecord statusExecution = executionWriter.claimStatusExecution(ExecutionFlyweight.encodedLength(symbol, id, statusOrder.getIdentifier().getId()));
+            try {
+                statusExecution.
+                        setExecution(startTime, statusOrder.getIdentifier().getAttributionId(), symbol, id, statusOrder.getIdentifier().getId()).
+                        setOrder(statusOrder);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
         public ExecutionPublisher publishOrderStatusRejection(final OrderStatusSpecificationOrBuilder orderStatusSpecification, final RejectReason rejectReason)
         {
-            executionCallback.notify(toStatusRejection(orderStatusSpecification, rejectReason));
+            final ExecutionRecord statusExecution = executionWriter.claimStatusExecution(ExecutionFlyweight.encodedLength(orderStatusSpecification.getSymbol(), orderStatusSpecification.getId(), orderStatusSpecification.getStatusId()));
+            try {
+                statusExecution.
+                        setExecution(startTime, orderStatusSpecification.getAttributionId(), orderStatusSpecification.getSymbol(), orderStatusSpecification.getId(), orderStatusSpecification.getStatusId()).
+                        setRejectReason(rejectReason);
+            }
+            finally {
+                executionWriter.publish();
+            }
             return this;
         }
 
-        private AcceptExecution.Builder toAcceptExecution(final long executionId, final String symbol, final Order order)
-        {
-            toOrderState(acceptExecution.getOrderBuilder(), order);
-            return acceptExecution.
-                    setSymbol(symbol).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(order.getIdentifier().getId()).
-                    setAttributionId(order.getIdentifier().getAttributionId()).
-                    setExecutionId(executionId).
-                    setRejectReason(order.getRejectReason());
-        }
-
-
-        private AcceptExecution.Builder toAcceptRejection(final PlaceOrderSpecificationOrBuilder placeOrderSpecification, final RejectReason rejectReason)
-        {
-            acceptExecution.getOrderBuilder().
-                    setOrderId(0).
-                    setSide(placeOrderSpecification.getSide()).
-                    setTimeInForce(placeOrderSpecification.getTimeInForce()).
-                    setPrice(placeOrderSpecification.getPrice()).
-                    setQuantity(placeOrderSpecification.getQuantity()).
-                    setWorkingQuantity(0).
-                    setFilledQuantity(0);
-
-            return acceptExecution.
-                    setExecutionId(0).
-                    setSymbol(placeOrderSpecification.getSymbol()).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(placeOrderSpecification.getId()).
-                    setAttributionId(placeOrderSpecification.getAttributionId()).
-                    setRejectReason(rejectReason);
-        }
-
-
-        private TradeExecution.Builder toTradeExecution(final long executionId, final String symbol, final Order order, final long tradePrice, final long tradeQuantity)
-        {
-            toOrderState(tradeExecution.getOrderBuilder(), order);
-            return tradeExecution.
-                    setSymbol(symbol).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(order.getIdentifier().getId()).
-                    setAttributionId(order.getIdentifier().getAttributionId()).
-                    setExecutionId(executionId).
-                    setTradePrice(tradePrice).
-                    setTradeQuantity(tradeQuantity);
-        }
-
-        private ReplaceExecution.Builder toReplaceExecution(final long executionId, final String symbol, final Order cancelOrder, final Order replaceOrder)
-        {
-            toOrderState(replaceExecution.getCancelOrderBuilder(), cancelOrder);
-            toOrderState(replaceExecution.getReplaceOrderBuilder(), replaceOrder);
-            return replaceExecution.
-                    setSymbol(symbol).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(replaceOrder.getIdentifier().getId()).
-                    setAttributionId(replaceOrder.getIdentifier().getAttributionId()).
-                    setExecutionId(executionId).
-                    setCancelId(cancelOrder.getIdentifier().getId());
-        }
-
-        private ReplaceExecution.Builder toReplaceRejection(final CancelReplaceOrderSpecificationOrBuilder cancelReplaceOrderSpecification, final RejectReason rejectReason)
+        public ExecutionPublisher publishDepth(final OrderBook orderBook)
         {
-            return replaceExecution.
-                    setSymbol(cancelReplaceOrderSpecification.getSymbol()).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(cancelReplaceOrderSpecification.getId()).
-                    setAttributionId(cancelReplaceOrderSpecification.getAttributionId()).
-                    setCancelId(cancelReplaceOrderSpecification.getCancelId()).
-                    setRejectReason(rejectReason);
+            if(orderBook != null) {
+                try {
+                    this.depthSymbol = orderBook.getSymbol();
+                    orderBook.depth(this);
+                }
+                finally {
+                    this.depthSymbol = null;
+                }
+            }
+            return this;
         }
 
-        private CancelExecution.Builder toCancelExecution(final long executionId, final String symbol, final Identifier identifer, final Order order)
+        public ExecutionPublisher publishDepthSnapshot(final OrderBook orderBook, final int levels)
         {
-            toOrderState(cancelExecution.getOrderBuilder(), order);
-            return cancelExecution.
-                    setSymbol(symbol).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(identifer.getId()).
-                    setAttributionId(order.getIdentifier().getAttributionId()).
-                    setExecutionId(executionId).
-                    setCancelId(order.getIdentifier().getId());
+            orderBook.snapshot(levels, executionWriter.claimDepthSnapshot(orderBook.getSymbol(), startTime));
+            executionWriter.publishDepthSnapshot();
+            return this;
         }
 
-        private CancelExecution.Builder toCancelRejection(final CancelOrderSpecificationOrBuilder cancelOrderSpecification, final RejectReason rejectReason)
+        @Override
+        public void addLevel(final Side side, final long price, final long quantity, final int orderCount)
         {
-            return cancelExecution.
-                    setSymbol(cancelOrderSpecification.getSymbol()).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(cancelOrderSpecification.getId()).
-                    setAttributionId(cancelOrderSpecification.getAttributionId()).
-                    setCancelId(cancelOrderSpecification.getCancelId()).
-                    setRejectReason(rejectReason);
+            executionWriter.writeDepthUpdate(depthSymbol, startTime, DepthAction.ADD_LEVEL, side, price, quantity, orderCount);
         }
 
-        private StatusExecution.Builder toStatusExecution(final Identifier identifier, final String symbol, final Order order)
+        @Override
+        public void updateLevel(final Side side, final long price, final long quantity, final int orderCount)
         {
-            toOrderState(statusExecution.getOrderBuilder(), order);
-            return statusExecution.
-                    setSymbol(symbol).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(identifier.getId()).
-                    setAttributionId(order.getIdentifier().getAttributionId()).
-                    setStatusId(order.getIdentifier().getId());
+            executionWriter.writeDepthUpdate(depthSymbol, startTime, DepthAction.UPDATE_LEVEL, side, price, quantity, orderCount);
         }
 
-        private StatusExecution.Builder toStatusRejection(final OrderStatusSpecificationOrBuilder orderStatusSpecification, final RejectReason rejectReason)
+        @Override
+        public void deleteLevel(final Side side, final long price)
         {
-            return statusExecution.
-                    setSymbol(orderStatusSpecification.getSymbol()).
-                    setTimestamp(Clock.now(TimeUnit.MILLISECONDS)).
-                    setId(orderStatusSpecification.getId()).
-                    setAttributionId(orderStatusSpecification.getAttributionId()).
-                    setStatusId(orderStatusSpecification.getStatusId()).
-                    setRejectReason(rejectReason);
+            executionWriter.writeDepthUpdate(depthSymbol, startTime, DepthAction.DELETE_LEVEL, side, price, 0, 0);
         }
 
-        private Builder toOrderState(final Builder orderState, final Order order)
+        private void writeTradeExecution(final long executionId, final String symbol, final Order order, final long tradePrice, final long tradeQuantity)
         {
-            return orderState.
-                    setOrderId(order.getOrderId()).
-                    setSide(order.getSide()).
-                    setTimeInForce(order.getTimeInForce()).
-                    setPrice(order.getPrice()).
-                    setQuantity(order.getQuantity()).
-                    setWorkingQuantity(order.getWorkingQuantity()).
-                    setFilledQuantity(order.getFilledQuantity());
+            final ExecutionRecord tradeExecution = executionWriter.claimTradeExecution(ExecutionFlyweight.encodedLength(symbol, order.getIdentifier().getId(), ""));
+            try {
+                tradeExecution.
+                        setExecution(startTime, order.getIdentifier().getAttributionId(), symbol, order.getIdentifier().getId(), "").
+                        setExecutionId(executionId).
+                        setTrade(tradePrice, tradeQuantity).
+                        setOrder(order);
+            }
+            finally {
+                executionWriter.publish();
+            }
         }
     }
 }
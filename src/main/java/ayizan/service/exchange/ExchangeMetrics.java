@@ -0,0 +1,68 @@
+package ayizan.service.exchange;
+
+import ayizan.domain.Executions.RejectReason;
+import ayizan.domain.orderbook.OrderBook;
+import ayizan.domain.orderbook.OrderBookRepository;
+import ayizan.service.exchange.SymbolMetrics.Instruction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class ExchangeMetrics
+{
+    public static final String UNKNOWN_SYMBOL = "<unknown>";
+
+    private final OrderBookRepository orderBookRepository;
+    private final SymbolMetrics unknownSymbolMetrics;
+    private volatile SymbolMetrics[] symbolMetrics;
+
+    public ExchangeMetrics(final OrderBookRepository orderBookRepository)
+    {
+        this.orderBookRepository = checkNotNull(orderBookRepository, "orderBookRepository is null");
+        this.unknownSymbolMetrics = new SymbolMetrics(UNKNOWN_SYMBOL);
+        this.symbolMetrics = new SymbolMetrics[0];
+        grow(orderBookRepository.size());
+    }
+
+    public List<SymbolMetrics> getSymbolMetrics()
+    {
+        final SymbolMetrics[] symbolMetrics = this.symbolMetrics;
+        final List<SymbolMetrics> metrics = new ArrayList<SymbolMetrics>(symbolMetrics.length + 1);
+        metrics.addAll(Arrays.asList(symbolMetrics));
+        metrics.add(unknownSymbolMetrics);
+        return metrics;
+    }
+
+    public SymbolMetrics getSymbolMetrics(final String symbol)
+    {
+        for(final SymbolMetrics metrics : getSymbolMetrics()) {
+            if(metrics.getSymbol().equals(symbol)) return metrics;
+        }
+        return null;
+    }
+
+    void record(final int symbolId, final Instruction instruction, final RejectReason rejectReason, final int trades, final OrderBook orderBook)
+    {
+        lookup(symbolId).record(instruction, rejectReason, trades, orderBook);
+    }
+
+    private SymbolMetrics lookup(final int symbolId)
+    {
+        if(symbolId == OrderBookRepository.UNKNOWN_SYMBOL_ID) return unknownSymbolMetrics;
+
+        final SymbolMetrics[] symbolMetrics = this.symbolMetrics;
+        return (symbolId < symbolMetrics.length)? symbolMetrics[symbolId] : grow(orderBookRepository.size())[symbolId];
+    }
+
+    private SymbolMetrics[] grow(final int size)
+    {
+        final SymbolMetrics[] symbolMetrics = Arrays.copyOf(this.symbolMetrics, size);
+        for(int symbolId = this.symbolMetrics.length; symbolId < size; symbolId++) {
+            symbolMetrics[symbolId] = new SymbolMetrics(orderBookRepository.lookupInstrument(symbolId).getSymbol());
+        }
+        return this.symbolMetrics = symbolMetrics;
+    }
+}
@@ -0,0 +1,291 @@
+package ayizan.service.exchange;
+
+import ayizan.domain.Depths.DepthAction;
+import ayizan.domain.Depths.DepthSnapshot;
+import ayizan.domain.Depths.DepthUpdate;
+import ayizan.domain.Executions.AcceptExecution;
+import ayizan.domain.Executions.CancelExecution;
+import ayizan.domain.Executions.OrderState;
+import ayizan.domain.Executions.RejectReason;
+import ayizan.domain.Executions.ReplaceExecution;
+import ayizan.domain.Executions.StatusExecution;
+import ayizan.domain.Executions.TradeExecution;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import ayizan.domain.orderbook.Order;
+import ayizan.domain.orderbook.OrderBook.LevelVisitor;
+import ayizan.service.ExecutionVenue.ExecutionCallback;
+import ayizan.service.ExecutionVenue.ExecutionRecord;
+import ayizan.service.ExecutionVenue.ExecutionWriter;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+public class ExecutionBuilder implements ExecutionWriter, ExecutionRecord
+{
+    private static final int ACCEPT = 0;
+    private static final int TRADE = 1;
+    private static final int REPLACE = 2;
+    private static final int CANCEL = 3;
+    private static final int STATUS = 4;
+
+    private final AcceptExecution.Builder acceptExecution;
+    private final TradeExecution.Builder tradeExecution;
+    private final ReplaceExecution.Builder replaceExecution;
+    private final CancelExecution.Builder cancelExecution;
+    private final StatusExecution.Builder statusExecution;
+    private final DepthUpdate.Builder depthUpdate;
+    private final DepthSnapshot.Builder depthSnapshot;
+    private final LevelVisitor depthSnapshotVisitor;
+
+    private ExecutionCallback executionCallback;
+    private int type;
+
+    public ExecutionBuilder()
+    {
+        this.acceptExecution = AcceptExecution.newBuilder();
+        this.tradeExecution = TradeExecution.newBuilder();
+        this.replaceExecution = ReplaceExecution.newBuilder();
+        this.cancelExecution = CancelExecution.newBuilder();
+        this.statusExecution = StatusExecution.newBuilder();
+        this.depthUpdate = DepthUpdate.newBuilder();
+        this.depthSnapshot = DepthSnapshot.newBuilder();
+        this.depthSnapshotVisitor = new LevelVisitor()
+        {
+            @Override
+            public void level(final Side side, final long price, final long quantity, final int orderCount)
+            {
+                switch(side) {
+                    case BUY:
+                        depthSnapshot.addBidBuilder().setPrice(price).setQuantity(quantity).setOrderCount(orderCount);
+                        return;
+                    case SELL:
+                        depthSnapshot.addAskBuilder().setPrice(price).setQuantity(quantity).setOrderCount(orderCount);
+                        return;
+                }
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public ExecutionBuilder wrap(final ExecutionCallback executionCallback)
+    {
+        this.executionCallback = executionCallback;
+        return this;
+    }
+
+    @Override
+    public ExecutionRecord claimAcceptExecution(final int length)
+    {
+        acceptExecution.clear();
+        return claim(ACCEPT);
+    }
+
+    @Override
+    public ExecutionRecord claimTradeExecution(final int length)
+    {
+        tradeExecution.clear();
+        return claim(TRADE);
+    }
+
+    @Override
+    public ExecutionRecord claimReplaceExecution(final int length)
+    {
+        replaceExecution.clear();
+        return claim(REPLACE);
+    }
+
+    @Override
+    public ExecutionRecord claimCancelExecution(final int length)
+    {
+        cancelExecution.clear();
+        return claim(CANCEL);
+    }
+
+    @Override
+    public ExecutionRecord claimStatusExecution(final int length)
+    {
+        statusExecution.clear();
+        return claim(STATUS);
+    }
+
+    @Override
+    public void publish()
+    {
+        switch(type) {
+            case ACCEPT:
+                executionCallback.notify(acceptExecution);
+                return;
+            case TRADE:
+                executionCallback.notify(tradeExecution);
+                return;
+            case REPLACE:
+                executionCallback.notify(replaceExecution);
+                return;
+            case CANCEL:
+                executionCallback.notify(cancelExecution);
+                return;
+            case STATUS:
+                executionCallback.notify(statusExecution);
+                return;
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeDepthUpdate(final String symbol, final long timestampNanos, final DepthAction action, final Side side, final long price, final long quantity, final int orderCount)
+    {
+        executionCallback.notify(depthUpdate.
+                setSymbol(symbol).
+                setTimestamp(NANOSECONDS.toMillis(timestampNanos)).
+                setTimestampNanos(timestampNanos).
+                setAction(action).
+                setSide(side).
+                setPrice(price).
+                setQuantity(quantity).
+                setOrderCount(orderCount));
+    }
+
+    @Override
+    public LevelVisitor claimDepthSnapshot(final String symbol, final long timestampNanos)
+    {
+        depthSnapshot.clear().
+                setSymbol(symbol).
+                setTimestamp(NANOSECONDS.toMillis(timestampNanos)).
+                setTimestampNanos(timestampNanos);
+        return depthSnapshotVisitor;
+    }
+
+    @Override
+    public void publishDepthSnapshot()
+    {
+        executionCallback.notify(depthSnapshot);
+    }
+
+    @Override
+    public ExecutionRecord setExecution(final long timestampNanos, final int attributionId, final String symbol, final String id, final String referenceId)
+    {
+        final long timestamp = NANOSECONDS.toMillis(timestampNanos);
+        switch(type) {
+            case ACCEPT:
+                acceptExecution.setTimestamp(timestamp).setTimestampNanos(timestampNanos).setAttributionId(attributionId).setSymbol(symbol).setId(id);
+                return this;
+            case TRADE:
+                tradeExecution.setTimestamp(timestamp).setTimestampNanos(timestampNanos).setAttributionId(attributionId).setSymbol(symbol).setId(id);
+                return this;
+            case REPLACE:
+                replaceExecution.setTimestamp(timestamp).setTimestampNanos(timestampNanos).setAttributionId(attributionId).setSymbol(symbol).setId(id).setCancelId(referenceId);
+                return this;
+            case CANCEL:
+                cancelExecution.setTimestamp(timestamp).setTimestampNanos(timestampNanos).setAttributionId(attributionId).setSymbol(symbol).setId(id).setCancelId(referenceId);
+                return this;
+            case STATUS:
+                statusExecution.setTimestamp(timestamp).setTimestampNanos(timestampNanos).setAttributionId(attributionId).setSymbol(symbol).setId(id).setStatusId(referenceId);
+                return this;
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ExecutionRecord setExecutionId(final long executionId)
+    {
+        switch(type) {
+            case ACCEPT:
+                acceptExecution.setExecutionId(executionId);
+                return this;
+            case TRADE:
+                tradeExecution.setExecutionId(executionId);
+                return this;
+            case REPLACE:
+                replaceExecution.setExecutionId(executionId);
+                return this;
+            case CANCEL:
+                cancelExecution.setExecutionId(executionId);
+                return this;
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ExecutionRecord setTrade(final long tradePrice, final long tradeQuantity)
+    {
+        if(type != TRADE) throw new UnsupportedOperationException();
+        tradeExecution.setTradePrice(tradePrice).setTradeQuantity(tradeQuantity);
+        return this;
+    }
+
+    @Override
+    public ExecutionRecord setRejectReason(final RejectReason rejectReason)
+    {
+        switch(type) {
+            case ACCEPT:
+                acceptExecution.setRejectReason(rejectReason);
+                return this;
+            case REPLACE:
+                replaceExecution.setRejectReason(rejectReason);
+                return this;
+            case CANCEL:
+                cancelExecution.setRejectReason(rejectReason);
+                return this;
+            case STATUS:
+                statusExecution.setRejectReason(rejectReason);
+                return this;
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ExecutionRecord setOrder(final Order order)
+    {
+        return setOrder(order.getOrderId(), order.getSide(), order.getTimeInForce(), order.getPrice(), order.getQuantity(), order.getWorkingQuantity(), order.getFilledQuantity());
+    }
+
+    @Override
+    public ExecutionRecord setOrder(final long orderId, final Side side, final TimeInForce timeInForce, final long price, final long quantity, final long workingQuantity, final long filledQuantity)
+    {
+        setOrderState(orderBuilder(), orderId, side, timeInForce, price, quantity, workingQuantity, filledQuantity);
+        return this;
+    }
+
+    @Override
+    public ExecutionRecord setReplaceOrder(final Order order)
+    {
+        if(type != REPLACE) throw new UnsupportedOperationException();
+        setOrderState(replaceExecution.getReplaceOrderBuilder(), order.getOrderId(), order.getSide(), order.getTimeInForce(), order.getPrice(), order.getQuantity(), order.getWorkingQuantity(), order.getFilledQuantity());
+        return this;
+    }
+
+    private ExecutionRecord claim(final int type)
+    {
+        this.type = type;
+        return this;
+    }
+
+    private OrderState.Builder orderBuilder()
+    {
+        switch(type) {
+            case ACCEPT:
+                return acceptExecution.getOrderBuilder();
+            case TRADE:
+                return tradeExecution.getOrderBuilder();
+            case REPLACE:
+                return replaceExecution.getCancelOrderBuilder();
+            case CANCEL:
+                return cancelExecution.getOrderBuilder();
+            case STATUS:
+                return statusExecution.getOrderBuilder();
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    private static void setOrderState(final OrderState.Builder orderState, final long orderId, final Side side, final TimeInForce timeInForce, final long price, final long quantity, final long workingQuantity, final long filledQuantity)
+    {
+        orderState.
+                setOrderId(orderId).
+                setSide(side).
+                setTimeInForce(timeInForce).
+                setPrice(price).
+                setQuantity(quantity).
+                setWorkingQuantity(workingQuantity).
+                setFilledQuantity(filledQuantity);
+    }
+}
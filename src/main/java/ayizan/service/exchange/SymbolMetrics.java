@@ -0,0 +1,139 @@
+package ayizan.service.exchange;
+
+import ayizan.domain.Executions.RejectReason;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.orderbook.OrderBook;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class SymbolMetrics implements SymbolMetricsMXBean
+{
+    public enum Instruction { PLACE_ORDER, CANCEL_REPLACE_ORDER, CANCEL_ORDER, ORDER_STATUS }
+
+    private static final int INSTRUCTIONS = 0;
+    private static final int TRADES = INSTRUCTIONS + Instruction.values().length;
+    private static final int RESTING_ORDERS = TRADES + 1;
+    private static final int BID_LEVELS = RESTING_ORDERS + 1;
+    private static final int ASK_LEVELS = BID_LEVELS + 1;
+    private static final int REJECTS = ASK_LEVELS + 1;
+
+    private final String symbol;
+    private final AtomicLongArray values;
+
+    public SymbolMetrics(final String symbol)
+    {
+        this.symbol = checkNotNull(symbol, "symbol is null");
+        this.values = new AtomicLongArray(REJECTS + RejectReason.values().length);
+    }
+
+    void record(final Instruction instruction, final RejectReason rejectReason, final int trades, final OrderBook orderBook)
+    {
+        add(INSTRUCTIONS + instruction.ordinal(), 1);
+        if(rejectReason != RejectReason.NONE) add(REJECTS + rejectReason.ordinal(), 1);
+        if(trades > 0) add(TRADES, trades);
+        if(orderBook != null) {
+            values.lazySet(RESTING_ORDERS, orderBook.getOrderCount());
+            values.lazySet(BID_LEVELS, orderBook.getLevelCount(Side.BUY));
+            values.lazySet(ASK_LEVELS, orderBook.getLevelCount(Side.SELL));
+        }
+    }
+
+    private void add(final int index, final long delta)
+    {
+        values.lazySet(index, values.get(index) + delta);
+    }
+
+    @Override
+    public String getSymbol()
+    {
+        return symbol;
+    }
+
+    public long getInstructionCount(final Instruction instruction)
+    {
+        return values.get(INSTRUCTIONS + instruction.ordinal());
+    }
+
+    @Override
+    public long getPlaceOrderCount()
+    {
+        return getInstructionCount(Instruction.PLACE_ORDER);
+    }
+
+    @Override
+    public long getCancelReplaceOrderCount()
+    {
+        return getInstructionCount(Instruction.CANCEL_REPLACE_ORDER);
+    }
+
+    @Override
+    public long getCancelOrderCount()
+    {
+        return getInstructionCount(Instruction.CANCEL_ORDER);
+    }
+
+    @Override
+    public long getOrderStatusCount()
+    {
+        return getInstructionCount(Instruction.ORDER_STATUS);
+    }
+
+    @Override
+    public long getInstructionCount()
+    {
+        long instructions = 0;
+        for(final Instruction instruction : Instruction.values()) instructions += getInstructionCount(instruction);
+        return instructions;
+    }
+
+    @Override
+    public long getTradeCount()
+    {
+        return values.get(TRADES);
+    }
+
+    public long getRejectCount(final RejectReason rejectReason)
+    {
+        return values.get(REJECTS + rejectReason.ordinal());
+    }
+
+    @Override
+    public long getRejectCount()
+    {
+        long rejects = 0;
+        for(final RejectReason rejectReason : RejectReason.values()) rejects += getRejectCount(rejectReason);
+        return rejects;
+    }
+
+    @Override
+    public Map<String, Long> getRejectCounts()
+    {
+        final Map<String, Long> rejectCounts = new LinkedHashMap<String, Long>();
+        for(final RejectReason rejectReason : RejectReason.values()) {
+            if(rejectReason != RejectReason.NONE) rejectCounts.put(rejectReason.name(), getRejectCount(rejectReason));
+        }
+        return rejectCounts;
+    }
+
+    @Override
+    public long getRestingOrderCount()
+    {
+        return values.get(RESTING_ORDERS);
+    }
+
+    @Override
+    public long getBidLevelCount()
+    {
+        return values.get(BID_LEVELS);
+    }
+
+    @Override
+    public long getAskLevelCount()
+    {
+        return values.get(ASK_LEVELS);
+    }
+}
@@ -0,0 +1,30 @@
+package ayizan.service.exchange;
+
+import java.util.Map;
+
+public interface SymbolMetricsMXBean
+{
+    String getSymbol();
+
+    long getPlaceOrderCount();
+
+    long getCancelReplaceOrderCount();
+
+    long getCancelOrderCount();
+
+    long getOrderStatusCount();
+
+    long getInstructionCount();
+
+    long getTradeCount();
+
+    long getRejectCount();
+
+    Map<String, Long> getRejectCounts();
+
+    long getRestingOrderCount();
+
+    long getBidLevelCount();
+
+    long getAskLevelCount();
+}
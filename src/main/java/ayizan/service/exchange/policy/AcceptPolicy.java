@@ -2,7 +2,6 @@ package ayizan.service.exchange.policy;
 
 import ayizan.domain.Orders.Side;
 import ayizan.domain.Orders.TimeInForce;
-import ayizan.domain.Identifier;
 import ayizan.domain.orderbook.Order;
 import ayizan.domain.orderbook.OrderBook;
 import ayizan.service.exchange.Exchange.ExecutionPublisher;
@@ -33,13 +32,14 @@ public abstract class AcceptPolicy<T extends AcceptPolicy<T>>
         }
 
         public Order accept(final OrderBook orderBook,
-                            final Identifier identifier,
+                            final String id,
+                            final int attributionId,
                             final Side side,
                             final long price,
                             final long quantity,
                             final TimeInForce timeInForce)
         {
-            final Order order = orderBook.accept(identifier, side, price, quantity, 0, timeInForce);
+            final Order order = orderBook.accept(id, attributionId, side, price, quantity, 0, timeInForce);
             executionPublisher.publishAcceptExecution(orderBook.commit(), orderBook.getSymbol(), order);
             return order;
         }
@@ -55,16 +55,22 @@ public abstract class AcceptPolicy<T extends AcceptPolicy<T>>
         }
 
         public Order accept(final OrderBook orderBook,
-                            final Identifier identifier,
-                            final Identifier cancelIdentifier,
+                            final String id,
+                            final int attributionId,
+                            final String cancelId,
                             final long price,
                             final long quantity)
         {
-            final Order cancelOrder = orderBook.cancel(cancelIdentifier);
+            final Order cancelOrder = orderBook.cancel(cancelId, attributionId);
             if(cancelOrder != null) {
 
-                final Order replaceOrder = orderBook.accept(identifier, cancelOrder.getSide(), price, quantity, cancelOrder.getFilledQuantity(), cancelOrder.getTimeInForce());
-                executionPublisher.publishReplaceExecution(orderBook.commit(), orderBook.getSymbol(), cancelOrder.cancel(), replaceOrder);
+                final Order replaceOrder = orderBook.accept(id, attributionId, cancelOrder.getSide(), price, quantity, cancelOrder.getFilledQuantity(), cancelOrder.getTimeInForce());
+                if(replaceOrder.isRejected()) {
+                    orderBook.commit();
+                    return replaceOrder;
+                }
+                cancelOrder.cancel();
+                executionPublisher.publishReplaceExecution(orderBook.commit(), orderBook.getSymbol(), cancelOrder, replaceOrder);
                 return replaceOrder;
             }
             return null;
@@ -1,6 +1,5 @@
 package ayizan.service.exchange.policy;
 
-import ayizan.domain.Identifier;
 import ayizan.domain.orderbook.Order;
 import ayizan.domain.orderbook.OrderBook;
 import ayizan.service.exchange.Exchange.ExecutionPublisher;
@@ -21,7 +20,7 @@ public abstract class CancelPolicy<T extends CancelPolicy>
         return (T) this;
     }
 
-    public abstract boolean cancel(OrderBook orderBook, final Identifier identifier, Order order);
+    public abstract boolean cancel(OrderBook orderBook, String id, Order order);
 
     public static class GoodTillCancelPolicy extends CancelPolicy<GoodTillCancelPolicy>
     {
@@ -33,7 +32,7 @@ public abstract class CancelPolicy<T extends CancelPolicy>
         }
 
         @Override
-        public boolean cancel(final OrderBook orderBook, final Identifier identifier, final Order order)
+        public boolean cancel(final OrderBook orderBook, final String id, final Order order)
         {
             if(order != null) {
                 if(!order.isCompleted()) orderBook.commit();
@@ -53,11 +52,11 @@ public abstract class CancelPolicy<T extends CancelPolicy>
         }
 
         @Override
-        public boolean cancel(final OrderBook orderBook, final Identifier identifier, final Order order)
+        public boolean cancel(final OrderBook orderBook, final String id, final Order order)
         {
             if(order != null && !order.isCompleted()) {
                 order.cancel();
-                executionPublisher.publishCancelExecution(orderBook.commit(), orderBook.getSymbol(), identifier, order);
+                executionPublisher.publishCancelExecution(orderBook.commit(), orderBook.getSymbol(), id, order);
                 return true;
             }
             return false;
@@ -84,4 +84,27 @@ public abstract class FillPolicy<T extends FillPolicy<T>>
             return aggressiveOrder.getIdentifier().getAttributionId() != attributionId;
         }
     }
+
+    public static class FillOrKillPolicy extends FillPolicy<FillOrKillPolicy>
+    {
+        private final FillPolicy<?> fillPolicy;
+
+        public static FillOrKillPolicy allocate(final FillPolicy<?> fillPolicy)
+        {
+            return new FillOrKillPolicy(fillPolicy);
+        }
+        private FillOrKillPolicy(final FillPolicy<?> fillPolicy)
+        {
+            this.fillPolicy = fillPolicy;
+        }
+
+
+        @Override
+        public boolean fill(final OrderBook orderBook, final Order order)
+        {
+            final long quantity = order.getWorkingQuantity();
+            if(orderBook.liquidity(order.getSide(), order.getPrice(), quantity, order.getIdentifier().getAttributionId()) < quantity) return false;
+            return fillPolicy.fill(orderBook, order);
+        }
+    }
 }
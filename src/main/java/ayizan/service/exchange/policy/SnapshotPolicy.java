@@ -0,0 +1,125 @@
+package ayizan.service.exchange.policy;
+
+import ayizan.domain.orderbook.OrderBook;
+import ayizan.service.exchange.Exchange.ExecutionPublisher;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.util.Preconditions.checkArgument;
+
+public abstract class SnapshotPolicy<T extends SnapshotPolicy<T>>
+{
+    protected ExecutionPublisher executionPublisher;
+
+    public T setExecutionPublisher(final ExecutionPublisher executionPublisher)
+    {
+        this.executionPublisher = executionPublisher;
+        return policy();
+    }
+
+    public abstract boolean snapshot(OrderBook orderBook);
+
+    public abstract boolean expire(OrderBook orderBook);
+
+    @SuppressWarnings("unchecked")
+    private T policy()
+    {
+        return (T) this;
+    }
+
+    public static class NoSnapshotPolicy extends SnapshotPolicy<NoSnapshotPolicy>
+    {
+        private NoSnapshotPolicy() {}
+
+        public static NoSnapshotPolicy allocate()
+        {
+            return new NoSnapshotPolicy();
+        }
+
+        @Override
+        public boolean snapshot(final OrderBook orderBook)
+        {
+            return false;
+        }
+
+        @Override
+        public boolean expire(final OrderBook orderBook)
+        {
+            return false;
+        }
+    }
+
+    public static class IntervalSnapshotPolicy extends SnapshotPolicy<IntervalSnapshotPolicy>
+    {
+        private final int levels;
+        private final int eventInterval;
+        private final long timeInterval;
+        private final Map<OrderBook, Schedule> schedules;
+
+        public static IntervalSnapshotPolicy allocate(final int levels, final int eventInterval, final long timeInterval, final TimeUnit timeUnit)
+        {
+            return new IntervalSnapshotPolicy(levels, eventInterval, timeUnit.toMillis(timeInterval));
+        }
+        private IntervalSnapshotPolicy(final int levels, final int eventInterval, final long timeInterval)
+        {
+            checkArgument(levels > 0, "Invalid snapshot levels '%s'", levels);
+            checkArgument(eventInterval > 0, "Invalid snapshot event interval '%s'", eventInterval);
+            checkArgument(timeInterval > 0, "Invalid snapshot time interval '%s'", timeInterval);
+            this.levels = levels;
+            this.eventInterval = eventInterval;
+            this.timeInterval = timeInterval;
+            this.schedules = new IdentityHashMap<OrderBook, Schedule>();
+        }
+
+
+        @Override
+        public boolean snapshot(final OrderBook orderBook)
+        {
+            if(orderBook == null) return false;
+
+            final long now = executionPublisher.getTimestamp(TimeUnit.MILLISECONDS);
+            final Schedule schedule = schedule(orderBook, now);
+            if(++schedule.events < eventInterval && (now - schedule.timestamp) < timeInterval) return false;
+            return publish(orderBook, schedule, now);
+        }
+
+        @Override
+        public boolean expire(final OrderBook orderBook)
+        {
+            if(orderBook == null) return false;
+
+            final long now = executionPublisher.getTimestamp(TimeUnit.MILLISECONDS);
+            final Schedule schedule = schedule(orderBook, now);
+            if((now - schedule.timestamp) < timeInterval) return false;
+            return publish(orderBook, schedule, now);
+        }
+
+        private Schedule schedule(final OrderBook orderBook, final long now)
+        {
+            Schedule schedule = schedules.get(orderBook);
+            if(schedule == null) schedules.put(orderBook, schedule = new Schedule(now));
+            return schedule;
+        }
+
+        private boolean publish(final OrderBook orderBook, final Schedule schedule, final long now)
+        {
+            schedule.events = 0;
+            schedule.timestamp = now;
+            executionPublisher.publishDepthSnapshot(orderBook, levels);
+            return true;
+        }
+
+        private static class Schedule
+        {
+            private int events;
+            private long timestamp;
+
+            private Schedule(final long timestamp)
+            {
+                this.timestamp = timestamp;
+            }
+        }
+    }
+}
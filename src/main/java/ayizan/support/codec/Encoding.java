@@ -0,0 +1,31 @@
+package ayizan.support.codec;
+
+public enum Encoding
+{
+    PROTOBUF(0),
+    BINARY(1 << 16);
+
+    private static final int TYPE_MASK = 0xffff;
+
+    private final int flag;
+
+    private Encoding(final int flag)
+    {
+        this.flag = flag;
+    }
+
+    public int schema(final int type)
+    {
+        return type | flag;
+    }
+
+    public static int type(final int schema)
+    {
+        return schema & TYPE_MASK;
+    }
+
+    public static Encoding valueOfSchema(final int schema)
+    {
+        return ((schema & BINARY.flag) != 0)? BINARY : PROTOBUF;
+    }
+}
@@ -0,0 +1,408 @@
+package ayizan.support.codec;
+
+import ayizan.domain.Executions.AcceptExecution;
+import ayizan.domain.Executions.AcceptExecutionOrBuilder;
+import ayizan.domain.Executions.CancelExecution;
+import ayizan.domain.Executions.CancelExecutionOrBuilder;
+import ayizan.domain.Executions.OrderState;
+import ayizan.domain.Executions.OrderStateOrBuilder;
+import ayizan.domain.Executions.RejectReason;
+import ayizan.domain.Executions.ReplaceExecution;
+import ayizan.domain.Executions.ReplaceExecutionOrBuilder;
+import ayizan.domain.Executions.StatusExecution;
+import ayizan.domain.Executions.StatusExecutionOrBuilder;
+import ayizan.domain.Executions.TradeExecution;
+import ayizan.domain.Executions.TradeExecutionOrBuilder;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import ayizan.domain.orderbook.Order;
+import ayizan.service.ExecutionVenue.ExecutionRecord;
+
+import java.util.concurrent.TimeUnit;
+
+public class ExecutionFlyweight extends Flyweight<ExecutionFlyweight> implements ExecutionRecord
+{
+    private static final int TIMESTAMP_OFFSET = 0;
+    private static final int EXECUTION_ID_OFFSET = 8;
+    private static final int TRADE_PRICE_OFFSET = 16;
+    private static final int TRADE_QUANTITY_OFFSET = 24;
+    private static final int ATTRIBUTION_ID_OFFSET = 32;
+    private static final int REJECT_REASON_OFFSET = 36;
+    private static final int FLAGS_OFFSET = 37;
+    private static final int ORDER_OFFSET = 38;
+    private static final int REPLACE_ORDER_OFFSET = 81;
+    private static final int TIMESTAMP_NANOS_OFFSET = 124;
+    private static final int BLOCK_LENGTH = 132;
+
+    private static final int ORDER_FLAGS_OFFSET = 0;
+    private static final int ORDER_SIDE_OFFSET = 1;
+    private static final int ORDER_TIME_IN_FORCE_OFFSET = 2;
+    private static final int ORDER_ID_OFFSET = 3;
+    private static final int ORDER_PRICE_OFFSET = 11;
+    private static final int ORDER_QUANTITY_OFFSET = 19;
+    private static final int ORDER_WORKING_QUANTITY_OFFSET = 27;
+    private static final int ORDER_FILLED_QUANTITY_OFFSET = 35;
+
+    private static final int SYMBOL = 0;
+    private static final int ID = 1;
+    private static final int REFERENCE_ID = 2;
+
+    private static final int HAS_EXECUTION_ID = 1;
+    private static final int HAS_REJECT_REASON = 2;
+    private static final int HAS_TIMESTAMP_NANOS = 4;
+    private static final int HAS_ORDER = 1;
+    private static final int HAS_ORDER_PRICE = 2;
+
+
+    public long getTimestamp()
+    {
+        return buffer.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    public boolean hasTimestampNanos()
+    {
+        return (buffer.get(offset + FLAGS_OFFSET) & HAS_TIMESTAMP_NANOS) != 0;
+    }
+
+    public long getTimestampNanos()
+    {
+        return buffer.getLong(offset + TIMESTAMP_NANOS_OFFSET);
+    }
+
+    public boolean hasExecutionId()
+    {
+        return (buffer.get(offset + FLAGS_OFFSET) & HAS_EXECUTION_ID) != 0;
+    }
+
+    public long getExecutionId()
+    {
+        return buffer.getLong(offset + EXECUTION_ID_OFFSET);
+    }
+
+    public long getTradePrice()
+    {
+        return buffer.getLong(offset + TRADE_PRICE_OFFSET);
+    }
+
+    public long getTradeQuantity()
+    {
+        return buffer.getLong(offset + TRADE_QUANTITY_OFFSET);
+    }
+
+    public int getAttributionId()
+    {
+        return buffer.getInt(offset + ATTRIBUTION_ID_OFFSET);
+    }
+
+    public boolean hasRejectReason()
+    {
+        return (buffer.get(offset + FLAGS_OFFSET) & HAS_REJECT_REASON) != 0;
+    }
+
+    public RejectReason getRejectReason()
+    {
+        return RejectReason.valueOf(buffer.get(offset + REJECT_REASON_OFFSET));
+    }
+
+    public String getSymbol()
+    {
+        return getString(SYMBOL);
+    }
+
+    public String getId()
+    {
+        return getString(ID);
+    }
+
+    public String getCancelId()
+    {
+        return getString(REFERENCE_ID);
+    }
+
+    public String getStatusId()
+    {
+        return getString(REFERENCE_ID);
+    }
+
+
+    public AcceptExecution.Builder mergeTo(final AcceptExecution.Builder acceptExecution)
+    {
+        acceptExecution.
+                setTimestamp(getTimestamp()).
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setExecutionId(getExecutionId());
+        mergeOrderTo(ORDER_OFFSET, acceptExecution.getOrderBuilder());
+        if(hasRejectReason()) acceptExecution.setRejectReason(getRejectReason());
+        if(hasTimestampNanos()) acceptExecution.setTimestampNanos(getTimestampNanos());
+        return acceptExecution;
+    }
+
+    public TradeExecution.Builder mergeTo(final TradeExecution.Builder tradeExecution)
+    {
+        tradeExecution.
+                setTimestamp(getTimestamp()).
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setExecutionId(getExecutionId()).
+                setTradePrice(getTradePrice()).
+                setTradeQuantity(getTradeQuantity());
+        mergeOrderTo(ORDER_OFFSET, tradeExecution.getOrderBuilder());
+        if(hasTimestampNanos()) tradeExecution.setTimestampNanos(getTimestampNanos());
+        return tradeExecution;
+    }
+
+    public ReplaceExecution.Builder mergeTo(final ReplaceExecution.Builder replaceExecution)
+    {
+        replaceExecution.
+                setTimestamp(getTimestamp()).
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setCancelId(getCancelId());
+        if(hasExecutionId()) replaceExecution.setExecutionId(getExecutionId());
+        if(hasOrder(ORDER_OFFSET)) mergeOrderTo(ORDER_OFFSET, replaceExecution.getCancelOrderBuilder());
+        if(hasOrder(REPLACE_ORDER_OFFSET)) mergeOrderTo(REPLACE_ORDER_OFFSET, replaceExecution.getReplaceOrderBuilder());
+        if(hasRejectReason()) replaceExecution.setRejectReason(getRejectReason());
+        if(hasTimestampNanos()) replaceExecution.setTimestampNanos(getTimestampNanos());
+        return replaceExecution;
+    }
+
+    public CancelExecution.Builder mergeTo(final CancelExecution.Builder cancelExecution)
+    {
+        cancelExecution.
+                setTimestamp(getTimestamp()).
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setCancelId(getCancelId());
+        if(hasExecutionId()) cancelExecution.setExecutionId(getExecutionId());
+        if(hasOrder(ORDER_OFFSET)) mergeOrderTo(ORDER_OFFSET, cancelExecution.getOrderBuilder());
+        if(hasRejectReason()) cancelExecution.setRejectReason(getRejectReason());
+        if(hasTimestampNanos()) cancelExecution.setTimestampNanos(getTimestampNanos());
+        return cancelExecution;
+    }
+
+    public StatusExecution.Builder mergeTo(final StatusExecution.Builder statusExecution)
+    {
+        statusExecution.
+                setTimestamp(getTimestamp()).
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setStatusId(getStatusId());
+        mergeOrderTo(ORDER_OFFSET, statusExecution.getOrderBuilder());
+        if(hasRejectReason()) statusExecution.setRejectReason(getRejectReason());
+        if(hasTimestampNanos()) statusExecution.setTimestampNanos(getTimestampNanos());
+        return statusExecution;
+    }
+
+
+    public ExecutionFlyweight set(final AcceptExecutionOrBuilder acceptExecution)
+    {
+        setBlock(acceptExecution.getTimestamp(), acceptExecution.hasTimestampNanos(), acceptExecution.getTimestampNanos(), true, acceptExecution.getExecutionId(), 0, 0, acceptExecution.getAttributionId(), acceptExecution.hasRejectReason(), acceptExecution.getRejectReason());
+        setOrder(ORDER_OFFSET, acceptExecution.hasOrder(), acceptExecution.getOrderOrBuilder());
+        setOrder(REPLACE_ORDER_OFFSET, false, null);
+        setStrings(acceptExecution.getSymbol(), acceptExecution.getId(), "");
+        return this;
+    }
+
+    public ExecutionFlyweight set(final TradeExecutionOrBuilder tradeExecution)
+    {
+        setBlock(tradeExecution.getTimestamp(), tradeExecution.hasTimestampNanos(), tradeExecution.getTimestampNanos(), true, tradeExecution.getExecutionId(), tradeExecution.getTradePrice(), tradeExecution.getTradeQuantity(), tradeExecution.getAttributionId(), false, RejectReason.NONE);
+        setOrder(ORDER_OFFSET, tradeExecution.hasOrder(), tradeExecution.getOrderOrBuilder());
+        setOrder(REPLACE_ORDER_OFFSET, false, null);
+        setStrings(tradeExecution.getSymbol(), tradeExecution.getId(), "");
+        return this;
+    }
+
+    public ExecutionFlyweight set(final ReplaceExecutionOrBuilder replaceExecution)
+    {
+        setBlock(replaceExecution.getTimestamp(), replaceExecution.hasTimestampNanos(), replaceExecution.getTimestampNanos(), replaceExecution.hasExecutionId(), replaceExecution.getExecutionId(), 0, 0, replaceExecution.getAttributionId(), replaceExecution.hasRejectReason(), replaceExecution.getRejectReason());
+        setOrder(ORDER_OFFSET, replaceExecution.hasCancelOrder(), replaceExecution.getCancelOrderOrBuilder());
+        setOrder(REPLACE_ORDER_OFFSET, replaceExecution.hasReplaceOrder(), replaceExecution.getReplaceOrderOrBuilder());
+        setStrings(replaceExecution.getSymbol(), replaceExecution.getId(), replaceExecution.getCancelId());
+        return this;
+    }
+
+    public ExecutionFlyweight set(final CancelExecutionOrBuilder cancelExecution)
+    {
+        setBlock(cancelExecution.getTimestamp(), cancelExecution.hasTimestampNanos(), cancelExecution.getTimestampNanos(), cancelExecution.hasExecutionId(), cancelExecution.getExecutionId(), 0, 0, cancelExecution.getAttributionId(), cancelExecution.hasRejectReason(), cancelExecution.getRejectReason());
+        setOrder(ORDER_OFFSET, cancelExecution.hasOrder(), cancelExecution.getOrderOrBuilder());
+        setOrder(REPLACE_ORDER_OFFSET, false, null);
+        setStrings(cancelExecution.getSymbol(), cancelExecution.getId(), cancelExecution.getCancelId());
+        return this;
+    }
+
+    public ExecutionFlyweight set(final StatusExecutionOrBuilder statusExecution)
+    {
+        setBlock(statusExecution.getTimestamp(), statusExecution.hasTimestampNanos(), statusExecution.getTimestampNanos(), false, 0, 0, 0, statusExecution.getAttributionId(), statusExecution.hasRejectReason(), statusExecution.getRejectReason());
+        setOrder(ORDER_OFFSET, statusExecution.hasOrder(), statusExecution.getOrderOrBuilder());
+        setOrder(REPLACE_ORDER_OFFSET, false, null);
+        setStrings(statusExecution.getSymbol(), statusExecution.getId(), statusExecution.getStatusId());
+        return this;
+    }
+
+
+    @Override
+    public ExecutionFlyweight setExecution(final long timestampNanos, final int attributionId, final String symbol, final String id, final String referenceId)
+    {
+        setBlock(TimeUnit.NANOSECONDS.toMillis(timestampNanos), true, timestampNanos, false, 0, 0, 0, attributionId, false, RejectReason.NONE);
+        setOrder(ORDER_OFFSET, false, null);
+        setOrder(REPLACE_ORDER_OFFSET, false, null);
+        setStrings(symbol, id, referenceId);
+        return this;
+    }
+
+    @Override
+    public ExecutionFlyweight setExecutionId(final long executionId)
+    {
+        buffer.putLong(offset + EXECUTION_ID_OFFSET, executionId);
+        return setFlag(HAS_EXECUTION_ID);
+    }
+
+    @Override
+    public ExecutionFlyweight setTrade(final long tradePrice, final long tradeQuantity)
+    {
+        buffer.putLong(offset + TRADE_PRICE_OFFSET, tradePrice);
+        buffer.putLong(offset + TRADE_QUANTITY_OFFSET, tradeQuantity);
+        return this;
+    }
+
+    @Override
+    public ExecutionFlyweight setRejectReason(final RejectReason rejectReason)
+    {
+        buffer.put(offset + REJECT_REASON_OFFSET, (byte) rejectReason.getNumber());
+        return setFlag(HAS_REJECT_REASON);
+    }
+
+    @Override
+    public ExecutionFlyweight setOrder(final Order order)
+    {
+        putOrder(ORDER_OFFSET, true, order.getOrderId(), order.getSide(), order.getTimeInForce(), order.getPrice(), order.getQuantity(), order.getWorkingQuantity(), order.getFilledQuantity());
+        return this;
+    }
+
+    @Override
+    public ExecutionFlyweight setOrder(final long orderId, final Side side, final TimeInForce timeInForce, final long price, final long quantity, final long workingQuantity, final long filledQuantity)
+    {
+        putOrder(ORDER_OFFSET, true, orderId, side, timeInForce, price, quantity, workingQuantity, filledQuantity);
+        return this;
+    }
+
+    @Override
+    public ExecutionFlyweight setReplaceOrder(final Order order)
+    {
+        putOrder(REPLACE_ORDER_OFFSET, true, order.getOrderId(), order.getSide(), order.getTimeInForce(), order.getPrice(), order.getQuantity(), order.getWorkingQuantity(), order.getFilledQuantity());
+        return this;
+    }
+
+
+    public static int encodedLength(final String symbol, final String id, final String referenceId)
+    {
+        return encodedLength(BLOCK_LENGTH, symbol, id, referenceId);
+    }
+
+    public static int encodedLength(final AcceptExecutionOrBuilder acceptExecution)
+    {
+        return encodedLength(BLOCK_LENGTH, acceptExecution.getSymbol(), acceptExecution.getId(), "");
+    }
+
+    public static int encodedLength(final TradeExecutionOrBuilder tradeExecution)
+    {
+        return encodedLength(BLOCK_LENGTH, tradeExecution.getSymbol(), tradeExecution.getId(), "");
+    }
+
+    public static int encodedLength(final ReplaceExecutionOrBuilder replaceExecution)
+    {
+        return encodedLength(BLOCK_LENGTH, replaceExecution.getSymbol(), replaceExecution.getId(), replaceExecution.getCancelId());
+    }
+
+    public static int encodedLength(final CancelExecutionOrBuilder cancelExecution)
+    {
+        return encodedLength(BLOCK_LENGTH, cancelExecution.getSymbol(), cancelExecution.getId(), cancelExecution.getCancelId());
+    }
+
+    public static int encodedLength(final StatusExecutionOrBuilder statusExecution)
+    {
+        return encodedLength(BLOCK_LENGTH, statusExecution.getSymbol(), statusExecution.getId(), statusExecution.getStatusId());
+    }
+
+
+    @Override
+    protected int blockLength()
+    {
+        return BLOCK_LENGTH;
+    }
+
+    @Override
+    protected int stringCount()
+    {
+        return 3;
+    }
+
+    private boolean hasOrder(final int orderOffset)
+    {
+        return (buffer.get(offset + orderOffset + ORDER_FLAGS_OFFSET) & HAS_ORDER) != 0;
+    }
+
+    private void mergeOrderTo(final int orderOffset, final OrderState.Builder orderState)
+    {
+        final int position = offset + orderOffset;
+        orderState.
+                setOrderId(buffer.getLong(position + ORDER_ID_OFFSET)).
+                setSide(Side.valueOf(buffer.get(position + ORDER_SIDE_OFFSET))).
+                setQuantity(buffer.getLong(position + ORDER_QUANTITY_OFFSET)).
+                setWorkingQuantity(buffer.getLong(position + ORDER_WORKING_QUANTITY_OFFSET)).
+                setFilledQuantity(buffer.getLong(position + ORDER_FILLED_QUANTITY_OFFSET)).
+                setTimeInForce(TimeInForce.valueOf(buffer.get(position + ORDER_TIME_IN_FORCE_OFFSET)));
+        if((buffer.get(position + ORDER_FLAGS_OFFSET) & HAS_ORDER_PRICE) != 0) orderState.setPrice(buffer.getLong(position + ORDER_PRICE_OFFSET));
+    }
+
+    private void setBlock(final long timestamp, final boolean hasTimestampNanos, final long timestampNanos, final boolean hasExecutionId, final long executionId, final long tradePrice, final long tradeQuantity, final int attributionId, final boolean hasRejectReason, final RejectReason rejectReason)
+    {
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + TIMESTAMP_NANOS_OFFSET, timestampNanos);
+        buffer.putLong(offset + EXECUTION_ID_OFFSET, executionId);
+        buffer.putLong(offset + TRADE_PRICE_OFFSET, tradePrice);
+        buffer.putLong(offset + TRADE_QUANTITY_OFFSET, tradeQuantity);
+        buffer.putInt(offset + ATTRIBUTION_ID_OFFSET, attributionId);
+        buffer.put(offset + REJECT_REASON_OFFSET, (byte) rejectReason.getNumber());
+        buffer.put(offset + FLAGS_OFFSET, (byte) ((hasExecutionId? HAS_EXECUTION_ID : 0) | (hasRejectReason? HAS_REJECT_REASON : 0) | (hasTimestampNanos? HAS_TIMESTAMP_NANOS : 0)));
+    }
+
+    private void setOrder(final int orderOffset, final boolean hasOrder, final OrderStateOrBuilder orderState)
+    {
+        if(!hasOrder) {
+            buffer.put(offset + orderOffset + ORDER_FLAGS_OFFSET, (byte) 0);
+            return;
+        }
+        putOrder(orderOffset, orderState.hasPrice(), orderState.getOrderId(), orderState.getSide(), orderState.getTimeInForce(), orderState.getPrice(), orderState.getQuantity(), orderState.getWorkingQuantity(), orderState.getFilledQuantity());
+    }
+
+    private void putOrder(final int orderOffset, final boolean hasPrice, final long orderId, final Side side, final TimeInForce timeInForce, final long price, final long quantity, final long workingQuantity, final long filledQuantity)
+    {
+        final int position = offset + orderOffset;
+        buffer.put(position + ORDER_FLAGS_OFFSET, (byte) (HAS_ORDER | (hasPrice? HAS_ORDER_PRICE : 0)));
+        buffer.put(position + ORDER_SIDE_OFFSET, (byte) side.getNumber());
+        buffer.put(position + ORDER_TIME_IN_FORCE_OFFSET, (byte) timeInForce.getNumber());
+        buffer.putLong(position + ORDER_ID_OFFSET, orderId);
+        buffer.putLong(position + ORDER_PRICE_OFFSET, price);
+        buffer.putLong(position + ORDER_QUANTITY_OFFSET, quantity);
+        buffer.putLong(position + ORDER_WORKING_QUANTITY_OFFSET, workingQuantity);
+        buffer.putLong(position + ORDER_FILLED_QUANTITY_OFFSET, filledQuantity);
+    }
+
+    private ExecutionFlyweight setFlag(final int flag)
+    {
+        buffer.put(offset + FLAGS_OFFSET, (byte) (buffer.get(offset + FLAGS_OFFSET) | flag));
+        return this;
+    }
+
+    private void setStrings(final String symbol, final String id, final String referenceId)
+    {
+        putString(putString(putString(offset + BLOCK_LENGTH, symbol), id), referenceId);
+    }
+}
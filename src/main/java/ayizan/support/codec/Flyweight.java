@@ -0,0 +1,92 @@
+package ayizan.support.codec;
+
+import java.nio.ByteBuffer;
+
+import static ayizan.util.Preconditions.checkArgument;
+
+public abstract class Flyweight<T extends Flyweight<T>>
+{
+    private static final int MAX_STRING_LENGTH = 0xff;
+    private static final int STRING_CACHE_SIZE = 1024;
+
+    private final char[] chars;
+    private final String[] strings;
+
+    protected ByteBuffer buffer;
+    protected int offset;
+
+    protected Flyweight()
+    {
+        this.chars = new char[MAX_STRING_LENGTH];
+        this.strings = new String[STRING_CACHE_SIZE];
+    }
+
+    @SuppressWarnings("unchecked")
+    public T wrap(final ByteBuffer buffer, final int offset)
+    {
+        this.buffer = buffer;
+        this.offset = offset;
+        return (T) this;
+    }
+
+    public int length()
+    {
+        int position = offset + blockLength();
+        for(int i = 0; i < stringCount(); i++) position += 1 + (buffer.get(position) & 0xff);
+        return position - offset;
+    }
+
+    protected abstract int blockLength();
+
+    protected abstract int stringCount();
+
+    protected int stringOffset(final int index)
+    {
+        int position = offset + blockLength();
+        for(int i = 0; i < index; i++) position += 1 + (buffer.get(position) & 0xff);
+        return position;
+    }
+
+    protected String getString(final int index)
+    {
+        final int position = stringOffset(index);
+        final int length = buffer.get(position) & 0xff;
+        int hash = 0;
+        for(int i = 0; i < length; i++) {
+            chars[i] = (char) buffer.get(position + 1 + i);
+            hash = 31 * hash + chars[i];
+        }
+
+        final int slot = (hash ^ (hash >>> 16)) & (STRING_CACHE_SIZE - 1);
+        final String string = strings[slot];
+        if(string != null && string.hashCode() == hash && matches(string, length)) return string;
+        return strings[slot] = new String(chars, 0, length);
+    }
+
+    protected int putString(final int position, final String value)
+    {
+        final int length = value.length();
+        checkArgument(length <= MAX_STRING_LENGTH, "String '%s' exceeds %s characters", value, MAX_STRING_LENGTH);
+        buffer.put(position, (byte) length);
+        for(int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            checkArgument(c < 0x80, "String '%s' is not ASCII", value);
+            buffer.put(position + 1 + i, (byte) c);
+        }
+        return position + 1 + length;
+    }
+
+    private boolean matches(final String string, final int length)
+    {
+        if(string.length() != length) return false;
+        for(int i = 0; i < length; i++) {
+            if(string.charAt(i) != chars[i]) return false;
+        }
+        return true;
+    }
+
+    protected static int encodedLength(final int blockLength, final String value1, final String value2, final String value3)
+    {
+        return blockLength + 3 + value1.length() + value2.length() + value3.length();
+    }
+}
@@ -0,0 +1,599 @@
+package ayizan.support.codec;
+
+import ayizan.domain.Orders.CancelOrderSpecification;
+import ayizan.domain.Orders.CancelOrderSpecificationOrBuilder;
+import ayizan.domain.Orders.CancelReplaceOrderSpecification;
+import ayizan.domain.Orders.CancelReplaceOrderSpecificationOrBuilder;
+import ayizan.domain.Orders.OrderStatusSpecification;
+import ayizan.domain.Orders.OrderStatusSpecificationOrBuilder;
+import ayizan.domain.Orders.PlaceOrderSpecification;
+import ayizan.domain.Orders.PlaceOrderSpecificationOrBuilder;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+
+import com.google.protobuf.AbstractMessage;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import com.google.protobuf.UnknownFieldSet;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+public class InstructionFlyweight extends Flyweight<InstructionFlyweight>
+{
+    private static final int ATTRIBUTION_ID_OFFSET = 0;
+    private static final int SYMBOL_ID_OFFSET = 4;
+    private static final int PRICE_OFFSET = 8;
+    private static final int QUANTITY_OFFSET = 16;
+    private static final int SIDE_OFFSET = 24;
+    private static final int TIME_IN_FORCE_OFFSET = 25;
+    private static final int FLAGS_OFFSET = 26;
+    private static final int BLOCK_LENGTH = 27;
+
+    private static final int SYMBOL = 0;
+    private static final int ID = 1;
+    private static final int REFERENCE_ID = 2;
+
+    private static final int NO_SYMBOL_ID = -1;
+    private static final int HAS_PRICE = 1;
+
+    private final PlaceOrderSpecificationView placeOrderSpecification;
+    private final CancelReplaceOrderSpecificationView cancelReplaceOrderSpecification;
+    private final CancelOrderSpecificationView cancelOrderSpecification;
+    private final OrderStatusSpecificationView orderStatusSpecification;
+
+    public InstructionFlyweight()
+    {
+        this.placeOrderSpecification = new PlaceOrderSpecificationView();
+        this.cancelReplaceOrderSpecification = new CancelReplaceOrderSpecificationView();
+        this.cancelOrderSpecification = new CancelOrderSpecificationView();
+        this.orderStatusSpecification = new OrderStatusSpecificationView();
+    }
+
+    public int getAttributionId()
+    {
+        return buffer.getInt(offset + ATTRIBUTION_ID_OFFSET);
+    }
+
+    public boolean hasSymbolId()
+    {
+        return getSymbolId() != NO_SYMBOL_ID;
+    }
+
+    public int getSymbolId()
+    {
+        return buffer.getInt(offset + SYMBOL_ID_OFFSET);
+    }
+
+    public boolean hasPrice()
+    {
+        return (buffer.get(offset + FLAGS_OFFSET) & HAS_PRICE) != 0;
+    }
+
+    public long getPrice()
+    {
+        return buffer.getLong(offset + PRICE_OFFSET);
+    }
+
+    public long getQuantity()
+    {
+        return buffer.getLong(offset + QUANTITY_OFFSET);
+    }
+
+    public Side getSide()
+    {
+        return Side.valueOf(buffer.get(offset + SIDE_OFFSET));
+    }
+
+    public TimeInForce getTimeInForce()
+    {
+        return TimeInForce.valueOf(buffer.get(offset + TIME_IN_FORCE_OFFSET));
+    }
+
+    public String getSymbol()
+    {
+        return getString(SYMBOL);
+    }
+
+    public String getId()
+    {
+        return getString(ID);
+    }
+
+    public String getCancelId()
+    {
+        return getString(REFERENCE_ID);
+    }
+
+    public String getStatusId()
+    {
+        return getString(REFERENCE_ID);
+    }
+
+    public static int symbolHash(final ByteBuffer buffer, final int offset)
+    {
+        final int position = offset + BLOCK_LENGTH;
+        int hash = 0;
+        for(int i = position + 1, limit = i + (buffer.get(position) & 0xff); i < limit; i++) hash = 31 * hash + (buffer.get(i) & 0xff);
+        return hash;
+    }
+
+
+    public PlaceOrderSpecificationOrBuilder asPlaceOrderSpecification()
+    {
+        return placeOrderSpecification;
+    }
+
+    public CancelReplaceOrderSpecificationOrBuilder asCancelReplaceOrderSpecification()
+    {
+        return cancelReplaceOrderSpecification;
+    }
+
+    public CancelOrderSpecificationOrBuilder asCancelOrderSpecification()
+    {
+        return cancelOrderSpecification;
+    }
+
+    public OrderStatusSpecificationOrBuilder asOrderStatusSpecification()
+    {
+        return orderStatusSpecification;
+    }
+
+
+    public PlaceOrderSpecification.Builder mergeTo(final PlaceOrderSpecification.Builder placeOrderSpecification)
+    {
+        placeOrderSpecification.
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setSide(getSide()).
+                setQuantity(getQuantity()).
+                setTimeInForce(getTimeInForce());
+        if(hasPrice()) placeOrderSpecification.setPrice(getPrice());
+        if(hasSymbolId()) placeOrderSpecification.setSymbolId(getSymbolId());
+        return placeOrderSpecification;
+    }
+
+    public CancelReplaceOrderSpecification.Builder mergeTo(final CancelReplaceOrderSpecification.Builder cancelReplaceOrderSpecification)
+    {
+        cancelReplaceOrderSpecification.
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setCancelId(getCancelId()).
+                setPrice(getPrice()).
+                setQuantity(getQuantity());
+        if(hasSymbolId()) cancelReplaceOrderSpecification.setSymbolId(getSymbolId());
+        return cancelReplaceOrderSpecification;
+    }
+
+    public CancelOrderSpecification.Builder mergeTo(final CancelOrderSpecification.Builder cancelOrderSpecification)
+    {
+        cancelOrderSpecification.
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setCancelId(getCancelId());
+        if(hasSymbolId()) cancelOrderSpecification.setSymbolId(getSymbolId());
+        return cancelOrderSpecification;
+    }
+
+    public OrderStatusSpecification.Builder mergeTo(final OrderStatusSpecification.Builder orderStatusSpecification)
+    {
+        orderStatusSpecification.
+                setId(getId()).
+                setAttributionId(getAttributionId()).
+                setSymbol(getSymbol()).
+                setStatusId(getStatusId());
+        if(hasSymbolId()) orderStatusSpecification.setSymbolId(getSymbolId());
+        return orderStatusSpecification;
+    }
+
+
+    public InstructionFlyweight set(final PlaceOrderSpecificationOrBuilder placeOrderSpecification)
+    {
+        setBlock(placeOrderSpecification.getAttributionId(),
+                 placeOrderSpecification.hasSymbolId()? placeOrderSpecification.getSymbolId() : NO_SYMBOL_ID,
+                 placeOrderSpecification.hasPrice(),
+                 placeOrderSpecification.getPrice(),
+                 placeOrderSpecification.getQuantity(),
+                 placeOrderSpecification.getSide().getNumber(),
+                 placeOrderSpecification.getTimeInForce().getNumber());
+        setStrings(placeOrderSpecification.getSymbol(), placeOrderSpecification.getId(), "");
+        return this;
+    }
+
+    public InstructionFlyweight set(final CancelReplaceOrderSpecificationOrBuilder cancelReplaceOrderSpecification)
+    {
+        setBlock(cancelReplaceOrderSpecification.getAttributionId(),
+                 cancelReplaceOrderSpecification.hasSymbolId()? cancelReplaceOrderSpecification.getSymbolId() : NO_SYMBOL_ID,
+                 true,
+                 cancelReplaceOrderSpecification.getPrice(),
+                 cancelReplaceOrderSpecification.getQuantity(),
+                 0,
+                 0);
+        setStrings(cancelReplaceOrderSpecification.getSymbol(), cancelReplaceOrderSpecification.getId(), cancelReplaceOrderSpecification.getCancelId());
+        return this;
+    }
+
+    public InstructionFlyweight set(final CancelOrderSpecificationOrBuilder cancelOrderSpecification)
+    {
+        setBlock(cancelOrderSpecification.getAttributionId(),
+                 cancelOrderSpecification.hasSymbolId()? cancelOrderSpecification.getSymbolId() : NO_SYMBOL_ID,
+                 false,
+                 0,
+                 0,
+                 0,
+                 0);
+        setStrings(cancelOrderSpecification.getSymbol(), cancelOrderSpecification.getId(), cancelOrderSpecification.getCancelId());
+        return this;
+    }
+
+    public InstructionFlyweight set(final OrderStatusSpecificationOrBuilder orderStatusSpecification)
+    {
+        setBlock(orderStatusSpecification.getAttributionId(),
+                 orderStatusSpecification.hasSymbolId()? orderStatusSpecification.getSymbolId() : NO_SYMBOL_ID,
+                 false,
+                 0,
+                 0,
+                 0,
+                 0);
+        setStrings(orderStatusSpecification.getSymbol(), orderStatusSpecification.getId(), orderStatusSpecification.getStatusId());
+        return this;
+    }
+
+
+    public static int encodedLength(final PlaceOrderSpecificationOrBuilder placeOrderSpecification)
+    {
+        return encodedLength(BLOCK_LENGTH, placeOrderSpecification.getSymbol(), placeOrderSpecification.getId(), "");
+    }
+
+    public static int encodedLength(final CancelReplaceOrderSpecificationOrBuilder cancelReplaceOrderSpecification)
+    {
+        return encodedLength(BLOCK_LENGTH, cancelReplaceOrderSpecification.getSymbol(), cancelReplaceOrderSpecification.getId(), cancelReplaceOrderSpecification.getCancelId());
+    }
+
+    public static int encodedLength(final CancelOrderSpecificationOrBuilder cancelOrderSpecification)
+    {
+        return encodedLength(BLOCK_LENGTH, cancelOrderSpecification.getSymbol(), cancelOrderSpecification.getId(), cancelOrderSpecification.getCancelId());
+    }
+
+    public static int encodedLength(final OrderStatusSpecificationOrBuilder orderStatusSpecification)
+    {
+        return encodedLength(BLOCK_LENGTH, orderStatusSpecification.getSymbol(), orderStatusSpecification.getId(), orderStatusSpecification.getStatusId());
+    }
+
+
+    @Override
+    protected int blockLength()
+    {
+        return BLOCK_LENGTH;
+    }
+
+    @Override
+    protected int stringCount()
+    {
+        return 3;
+    }
+
+    private void setBlock(final int attributionId, final int symbolId, final boolean hasPrice, final long price, final long quantity, final int side, final int timeInForce)
+    {
+        buffer.putInt(offset + ATTRIBUTION_ID_OFFSET, attributionId);
+        buffer.putInt(offset + SYMBOL_ID_OFFSET, symbolId);
+        buffer.putLong(offset + PRICE_OFFSET, price);
+        buffer.putLong(offset + QUANTITY_OFFSET, quantity);
+        buffer.put(offset + SIDE_OFFSET, (byte) side);
+        buffer.put(offset + TIME_IN_FORCE_OFFSET, (byte) timeInForce);
+        buffer.put(offset + FLAGS_OFFSET, (byte) (hasPrice? HAS_PRICE : 0));
+    }
+
+    private void setStrings(final String symbol, final String id, final String referenceId)
+    {
+        putString(putString(putString(offset + BLOCK_LENGTH, symbol), id), referenceId);
+    }
+
+
+    private abstract class SpecificationView extends AbstractMessage
+    {
+        public boolean hasId()
+        {
+            return true;
+        }
+
+        public String getId()
+        {
+            return InstructionFlyweight.this.getId();
+        }
+
+        public ByteString getIdBytes()
+        {
+            return ByteString.copyFromUtf8(getId());
+        }
+
+        public boolean hasAttributionId()
+        {
+            return true;
+        }
+
+        public int getAttributionId()
+        {
+            return InstructionFlyweight.this.getAttributionId();
+        }
+
+        public boolean hasSymbol()
+        {
+            return true;
+        }
+
+        public String getSymbol()
+        {
+            return InstructionFlyweight.this.getSymbol();
+        }
+
+        public ByteString getSymbolBytes()
+        {
+            return ByteString.copyFromUtf8(getSymbol());
+        }
+
+        public boolean hasSymbolId()
+        {
+            return InstructionFlyweight.this.hasSymbolId();
+        }
+
+        public int getSymbolId()
+        {
+            return hasSymbolId()? InstructionFlyweight.this.getSymbolId() : 0;
+        }
+
+        protected abstract Message toSpecification();
+
+        @Override
+        public Descriptor getDescriptorForType()
+        {
+            return getDefaultInstanceForType().getDescriptorForType();
+        }
+
+        @Override
+        public Message.Builder newBuilderForType()
+        {
+            return getDefaultInstanceForType().newBuilderForType();
+        }
+
+        @Override
+        public Message.Builder toBuilder()
+        {
+            return toSpecification().toBuilder();
+        }
+
+        @Override
+        public Parser<? extends Message> getParserForType()
+        {
+            return getDefaultInstanceForType().getParserForType();
+        }
+
+        @Override
+        public Map<FieldDescriptor, Object> getAllFields()
+        {
+            return toSpecification().getAllFields();
+        }
+
+        @Override
+        public boolean hasField(final FieldDescriptor field)
+        {
+            return toSpecification().hasField(field);
+        }
+
+        @Override
+        public Object getField(final FieldDescriptor field)
+        {
+            return toSpecification().getField(field);
+        }
+
+        @Override
+        public int getRepeatedFieldCount(final FieldDescriptor field)
+        {
+            return toSpecification().getRepeatedFieldCount(field);
+        }
+
+        @Override
+        public Object getRepeatedField(final FieldDescriptor field, final int index)
+        {
+            return toSpecification().getRepeatedField(field, index);
+        }
+
+        @Override
+        public UnknownFieldSet getUnknownFields()
+        {
+            return UnknownFieldSet.getDefaultInstance();
+        }
+    }
+
+    private class PlaceOrderSpecificationView extends SpecificationView implements PlaceOrderSpecificationOrBuilder
+    {
+        @Override
+        public boolean hasSide()
+        {
+            return true;
+        }
+
+        @Override
+        public Side getSide()
+        {
+            return InstructionFlyweight.this.getSide();
+        }
+
+        @Override
+        public boolean hasPrice()
+        {
+            return InstructionFlyweight.this.hasPrice();
+        }
+
+        @Override
+        public long getPrice()
+        {
+            return InstructionFlyweight.this.getPrice();
+        }
+
+        @Override
+        public boolean hasQuantity()
+        {
+            return true;
+        }
+
+        @Override
+        public long getQuantity()
+        {
+            return InstructionFlyweight.this.getQuantity();
+        }
+
+        @Override
+        public boolean hasTimeInForce()
+        {
+            return true;
+        }
+
+        @Override
+        public TimeInForce getTimeInForce()
+        {
+            return InstructionFlyweight.this.getTimeInForce();
+        }
+
+        @Override
+        public PlaceOrderSpecification getDefaultInstanceForType()
+        {
+            return PlaceOrderSpecification.getDefaultInstance();
+        }
+
+        @Override
+        protected PlaceOrderSpecification toSpecification()
+        {
+            return mergeTo(PlaceOrderSpecification.newBuilder()).buildPartial();
+        }
+    }
+
+    private class CancelReplaceOrderSpecificationView extends SpecificationView implements CancelReplaceOrderSpecificationOrBuilder
+    {
+        @Override
+        public boolean hasCancelId()
+        {
+            return true;
+        }
+
+        @Override
+        public String getCancelId()
+        {
+            return InstructionFlyweight.this.getCancelId();
+        }
+
+        @Override
+        public ByteString getCancelIdBytes()
+        {
+            return ByteString.copyFromUtf8(getCancelId());
+        }
+
+        @Override
+        public boolean hasPrice()
+        {
+            return true;
+        }
+
+        @Override
+        public long getPrice()
+        {
+            return InstructionFlyweight.this.getPrice();
+        }
+
+        @Override
+        public boolean hasQuantity()
+        {
+            return true;
+        }
+
+        @Override
+        public long getQuantity()
+        {
+            return InstructionFlyweight.this.getQuantity();
+        }
+
+        @Override
+        public CancelReplaceOrderSpecification getDefaultInstanceForType()
+        {
+            return CancelReplaceOrderSpecification.getDefaultInstance();
+        }
+
+        @Override
+        protected CancelReplaceOrderSpecification toSpecification()
+        {
+            return mergeTo(CancelReplaceOrderSpecification.newBuilder()).buildPartial();
+        }
+    }
+
+    private class CancelOrderSpecificationView extends SpecificationView implements CancelOrderSpecificationOrBuilder
+    {
+        @Override
+        public boolean hasCancelId()
+        {
+            return true;
+        }
+
+        @Override
+        public String getCancelId()
+        {
+            return InstructionFlyweight.this.getCancelId();
+        }
+
+        @Override
+        public ByteString getCancelIdBytes()
+        {
+            return ByteString.copyFromUtf8(getCancelId());
+        }
+
+        @Override
+        public CancelOrderSpecification getDefaultInstanceForType()
+        {
+            return CancelOrderSpecification.getDefaultInstance();
+        }
+
+        @Override
+        protected CancelOrderSpecification toSpecification()
+        {
+            return mergeTo(CancelOrderSpecification.newBuilder()).buildPartial();
+        }
+    }
+
+    private class OrderStatusSpecificationView extends SpecificationView implements OrderStatusSpecificationOrBuilder
+    {
+        @Override
+        public boolean hasStatusId()
+        {
+            return true;
+        }
+
+        @Override
+        public String getStatusId()
+        {
+            return InstructionFlyweight.this.getStatusId();
+        }
+
+        @Override
+        public ByteString getStatusIdBytes()
+        {
+            return ByteString.copyFromUtf8(getStatusId());
+        }
+
+        @Override
+        public OrderStatusSpecification getDefaultInstanceForType()
+        {
+            return OrderStatusSpecification.getDefaultInstance();
+        }
+
+        @Override
+        protected OrderStatusSpecification toSpecification()
+        {
+            return mergeTo(OrderStatusSpecification.newBuilder()).buildPartial();
+        }
+    }
+}
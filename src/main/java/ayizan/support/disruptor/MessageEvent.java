@@ -1,50 +1,126 @@
 package ayizan.support.disruptor;
 
 import ayizan.message.Messages.Packet;
-import ayizan.message.Messages.PacketOrBuilder;
+import ayizan.support.codec.Encoding;
+import ayizan.support.codec.Flyweight;
+import ayizan.support.codec.InstructionFlyweight;
+import ayizan.support.journal.Journal;
+import ayizan.support.zeromq.ZmqConnector.Publication;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
+import com.google.protobuf.MessageLite;
 import com.lmax.disruptor.EventFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 import static ayizan.util.Exceptions.rethrow;
 import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkState;
 
 public class MessageEvent
 {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int OUTPUT_BUFFER_SIZE = 128;
 
     public static EventFactory<MessageEvent> newEventFactory()
     {
+        return newEventFactory(DEFAULT_CAPACITY);
+    }
+
+    public static EventFactory<MessageEvent> newEventFactory(final int capacity)
+    {
+        checkArgument(capacity > 0, "Invalid capacity '%s'", capacity);
         return new EventFactory<MessageEvent>()
         {
             @Override
             public MessageEvent newInstance()
             {
-                return new MessageEvent();
+                return new MessageEvent(capacity);
             }
         };
     }
 
-    private int type;
-    private ByteString buffer;
+    private int schema;
+    private int partition;
+    private byte[] buffer;
+    private ByteBuffer view;
+    private int length;
+    private long receivedTime;
+    private long invokedTime;
+    private long journalledTime;
+    private long journalledSequence;
+    private CodedOutputStream output;
+    private int outputPosition;
 
-    private MessageEvent()
+    private MessageEvent(final int capacity)
     {
-        this.buffer = null;
+        this.buffer = new byte[capacity];
+        this.view = ByteBuffer.wrap(buffer);
+        this.length = 0;
     }
 
 
     public int type()
     {
-        return type;
+        return Encoding.type(schema);
+    }
+
+    public Encoding encoding()
+    {
+        return Encoding.valueOfSchema(schema);
+    }
+
+    public int partition()
+    {
+        return partition;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    public int capacity()
+    {
+        return buffer.length;
+    }
+
+    public long receivedTime()
+    {
+        return receivedTime;
+    }
+
+    public long invokedTime()
+    {
+        return invokedTime;
+    }
+
+    public long journalledTime()
+    {
+        return journalledTime;
+    }
+
+    public long journalledSequence()
+    {
+        return journalledSequence;
+    }
+
+    public void stamp(final long receivedTime, final long invokedTime)
+    {
+        this.receivedTime = receivedTime;
+        this.invokedTime = invokedTime;
     }
 
 
     public void translateTo(final int type, final Message.Builder message)
     {
-        checkArgument(this.type == type, "Type mismatch '%s' != '%s'", this.type, type);
+        checkArgument(schema == type, "Schema mismatch '%s' != '%s'", schema, type);
         try {
-            message.mergeFrom(buffer);
+            message.clear().mergeFrom(buffer, 0, length);
         }
         catch(final InvalidProtocolBufferException e) {
             throw rethrow(e);
@@ -52,20 +128,91 @@ public class MessageEvent
     }
 
 
+    public <T extends Flyweight<T>> T translateTo(final int type, final T flyweight)
+    {
+        checkArgument(schema == Encoding.BINARY.schema(type), "Schema mismatch '%s' != '%s'", schema, Encoding.BINARY.schema(type));
+        return flyweight.wrap(view, 0);
+    }
+
+
+    public ByteBuffer translateFrom(final int schema, final int length)
+    {
+        this.schema = schema;
+        this.length = length;
+        reserve(length);
+        return view;
+    }
+
     public void translateFrom(final int type, final Message.Builder message)
     {
-        this.type = type;
-        this.buffer = message.build().toByteString();
+        translateFrom(type, message.buildPartial());
+    }
+
+    public void translateFrom(final int type, final MessageLite message)
+    {
+        this.schema = type;
+        this.length = message.getSerializedSize();
+        reserve(length);
+        outputPosition = 0;
+        try {
+            if(output == null) output = CodedOutputStream.newInstance(new SlotOutputStream(), OUTPUT_BUFFER_SIZE);
+            message.writeTo(output);
+            output.flush();
+        }
+        catch(final IOException e) {
+            output = null;
+            throw rethrow(e);
+        }
+        checkState(outputPosition == length, "Serialized length mismatch '%s' != '%s'", outputPosition, length);
     }
 
-    public void translateFrom(final PacketOrBuilder packet)
+    public void translateFrom(final int schema, final ByteBuffer payload, final SymbolPartitioner symbolPartitioner)
     {
-        type = packet.getSchema();
-        buffer = packet.getPayload();
+        this.schema = schema;
+        this.length = payload.remaining();
+        this.journalledTime = 0;
+        payload.get(reserve(length), 0, length);
+        partition = (encoding() == Encoding.BINARY)? symbolPartitioner.partition(InstructionFlyweight.symbolHash(view, 0)) : symbolPartitioner.partition(buffer, length);
     }
 
     public void translateTo(final Packet.Builder packet)
     {
-        packet.setSchema(type).setPayload(buffer);
+        packet.setSchema(schema).setPayload(ByteString.copyFrom(buffer, 0, length));
+    }
+
+    public void translateTo(final Publication publication, final long id)
+    {
+        publication.offer(id, schema, buffer, 0, length);
+    }
+
+    public void translateTo(final Journal journal, final long timestamp) throws IOException
+    {
+        journalledSequence = journal.append(schema, timestamp, buffer, 0, length);
+        journalledTime = timestamp;
+    }
+
+    private byte[] reserve(final int length)
+    {
+        if(buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length << 1)];
+            view = ByteBuffer.wrap(buffer);
+        }
+        return buffer;
+    }
+
+    private class SlotOutputStream extends OutputStream
+    {
+        @Override
+        public void write(final int b)
+        {
+            buffer[outputPosition++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length)
+        {
+            System.arraycopy(bytes, offset, buffer, outputPosition, length);
+            outputPosition += length;
+        }
     }
 }
@@ -1,5 +1,10 @@
 package ayizan.support.disruptor;
 
+import ayizan.domain.Depths.DepthAction;
+import ayizan.domain.Depths.DepthSnapshot;
+import ayizan.domain.Depths.DepthSnapshotOrBuilder;
+import ayizan.domain.Depths.DepthUpdate;
+import ayizan.domain.Depths.DepthUpdateOrBuilder;
 import ayizan.domain.Executions.AcceptExecution;
 import ayizan.domain.Executions.AcceptExecutionOrBuilder;
 import ayizan.domain.Executions.CancelExecution;
@@ -10,72 +15,177 @@ import ayizan.domain.Executions.StatusExecution;
 import ayizan.domain.Executions.StatusExecutionOrBuilder;
 import ayizan.domain.Executions.TradeExecution;
 import ayizan.domain.Executions.TradeExecutionOrBuilder;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.orderbook.OrderBook.LevelVisitor;
+import ayizan.kernel.Affinity;
 import ayizan.kernel.Executors;
-import ayizan.message.Messages.Packet;
-import ayizan.message.Messages.PacketOrBuilder;
+import ayizan.kernel.NamedThreadFactory;
+import ayizan.kernel.metrics.LatencyRecorder;
+import ayizan.kernel.clock.Clock;
 import ayizan.message.exchange.Dictionary.Type;
 import ayizan.message.exchange.Events.AcceptExecutionEvent;
+import ayizan.message.exchange.Events.AddLevelEvent;
 import ayizan.message.exchange.Events.CancelExecutionEvent;
+import ayizan.message.exchange.Events.DeleteLevelEvent;
+import ayizan.message.exchange.Events.DepthSnapshotEvent;
 import ayizan.message.exchange.Events.ReplaceExecutionEvent;
 import ayizan.message.exchange.Events.StatusExecutionEvent;
 import ayizan.message.exchange.Events.TradeExecutionEvent;
+import ayizan.message.exchange.Events.UpdateLevelEvent;
 import ayizan.message.exchange.Instructions.CancelOrderInstruction;
 import ayizan.message.exchange.Instructions.CancelReplaceOrderInstruction;
 import ayizan.message.exchange.Instructions.OrderStatusInstruction;
 import ayizan.message.exchange.Instructions.PlaceOrderInstruction;
 import ayizan.service.ExecutionVenue.ExecutionCallback;
+import ayizan.service.ExecutionVenue.ExecutionWriter;
 import ayizan.service.exchange.Exchange;
+import ayizan.service.exchange.ExchangeMetrics;
+import ayizan.service.exchange.ExecutionBuilder;
+import ayizan.support.codec.Encoding;
+import ayizan.support.codec.ExecutionFlyweight;
+import ayizan.support.codec.InstructionFlyweight;
+import ayizan.support.journal.Journal;
 import ayizan.support.zeromq.ZmqConnector.Publication;
 import ayizan.support.zeromq.ZmqConnector.Subscription;
 import ayizan.support.zeromq.ZmqConnector.Subscription.Notifier;
 import com.google.protobuf.Message.Builder;
 import com.lmax.disruptor.BatchEventProcessor;
-import com.lmax.disruptor.BusySpinWaitStrategy;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.EventProcessor;
-import com.lmax.disruptor.EventTranslatorOneArg;
 import com.lmax.disruptor.EventTranslatorTwoArg;
 import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
 import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutHandler;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
-import static ayizan.kernel.Executors.closeQuietly;
+import static ayizan.io.IO.closeQuietly;
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkState;
 import static ayizan.util.Exceptions.swallow;
 
-public class MessageService implements Closeable
+public class MessageService implements MessageServiceMXBean, Closeable
 {
-    private final ExecutorService executorService;
+    private final ExecutorService matchingExecutorService;
+    private final ExecutorService ioExecutorService;
     private final RingBuffer<MessageEvent> in;
     private final RingBuffer<MessageEvent> out;
     private final SequenceBarrier outSequenceBarrier;
+    private final SymbolPartitioner symbolPartitioner;
     private final Set<EventProcessor> eventProcessors;
+    private final ProducerType inboundProducerType;
+    private final List<LatencyRecorder> latencyRecorders;
+    private final List<ExchangeMetrics> exchangeMetrics;
+    private final boolean latencyRecording;
+    private final Journal journal;
+    private int subscriptions;
+    private int publications;
+
+    public MessageService(final Exchange... exchanges)
+    {
+        this(MessageServiceConfiguration.DEFAULT_CONFIGURATION, null, exchanges);
+    }
 
-    public MessageService(final Exchange exchange)
+    public MessageService(final Journal journal, final Exchange... exchanges)
     {
-        final EventFactory<MessageEvent> eventFactory = MessageEvent.newEventFactory();
+        this(MessageServiceConfiguration.DEFAULT_CONFIGURATION, journal, exchanges);
+    }
+
+    public MessageService(final MessageServiceConfiguration configuration, final Journal journal, final Exchange... exchanges)
+    {
+        checkArgument(exchanges.length > 0, "No exchange partitions");
+        checkArgument(exchanges.length == 1 || configuration.getOutboundProducerType() == ProducerType.MULTI, "Single producer outbound ring with '%s' partitions", exchanges.length);
+        final EventFactory<MessageEvent> eventFactory = MessageEvent.newEventFactory(configuration.getSlotCapacity());
         this.eventProcessors = new HashSet<EventProcessor>();
-        this.executorService = Executors.newExecutor();
-        this.in = RingBuffer.createMultiProducer(eventFactory, 512 * 1024, new BusySpinWaitStrategy());
-        this.out = RingBuffer.createMultiProducer(eventFactory, 1024 * 1024, new BusySpinWaitStrategy());
+        final String[] matchingCpus = (configuration.getMatchingCpus() == null)? null : Affinity.split(configuration.getMatchingCpus());
+        checkArgument(matchingCpus == null || matchingCpus.length >= exchanges.length, "Matching cpu list '%s' has fewer cpus than '%s' partitions", configuration.getMatchingCpus(), exchanges.length);
+        this.matchingExecutorService = Executors.newExecutor(new NamedThreadFactory(configuration.getThreadName() + "-matching", true, Thread.MAX_PRIORITY, null));
+        this.ioExecutorService = Executors.newExecutor(new NamedThreadFactory(configuration.getThreadName() + "-io", true, Thread.NORM_PRIORITY, configuration.getIoCpus()));
+        this.in = RingBuffer.create(configuration.getInboundProducerType(), eventFactory, configuration.getInboundRingSize(), newWaitStrategy(configuration.getInboundWaitStrategy(), configuration.getTimerInterval(TimeUnit.NANOSECONDS)));
+        this.out = RingBuffer.create(configuration.getOutboundProducerType(), eventFactory, configuration.getOutboundRingSize(), configuration.getOutboundWaitStrategy().newWaitStrategy());
         this.outSequenceBarrier = out.newBarrier();
-
-        spawn(new BatchEventProcessor<MessageEvent>(in, in.newBarrier(), new Invoker(exchange, out)));
+        this.symbolPartitioner = new SymbolPartitioner(exchanges.length);
+        this.inboundProducerType = configuration.getInboundProducerType();
+        this.latencyRecorders = new CopyOnWriteArrayList<LatencyRecorder>();
+        this.latencyRecording = configuration.isLatencyRecording();
+        this.exchangeMetrics = new ArrayList<ExchangeMetrics>(exchanges.length);
+        this.journal = journal;
+
+        final SequenceBarrier inSequenceBarrier = (journal == null)? in.newBarrier() : in.newBarrier(journal(in, journal));
+        try {
+            for(int partition = 0; partition < exchanges.length; partition++) {
+                exchangeMetrics.add(exchanges[partition].getMetrics());
+                spawn(matchingExecutorService, (matchingCpus == null)? null : matchingCpus[partition], in, new BatchEventProcessor<MessageEvent>(in, inSequenceBarrier, new Invoker(exchanges[partition], partition, out, configuration.getExecutionEncoding(), newLatencyRecorder("inbound", partition), newLatencyRecorder("matching", partition), snapshotFile(journal, configuration, partition), configuration.getSnapshotInterval(), configuration.getTimerInterval(TimeUnit.NANOSECONDS))));
+            }
+        }
+        catch(final RuntimeException e) {
+            closeQuietly(this);
+            throw e;
+        }
     }
 
     public void subscribe(final Subscription subscription)
     {
-        executorService.submit(new Subscriber(subscription, in));
+        checkState(subscriptions++ == 0 || inboundProducerType == ProducerType.MULTI, "Single producer inbound ring already subscribed");
+        ioExecutorService.submit(new Subscriber(subscription, symbolPartitioner, in, latencyRecording));
     }
 
     public void publish(final Publication publication)
     {
-        spawn(new BatchEventProcessor<MessageEvent>(out, outSequenceBarrier, new Publisher(publication)));
+        final int index = publications++;
+        spawn(ioExecutorService, out, new BatchEventProcessor<MessageEvent>(out, outSequenceBarrier, new Publisher(publication, newLatencyRecorder("publish", index), newLatencyRecorder("end-to-end", index))));
+    }
+
+    public List<LatencyRecorder> getLatencyRecorders()
+    {
+        return Collections.unmodifiableList(latencyRecorders);
+    }
+
+    public List<ExchangeMetrics> getExchangeMetrics()
+    {
+        return Collections.unmodifiableList(exchangeMetrics);
+    }
+
+    @Override
+    public int getInboundBufferSize()
+    {
+        return in.getBufferSize();
+    }
+
+    @Override
+    public long getInboundRemainingCapacity()
+    {
+        return in.remainingCapacity();
+    }
+
+    @Override
+    public int getOutboundBufferSize()
+    {
+        return out.getBufferSize();
+    }
+
+    @Override
+    public long getOutboundRemainingCapacity()
+    {
+        return out.remainingCapacity();
     }
 
     @Override
@@ -83,13 +193,46 @@ public class MessageService implements Closeable
     {
         synchronized(eventProcessors) {
             for(final EventProcessor eventProcessor : eventProcessors) eventProcessor.halt();
-            closeQuietly(executorService);
+            Executors.closeQuietly(ioExecutorService);
+            Executors.closeQuietly(matchingExecutorService);
         }
+        closeQuietly(journal);
+    }
+
+    private Sequence journal(final RingBuffer<MessageEvent> ringBuffer, final Journal journal)
+    {
+        final EventProcessor eventProcessor = new BatchEventProcessor<MessageEvent>(ringBuffer, ringBuffer.newBarrier(), new Journaller(journal));
+        spawn(ioExecutorService, ringBuffer, eventProcessor);
+        return eventProcessor.getSequence();
+    }
+
+    private static WaitStrategy newWaitStrategy(final WaitStrategyType waitStrategyType, final long timerInterval)
+    {
+        return (timerInterval == 0)? waitStrategyType.newWaitStrategy() : waitStrategyType.newWaitStrategy(timerInterval, TimeUnit.NANOSECONDS);
+    }
+
+    private static File snapshotFile(final Journal journal, final MessageServiceConfiguration configuration, final int partition)
+    {
+        return (journal == null || configuration.getSnapshotInterval() == 0)? null : journal.getSnapshotFile(partition);
+    }
+
+    private LatencyRecorder newLatencyRecorder(final String stage, final int index)
+    {
+        if(!latencyRecording) return null;
+        final LatencyRecorder latencyRecorder = new LatencyRecorder(stage + "[" + index + "]");
+        latencyRecorders.add(latencyRecorder);
+        return latencyRecorder;
+    }
+
+    private void spawn(final ExecutorService executorService, final RingBuffer<MessageEvent> ringBuffer, final EventProcessor eventProcessor)
+    {
+        spawn(executorService, null, ringBuffer, eventProcessor);
     }
 
-    private void spawn(final EventProcessor eventProcessor)
+    private void spawn(final ExecutorService executorService, final String cpus, final RingBuffer<MessageEvent> ringBuffer, final EventProcessor eventProcessor)
     {
-        executorService.submit(new Runnable()
+        ringBuffer.addGatingSequences(eventProcessor.getSequence());
+        final Runnable runnable = new Runnable()
         {
             @Override
             public void run()
@@ -104,58 +247,170 @@ public class MessageService implements Closeable
                     synchronized(eventProcessors) {
                         eventProcessors.remove(eventProcessor);
                     }
+                    ringBuffer.removeGatingSequence(eventProcessor.getSequence());
                 }
             }
-        });
+        };
+        if(cpus == null) executorService.submit(runnable);
+        else Affinity.submitPinned(executorService, cpus, runnable);
     }
 
 
-    private static class Invoker implements EventHandler<MessageEvent>
+    private static class Invoker implements EventHandler<MessageEvent>, TimeoutHandler
     {
         private final PlaceOrderInstruction.Builder placeOrderInstruction;
         private final CancelReplaceOrderInstruction.Builder cancelReplaceOrderInstruction;
         private final CancelOrderInstruction.Builder cancelOrderInstruction;
         private final OrderStatusInstruction.Builder orderStatusInstruction;
+        private final InstructionFlyweight instructionFlyweight;
 
         private final Invoker.Callback callback;
         private final Exchange exchange;
-
-        private Invoker(final Exchange exchange, final RingBuffer<MessageEvent> ringBuffer)
+        private final int partition;
+        private final LatencyRecorder inboundLatency;
+        private final LatencyRecorder matchingLatency;
+        private final File snapshotFile;
+        private final long snapshotInterval;
+        private final long timerInterval;
+        private long snapshotSequence;
+        private long timerTime;
+
+        private Invoker(final Exchange exchange,
+                        final int partition,
+                        final RingBuffer<MessageEvent> ringBuffer,
+                        final Encoding executionEncoding,
+                        final LatencyRecorder inboundLatency,
+                        final LatencyRecorder matchingLatency,
+                        final File snapshotFile,
+                        final long snapshotInterval,
+                        final long timerInterval)
         {
             this.placeOrderInstruction =  PlaceOrderInstruction.newBuilder();
             this.cancelReplaceOrderInstruction =  CancelReplaceOrderInstruction.newBuilder();
             this.cancelOrderInstruction =  CancelOrderInstruction.newBuilder();
             this.orderStatusInstruction =  OrderStatusInstruction.newBuilder();
-            this.callback = new Invoker.Callback(ringBuffer);
+            this.instructionFlyweight = new InstructionFlyweight();
+            this.callback = (executionEncoding == Encoding.BINARY)? new Invoker.BinaryCallback(ringBuffer) : new Invoker.Callback(ringBuffer);
             this.exchange = exchange;
+            this.partition = partition;
+            this.inboundLatency = inboundLatency;
+            this.matchingLatency = matchingLatency;
+            this.snapshotFile = snapshotFile;
+            this.snapshotInterval = snapshotInterval;
+            this.timerInterval = timerInterval;
         }
 
 
         @Override
         public void onEvent(final MessageEvent event, final long sequence, final boolean endOfBatch) throws Exception
         {
+            if(event.partition() == partition) onPartitionEvent(event);
+            if(!endOfBatch) return;
+            if(snapshotFile != null && event.journalledSequence() + 1 - snapshotSequence >= snapshotInterval) snapshot(event.journalledSequence() + 1);
+            if(timerInterval != 0) onTimer();
+        }
+
+        @Override
+        public void onTimeout(final long sequence)
+        {
+            onTimer();
+        }
+
+        private void onTimer()
+        {
+            final long now = Clock.now(TimeUnit.NANOSECONDS);
+            if(now - timerTime < timerInterval) return;
+            timerTime = now;
+            if(inboundLatency != null) {
+                final long invokedTime = System.nanoTime();
+                callback.stamp(invokedTime, invokedTime);
+            }
+            exchange.expireSnapshots(callback, now);
+        }
+
+        private void onPartitionEvent(final MessageEvent event)
+        {
+            if(inboundLatency == null) {
+                invoke(event);
+                return;
+            }
+            final long invokedTime = System.nanoTime();
+            inboundLatency.record(invokedTime - event.receivedTime());
+            callback.stamp(event.receivedTime(), invokedTime);
+            invoke(event);
+            matchingLatency.record(System.nanoTime() - invokedTime);
+        }
+
+        private void invoke(final MessageEvent event)
+        {
+            if(event.encoding() == Encoding.BINARY) {
+                onBinaryEvent(event);
+                return;
+            }
             switch(event.type()) {
                 case Type.PLACE_ORDER_INSTRUCTION_VALUE:
                     event.translateTo(Type.PLACE_ORDER_INSTRUCTION_VALUE, placeOrderInstruction);
-                    exchange.placeOrder(placeOrderInstruction.getPlaceOrderOrBuilder(), callback);
+                    exchange.placeOrder(placeOrderInstruction.getPlaceOrderBuilder(), callback, instructionTime(event));
                     return;
                 case Type.CANCEL_REPLACE_ORDER_INSTRUCTION_VALUE:
                     event.translateTo(Type.CANCEL_REPLACE_ORDER_INSTRUCTION_VALUE, cancelReplaceOrderInstruction);
-                    exchange.cancelReplaceOrder(cancelReplaceOrderInstruction.getCancelReplaceOrderOrBuilder(), callback);
+                    exchange.cancelReplaceOrder(cancelReplaceOrderInstruction.getCancelReplaceOrderBuilder(), callback, instructionTime(event));
                     return;
                 case Type.CANCEL_ORDER_INSTRUCTION_VALUE:
                     event.translateTo(Type.CANCEL_ORDER_INSTRUCTION_VALUE, cancelOrderInstruction);
-                    exchange.cancelOrder(cancelOrderInstruction.getCancelOrderOrBuilder(), callback);
+                    exchange.cancelOrder(cancelOrderInstruction.getCancelOrderBuilder(), callback, instructionTime(event));
                     return;
                 case Type.ORDER_STATUS_INSTRUCTION_VALUE:
                     event.translateTo(Type.ORDER_STATUS_INSTRUCTION_VALUE, orderStatusInstruction);
-                    exchange.orderStatus(orderStatusInstruction.getOrderStatusOrBuilder(), callback);
+                    exchange.orderStatus(orderStatusInstruction.getOrderStatusBuilder(), callback, instructionTime(event));
+                    return;
+                default:
+                    throw new UnsupportedOperationException();
+            }
+        }
+
+        private void onBinaryEvent(final MessageEvent event)
+        {
+            switch(event.type()) {
+                case Type.PLACE_ORDER_INSTRUCTION_VALUE:
+                    exchange.placeOrder(event.translateTo(Type.PLACE_ORDER_INSTRUCTION_VALUE, instructionFlyweight).asPlaceOrderSpecification(), callback, instructionTime(event));
+                    return;
+                case Type.CANCEL_REPLACE_ORDER_INSTRUCTION_VALUE:
+                    exchange.cancelReplaceOrder(event.translateTo(Type.CANCEL_REPLACE_ORDER_INSTRUCTION_VALUE, instructionFlyweight).asCancelReplaceOrderSpecification(), callback, instructionTime(event));
+                    return;
+                case Type.CANCEL_ORDER_INSTRUCTION_VALUE:
+                    exchange.cancelOrder(event.translateTo(Type.CANCEL_ORDER_INSTRUCTION_VALUE, instructionFlyweight).asCancelOrderSpecification(), callback, instructionTime(event));
+                    return;
+                case Type.ORDER_STATUS_INSTRUCTION_VALUE:
+                    exchange.orderStatus(event.translateTo(Type.ORDER_STATUS_INSTRUCTION_VALUE, instructionFlyweight).asOrderStatusSpecification(), callback, instructionTime(event));
                     return;
                 default:
                     throw new UnsupportedOperationException();
             }
         }
 
+        private void snapshot(final long sequence) throws IOException
+        {
+            final File file = new File(snapshotFile.getPath() + ".tmp");
+            final FileOutputStream fileOutput = new FileOutputStream(file);
+            try {
+                final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+                exchange.writeSnapshot(output, sequence);
+                output.flush();
+                fileOutput.getFD().sync();
+            }
+            finally {
+                closeQuietly(fileOutput);
+            }
+            checkState(file.renameTo(snapshotFile), "Unable to replace snapshot '%s'", snapshotFile);
+            snapshotSequence = sequence;
+        }
+
+        private static long instructionTime(final MessageEvent event)
+        {
+            return (event.journalledTime() == 0)? Clock.now(TimeUnit.NANOSECONDS) : event.journalledTime();
+        }
+
         private static class Callback implements ExecutionCallback, EventTranslatorTwoArg<MessageEvent, Integer, Builder>
         {
             private final AcceptExecutionEvent.Builder acceptExecutionEvent;
@@ -163,8 +418,14 @@ public class MessageService implements Closeable
             private final ReplaceExecutionEvent.Builder replaceExecutionEvent;
             private final CancelExecutionEvent.Builder cancelExecutionEvent;
             private final StatusExecutionEvent.Builder statusExecutionEvent;
+            private final AddLevelEvent.Builder addLevelEvent;
+            private final UpdateLevelEvent.Builder updateLevelEvent;
+            private final DeleteLevelEvent.Builder deleteLevelEvent;
+            private final DepthSnapshotEvent.Builder depthSnapshotEvent;
 
-            private final RingBuffer<MessageEvent> ringBuffer;
+            protected final RingBuffer<MessageEvent> ringBuffer;
+            protected long receivedTime;
+            protected long invokedTime;
 
             public Callback(final RingBuffer<MessageEvent> ringBuffer)
             {
@@ -173,6 +434,10 @@ public class MessageService implements Closeable
                 this.replaceExecutionEvent = ReplaceExecutionEvent.newBuilder();
                 this.cancelExecutionEvent = CancelExecutionEvent.newBuilder();
                 this.statusExecutionEvent = StatusExecutionEvent.newBuilder();
+                this.addLevelEvent = AddLevelEvent.newBuilder();
+                this.updateLevelEvent = UpdateLevelEvent.newBuilder();
+                this.deleteLevelEvent = DeleteLevelEvent.newBuilder();
+                this.depthSnapshotEvent = DepthSnapshotEvent.newBuilder();
                 this.ringBuffer = ringBuffer;
             }
 
@@ -216,6 +481,33 @@ public class MessageService implements Closeable
                 ringBuffer.publishEvent(this, Type.STATUS_EXECUTION_EVENT_VALUE, statusExecutionEvent);
             }
 
+            @Override
+            public void notify(final DepthUpdateOrBuilder depthUpdate)
+            {
+                switch(depthUpdate.getAction()) {
+                    case ADD_LEVEL:
+                        addLevelEvent.setType(Type.ADD_LEVEL_EVENT).setLevel((DepthUpdate.Builder) depthUpdate);
+                        ringBuffer.publishEvent(this, Type.ADD_LEVEL_EVENT_VALUE, addLevelEvent);
+                        return;
+                    case UPDATE_LEVEL:
+                        updateLevelEvent.setType(Type.UPDATE_LEVEL_EVENT).setLevel((DepthUpdate.Builder) depthUpdate);
+                        ringBuffer.publishEvent(this, Type.UPDATE_LEVEL_EVENT_VALUE, updateLevelEvent);
+                        return;
+                    case DELETE_LEVEL:
+                        deleteLevelEvent.setType(Type.DELETE_LEVEL_EVENT).setLevel((DepthUpdate.Builder) depthUpdate);
+                        ringBuffer.publishEvent(this, Type.DELETE_LEVEL_EVENT_VALUE, deleteLevelEvent);
+                        return;
+                }
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void notify(final DepthSnapshotOrBuilder depthSnapshot)
+            {
+                depthSnapshotEvent.setType(Type.DEPTH_SNAPSHOT_EVENT).setSnapshot((DepthSnapshot.Builder) depthSnapshot);
+                ringBuffer.publishEvent(this, Type.DEPTH_SNAPSHOT_EVENT_VALUE, depthSnapshotEvent);
+            }
+
             @Override
             public void commit()
             {
@@ -224,45 +516,225 @@ public class MessageService implements Closeable
             @Override
             public void translateTo(final MessageEvent event, final long sequence, final Integer type, final Builder message)
             {
+                if(type == Type.DEPTH_SNAPSHOT_EVENT_VALUE) depthSnapshotEvent.getSnapshotBuilder().setSequence(sequence);
                 event.translateFrom(type, message);
+                event.stamp(receivedTime, invokedTime);
+            }
+
+            private void stamp(final long receivedTime, final long invokedTime)
+            {
+                this.receivedTime = receivedTime;
+                this.invokedTime = invokedTime;
+            }
+        }
+
+        private static class BinaryCallback extends Callback implements ExecutionWriter
+        {
+            private final ExecutionFlyweight executionFlyweight;
+            private final ExecutionBuilder depthBuilder;
+            private long sequence;
+
+            public BinaryCallback(final RingBuffer<MessageEvent> ringBuffer)
+            {
+                super(ringBuffer);
+                this.executionFlyweight = new ExecutionFlyweight();
+                this.depthBuilder = new ExecutionBuilder().wrap(this);
+            }
+
+            @Override
+            public void notify(final AcceptExecutionOrBuilder acceptExecution)
+            {
+                final ExecutionFlyweight execution = claimAcceptExecution(ExecutionFlyweight.encodedLength(acceptExecution));
+                try {
+                    execution.set(acceptExecution);
+                }
+                finally {
+                    publish();
+                }
+            }
+
+            @Override
+            public void notify(final TradeExecutionOrBuilder tradeExecution)
+            {
+                final ExecutionFlyweight execution = claimTradeExecution(ExecutionFlyweight.encodedLength(tradeExecution));
+                try {
+                    execution.set(tradeExecution);
+                }
+                finally {
+                    publish();
+                }
+            }
+
+            @Override
+            public void notify(final ReplaceExecutionOrBuilder replaceExecution)
+            {
+                final ExecutionFlyweight execution = claimReplaceExecution(ExecutionFlyweight.encodedLength(replaceExecution));
+                try {
+                    execution.set(replaceExecution);
+                }
+                finally {
+                    publish();
+                }
+            }
+
+            @Override
+            public void notify(final CancelExecutionOrBuilder cancelExecution)
+            {
+                final ExecutionFlyweight execution = claimCancelExecution(ExecutionFlyweight.encodedLength(cancelExecution));
+                try {
+                    execution.set(cancelExecution);
+                }
+                finally {
+                    publish();
+                }
+            }
+
+            @Override
+            public void notify(final StatusExecutionOrBuilder statusExecution)
+            {
+                final ExecutionFlyweight execution = claimStatusExecution(ExecutionFlyweight.encodedLength(statusExecution));
+                try {
+                    execution.set(statusExecution);
+                }
+                finally {
+                    publish();
+                }
+            }
+
+            @Override
+            public ExecutionFlyweight claimAcceptExecution(final int length)
+            {
+                return claim(Type.ACCEPT_EXECUTION_EVENT_VALUE, length);
+            }
+
+            @Override
+            public ExecutionFlyweight claimTradeExecution(final int length)
+            {
+                return claim(Type.TRADE_EXECUTION_EVENT_VALUE, length);
+            }
+
+            @Override
+            public ExecutionFlyweight claimReplaceExecution(final int length)
+            {
+                return claim(Type.REPLACE_EXECUTION_EVENT_VALUE, length);
+            }
+
+            @Override
+            public ExecutionFlyweight claimCancelExecution(final int length)
+            {
+                return claim(Type.CANCEL_EXECUTION_EVENT_VALUE, length);
+            }
+
+            @Override
+            public ExecutionFlyweight claimStatusExecution(final int length)
+            {
+                return claim(Type.STATUS_EXECUTION_EVENT_VALUE, length);
+            }
+
+            @Override
+            public void publish()
+            {
+                ringBuffer.publish(sequence);
+            }
+
+            @Override
+            public void writeDepthUpdate(final String symbol, final long timestampNanos, final DepthAction action, final Side side, final long price, final long quantity, final int orderCount)
+            {
+                depthBuilder.writeDepthUpdate(symbol, timestampNanos, action, side, price, quantity, orderCount);
+            }
+
+            @Override
+            public LevelVisitor claimDepthSnapshot(final String symbol, final long timestampNanos)
+            {
+                return depthBuilder.claimDepthSnapshot(symbol, timestampNanos);
+            }
+
+            @Override
+            public void publishDepthSnapshot()
+            {
+                depthBuilder.publishDepthSnapshot();
+            }
+
+            private ExecutionFlyweight claim(final int type, final int length)
+            {
+                sequence = ringBuffer.next();
+                final MessageEvent event = ringBuffer.get(sequence);
+                event.stamp(receivedTime, invokedTime);
+                return executionFlyweight.wrap(event.translateFrom(Encoding.BINARY.schema(type), length), 0);
             }
         }
     }
 
+    private static class Journaller implements EventHandler<MessageEvent>
+    {
+        private final Journal journal;
+
+        private Journaller(final Journal journal)
+        {
+            this.journal = journal;
+        }
+
+        @Override
+        public void onEvent(final MessageEvent event, final long sequence, final boolean endOfBatch) throws Exception
+        {
+            event.translateTo(journal, Clock.now(TimeUnit.NANOSECONDS));
+            if(endOfBatch) journal.flush();
+        }
+    }
+
     private static class Publisher  implements EventHandler<MessageEvent>
     {
         private final Publication publication;
-        private final Packet.Builder packet;
+        private final LatencyRecorder publishLatency;
+        private final LatencyRecorder endToEndLatency;
 
-        private Publisher(final Publication publication)
+        private Publisher(final Publication publication, final LatencyRecorder publishLatency, final LatencyRecorder endToEndLatency)
         {
-            this.packet = Packet.newBuilder();
             this.publication = publication;
+            this.publishLatency = publishLatency;
+            this.endToEndLatency = endToEndLatency;
         }
 
         @Override
         public void onEvent(final MessageEvent event, final long sequence, final boolean endOfBatch) throws Exception
         {
-            event.translateTo(packet);
-            publication.publish(packet.setId(sequence));
+            event.translateTo(publication, sequence);
+            if(publishLatency != null) {
+                final long publishedTime = System.nanoTime();
+                publishLatency.record(publishedTime - event.invokedTime());
+                endToEndLatency.record(publishedTime - event.receivedTime());
+            }
+            if(endOfBatch) publication.flush();
         }
     }
 
-    private static class Subscriber implements Runnable, Notifier, EventTranslatorOneArg<MessageEvent, PacketOrBuilder>
+    private static class Subscriber implements Runnable, Notifier
     {
         private final Subscription subscription;
+        private final SymbolPartitioner symbolPartitioner;
         private final RingBuffer<MessageEvent> ringBuffer;
+        private final boolean latencyRecording;
 
-        private Subscriber(final Subscription subscription, final RingBuffer<MessageEvent> ringBuffer)
+        private Subscriber(final Subscription subscription, final SymbolPartitioner symbolPartitioner, final RingBuffer<MessageEvent> ringBuffer, final boolean latencyRecording)
         {
             this.subscription = subscription;
+            this.symbolPartitioner = symbolPartitioner;
             this.ringBuffer = ringBuffer;
+            this.latencyRecording = latencyRecording;
         }
 
         @Override
-        public boolean next(final PacketOrBuilder packet)
+        public boolean next(final long id, final int schema, final ByteBuffer payload)
         {
-            ringBuffer.publishEvent(this, packet);
+            final long sequence = ringBuffer.next();
+            try {
+                final MessageEvent event = ringBuffer.get(sequence);
+                event.translateFrom(schema, payload, symbolPartitioner);
+                event.stamp(latencyRecording? System.nanoTime() : 0, 0);
+            }
+            finally {
+                ringBuffer.publish(sequence);
+            }
             return true;
         }
 
@@ -279,12 +751,6 @@ public class MessageService implements Closeable
             }
         }
 
-        @Override
-        public void translateTo(final MessageEvent event, final long sequence, final PacketOrBuilder packet)
-        {
-            event.translateFrom(packet);
-        }
-
         private boolean isAlive()
         {
             return !Thread.currentThread().isInterrupted();
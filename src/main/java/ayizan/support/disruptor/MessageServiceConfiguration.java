@@ -0,0 +1,298 @@
+package ayizan.support.disruptor;
+
+import ayizan.support.codec.Encoding;
+import ayizan.util.Builder;
+import com.lmax.disruptor.dsl.ProducerType;
+
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class MessageServiceConfiguration
+{
+    private static final int DEFAULT_INBOUND_RING_SIZE = 512 * 1024;
+    private static final int DEFAULT_OUTBOUND_RING_SIZE = 1024 * 1024;
+    private static final int DEFAULT_SLOT_CAPACITY = 256;
+    private static final String DEFAULT_THREAD_NAME = "ayizan";
+    private static final String CPU_LIST = "[0-9]+(-[0-9]+)?(,[0-9]+(-[0-9]+)?)*";
+
+    public static final MessageServiceConfiguration DEFAULT_CONFIGURATION = MessageServiceConfigurationBuilder.newBuilder().build();
+
+    private final int inboundRingSize;
+    private final ProducerType inboundProducerType;
+    private final WaitStrategyType inboundWaitStrategy;
+    private final int outboundRingSize;
+    private final ProducerType outboundProducerType;
+    private final WaitStrategyType outboundWaitStrategy;
+    private final int slotCapacity;
+    private final Encoding executionEncoding;
+    private final String threadName;
+    private final String matchingCpus;
+    private final String ioCpus;
+    private final boolean latencyRecording;
+    private final long snapshotInterval;
+    private final long timerInterval;
+
+    private MessageServiceConfiguration(final int inboundRingSize,
+                                        final ProducerType inboundProducerType,
+                                        final WaitStrategyType inboundWaitStrategy,
+                                        final int outboundRingSize,
+                                        final ProducerType outboundProducerType,
+                                        final WaitStrategyType outboundWaitStrategy,
+                                        final int slotCapacity,
+                                        final Encoding executionEncoding,
+                                        final String threadName,
+                                        final String matchingCpus,
+                                        final String ioCpus,
+                                        final boolean latencyRecording,
+                                        final long snapshotInterval,
+                                        final long timerInterval)
+    {
+        this.inboundRingSize = inboundRingSize;
+        this.inboundProducerType = inboundProducerType;
+        this.inboundWaitStrategy = inboundWaitStrategy;
+        this.outboundRingSize = outboundRingSize;
+        this.outboundProducerType = outboundProducerType;
+        this.outboundWaitStrategy = outboundWaitStrategy;
+        this.slotCapacity = slotCapacity;
+        this.executionEncoding = executionEncoding;
+        this.threadName = threadName;
+        this.matchingCpus = matchingCpus;
+        this.ioCpus = ioCpus;
+        this.latencyRecording = latencyRecording;
+        this.snapshotInterval = snapshotInterval;
+        this.timerInterval = timerInterval;
+    }
+
+    public int getInboundRingSize()
+    {
+        return inboundRingSize;
+    }
+
+    public ProducerType getInboundProducerType()
+    {
+        return inboundProducerType;
+    }
+
+    public WaitStrategyType getInboundWaitStrategy()
+    {
+        return inboundWaitStrategy;
+    }
+
+    public int getOutboundRingSize()
+    {
+        return outboundRingSize;
+    }
+
+    public ProducerType getOutboundProducerType()
+    {
+        return outboundProducerType;
+    }
+
+    public WaitStrategyType getOutboundWaitStrategy()
+    {
+        return outboundWaitStrategy;
+    }
+
+    public int getSlotCapacity()
+    {
+        return slotCapacity;
+    }
+
+    public Encoding getExecutionEncoding()
+    {
+        return executionEncoding;
+    }
+
+    public String getThreadName()
+    {
+        return threadName;
+    }
+
+    public String getMatchingCpus()
+    {
+        return matchingCpus;
+    }
+
+    public String getIoCpus()
+    {
+        return ioCpus;
+    }
+
+    public boolean isLatencyRecording()
+    {
+        return latencyRecording;
+    }
+
+    public long getSnapshotInterval()
+    {
+        return snapshotInterval;
+    }
+
+    public long getTimerInterval(final TimeUnit timeUnit)
+    {
+        return timeUnit.convert(timerInterval, TimeUnit.NANOSECONDS);
+    }
+
+
+    public static class MessageServiceConfigurationBuilder implements Builder<MessageServiceConfiguration>
+    {
+        private int inboundRingSize = DEFAULT_INBOUND_RING_SIZE;
+        private ProducerType inboundProducerType = ProducerType.MULTI;
+        private WaitStrategyType inboundWaitStrategy = WaitStrategyType.BUSY_SPIN;
+        private int outboundRingSize = DEFAULT_OUTBOUND_RING_SIZE;
+        private ProducerType outboundProducerType = ProducerType.MULTI;
+        private WaitStrategyType outboundWaitStrategy = WaitStrategyType.BUSY_SPIN;
+        private int slotCapacity = DEFAULT_SLOT_CAPACITY;
+        private Encoding executionEncoding = Encoding.PROTOBUF;
+        private String threadName = DEFAULT_THREAD_NAME;
+        private String matchingCpus;
+        private String ioCpus;
+        private boolean latencyRecording;
+        private long snapshotInterval;
+        private long timerInterval;
+
+        public static MessageServiceConfigurationBuilder newBuilder()
+        {
+            return new MessageServiceConfigurationBuilder();
+        }
+
+        public MessageServiceConfigurationBuilder setInboundRingSize(final int inboundRingSize)
+        {
+            this.inboundRingSize = inboundRingSize;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setInboundProducerType(final ProducerType inboundProducerType)
+        {
+            this.inboundProducerType = inboundProducerType;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setInboundWaitStrategy(final WaitStrategyType inboundWaitStrategy)
+        {
+            this.inboundWaitStrategy = inboundWaitStrategy;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setOutboundRingSize(final int outboundRingSize)
+        {
+            this.outboundRingSize = outboundRingSize;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setOutboundProducerType(final ProducerType outboundProducerType)
+        {
+            this.outboundProducerType = outboundProducerType;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setOutboundWaitStrategy(final WaitStrategyType outboundWaitStrategy)
+        {
+            this.outboundWaitStrategy = outboundWaitStrategy;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setWaitStrategy(final WaitStrategyType waitStrategy)
+        {
+            this.inboundWaitStrategy = waitStrategy;
+            this.outboundWaitStrategy = waitStrategy;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setSlotCapacity(final int slotCapacity)
+        {
+            this.slotCapacity = slotCapacity;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setExecutionEncoding(final Encoding executionEncoding)
+        {
+            this.executionEncoding = executionEncoding;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setThreadName(final String threadName)
+        {
+            this.threadName = threadName;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setMatchingCpus(final String matchingCpus)
+        {
+            this.matchingCpus = matchingCpus;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setIoCpus(final String ioCpus)
+        {
+            this.ioCpus = ioCpus;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setLatencyRecording(final boolean latencyRecording)
+        {
+            this.latencyRecording = latencyRecording;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setSnapshotInterval(final long snapshotInterval)
+        {
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        public MessageServiceConfigurationBuilder setTimerInterval(final long timerInterval, final TimeUnit timeUnit)
+        {
+            this.timerInterval = timeUnit.toNanos(timerInterval);
+            return this;
+        }
+
+        @Override
+        public MessageServiceConfiguration build()
+        {
+            checkArgument(Integer.bitCount(inboundRingSize) == 1, "Inbound ring size '%s' is not a power of 2", inboundRingSize);
+            checkArgument(Integer.bitCount(outboundRingSize) == 1, "Outbound ring size '%s' is not a power of 2", outboundRingSize);
+            checkArgument(slotCapacity > 0, "Invalid slot capacity '%s'", slotCapacity);
+            checkArgument(matchingCpus == null || matchingCpus.matches(CPU_LIST), "Invalid matching cpu list '%s'", matchingCpus);
+            checkArgument(ioCpus == null || ioCpus.matches(CPU_LIST), "Invalid io cpu list '%s'", ioCpus);
+            checkArgument(snapshotInterval >= 0, "Invalid snapshot interval '%s'", snapshotInterval);
+            checkArgument(timerInterval >= 0, "Invalid timer interval '%s'", timerInterval);
+            return new MessageServiceConfiguration(inboundRingSize,
+                                                   checkNotNull(inboundProducerType, "inbound producer type is null"),
+                                                   checkNotNull(inboundWaitStrategy, "inbound wait strategy is null"),
+                                                   outboundRingSize,
+                                                   checkNotNull(outboundProducerType, "outbound producer type is null"),
+                                                   checkNotNull(outboundWaitStrategy, "outbound wait strategy is null"),
+                                                   slotCapacity,
+                                                   checkNotNull(executionEncoding, "execution encoding is null"),
+                                                   checkNotNull(threadName, "thread name is null"),
+                                                   matchingCpus,
+                                                   ioCpus,
+                                                   latencyRecording,
+                                                   snapshotInterval,
+                                                   timerInterval);
+        }
+
+        @Override
+        public MessageServiceConfigurationBuilder clear()
+        {
+            inboundRingSize = DEFAULT_INBOUND_RING_SIZE;
+            inboundProducerType = ProducerType.MULTI;
+            inboundWaitStrategy = WaitStrategyType.BUSY_SPIN;
+            outboundRingSize = DEFAULT_OUTBOUND_RING_SIZE;
+            outboundProducerType = ProducerType.MULTI;
+            outboundWaitStrategy = WaitStrategyType.BUSY_SPIN;
+            slotCapacity = DEFAULT_SLOT_CAPACITY;
+            executionEncoding = Encoding.PROTOBUF;
+            threadName = DEFAULT_THREAD_NAME;
+            matchingCpus = null;
+            ioCpus = null;
+            latencyRecording = false;
+            snapshotInterval = 0;
+            timerInterval = 0;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ayizan.support.disruptor;
+
+public interface MessageServiceMXBean
+{
+    int getInboundBufferSize();
+
+    long getInboundRemainingCapacity();
+
+    int getOutboundBufferSize();
+
+    long getOutboundRemainingCapacity();
+}
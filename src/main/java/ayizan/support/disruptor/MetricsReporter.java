@@ -0,0 +1,102 @@
+package ayizan.support.disruptor;
+
+import ayizan.kernel.clock.Clock;
+import ayizan.service.exchange.ExchangeMetrics;
+import ayizan.service.exchange.SymbolMetrics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.util.Exceptions.swallow;
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class MetricsReporter implements Runnable
+{
+    private static final String DOMAIN = "ayizan";
+
+    private final String name;
+    private final MessageService messageService;
+    private final MBeanServer mBeanServer;
+    private final PrintStream out;
+    private final Map<SymbolMetrics, long[]> previousCounts;
+
+    private long previousTime;
+
+    public MetricsReporter(final String name, final MessageService messageService, final MBeanServer mBeanServer, final PrintStream out)
+    {
+        this.name = checkNotNull(name, "reporter name is null");
+        this.messageService = checkNotNull(messageService, "message service is null");
+        this.mBeanServer = mBeanServer;
+        this.out = checkNotNull(out, "output is null");
+        this.previousCounts = new IdentityHashMap<SymbolMetrics, long[]>();
+        this.previousTime = Clock.now(TimeUnit.NANOSECONDS);
+        register(messageService, "type=MessageService,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public void run()
+    {
+        final long time = Clock.now(TimeUnit.NANOSECONDS);
+        final double seconds = Math.max(1, time - previousTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        previousTime = time;
+
+        out.println(format(name, messageService));
+        final List<ExchangeMetrics> exchangeMetrics = messageService.getExchangeMetrics();
+        for(int partition = 0; partition < exchangeMetrics.size(); partition++) {
+            for(final SymbolMetrics symbolMetrics : exchangeMetrics.get(partition).getSymbolMetrics()) {
+                long[] counts = previousCounts.get(symbolMetrics);
+                if(counts == null) {
+                    previousCounts.put(symbolMetrics, counts = new long[2]);
+                    register(symbolMetrics, "type=SymbolMetrics,name=" + ObjectName.quote(name) + ",partition=" + partition + ",symbol=" + ObjectName.quote(symbolMetrics.getSymbol()));
+                }
+
+                final long instructions = symbolMetrics.getInstructionCount();
+                final long trades = symbolMetrics.getTradeCount();
+                if(instructions > 0) out.println(format(partition, symbolMetrics, (instructions - counts[0]) / seconds, (trades - counts[1]) / seconds));
+                counts[0] = instructions;
+                counts[1] = trades;
+            }
+        }
+    }
+
+    public static String format(final String name, final MessageServiceMXBean messageService)
+    {
+        return String.format("%s inbound=%d/%d outbound=%d/%d",
+                             name,
+                             messageService.getInboundRemainingCapacity(),
+                             messageService.getInboundBufferSize(),
+                             messageService.getOutboundRemainingCapacity(),
+                             messageService.getOutboundBufferSize());
+    }
+
+    public static String format(final int partition, final SymbolMetrics symbolMetrics, final double instructionRate, final double tradeRate)
+    {
+        return String.format("%s[%d] instructions=%d (%.1f/s) trades=%d (%.1f/s) orders=%d bids=%d asks=%d rejects=%s",
+                             symbolMetrics.getSymbol(),
+                             partition,
+                             symbolMetrics.getInstructionCount(),
+                             instructionRate,
+                             symbolMetrics.getTradeCount(),
+                             tradeRate,
+                             symbolMetrics.getRestingOrderCount(),
+                             symbolMetrics.getBidLevelCount(),
+                             symbolMetrics.getAskLevelCount(),
+                             symbolMetrics.getRejectCounts());
+    }
+
+    private void register(final Object mBean, final String properties)
+    {
+        if(mBeanServer == null) return;
+        try {
+            mBeanServer.registerMBean(mBean, new ObjectName(DOMAIN + ":" + properties));
+        }
+        catch(final Exception e) {
+            swallow(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ayizan.support.disruptor;
+
+import com.google.protobuf.ByteString;
+
+import static ayizan.util.Preconditions.checkArgument;
+import static java.lang.Math.min;
+
+public class SymbolPartitioner
+{
+    private static final int SPECIFICATION_FIELD = 2;
+    private static final int SYMBOL_FIELD = 3;
+
+    private static final int WIRETYPE_VARINT = 0;
+    private static final int WIRETYPE_FIXED64 = 1;
+    private static final int WIRETYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRETYPE_FIXED32 = 5;
+
+    private final int partitions;
+
+    public SymbolPartitioner(final int partitions)
+    {
+        checkArgument(partitions > 0, "Invalid partition count '%s'", partitions);
+        this.partitions = partitions;
+    }
+
+    public int partitions()
+    {
+        return partitions;
+    }
+
+    public int partition(final ByteString payload)
+    {
+        return partition(payload.toByteArray(), payload.size());
+    }
+
+    public int partition(final byte[] payload, final int length)
+    {
+        return (partitions == 1)? 0 : partition(symbolHash(payload, length));
+    }
+
+    public int partition(final int symbolHash)
+    {
+        return (symbolHash & Integer.MAX_VALUE) % partitions;
+    }
+
+    public static int symbolHash(final ByteString payload)
+    {
+        return symbolHash(payload.toByteArray(), payload.size());
+    }
+
+    public static int symbolHash(final byte[] payload, final int length)
+    {
+        final int specification = find(payload, 0, length, SPECIFICATION_FIELD);
+        if(specification < 0) return 0;
+
+        final long specificationLength = readVarint(payload, length, specification);
+        final int specificationStart = position(specificationLength);
+        final int symbol = find(payload, specificationStart, limit(length, specificationStart, value(specificationLength)), SYMBOL_FIELD);
+        if(symbol < 0) return 0;
+
+        final long symbolLength = readVarint(payload, length, symbol);
+        int hash = 0;
+        for(int i = position(symbolLength), limit = limit(length, i, value(symbolLength)); i < limit; i++) hash = 31 * hash + (payload[i] & 0xff);
+        return hash;
+    }
+
+    private static int find(final byte[] payload, final int start, final int limit, final int field)
+    {
+        int position = start;
+        while(position < limit) {
+            final long tag = readVarint(payload, limit, position);
+            final int wireType = value(tag) & 7;
+            position = position(tag);
+            if((value(tag) >>> 3) == field && wireType == WIRETYPE_LENGTH_DELIMITED) return position;
+
+            switch(wireType) {
+                case WIRETYPE_VARINT:
+                    position = position(readVarint(payload, limit, position));
+                    break;
+                case WIRETYPE_FIXED64:
+                    position += 8;
+                    break;
+                case WIRETYPE_LENGTH_DELIMITED:
+                    final long length = readVarint(payload, limit, position);
+                    if(value(length) < 0) return -1;
+                    position = position(length) + value(length);
+                    break;
+                case WIRETYPE_FIXED32:
+                    position += 4;
+                    break;
+                default:
+                    return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int limit(final int size, final int position, final int length)
+    {
+        return (length < 0)? position : min(size, position + length);
+    }
+
+    private static long readVarint(final byte[] payload, final int limit, final int start)
+    {
+        long value = 0;
+        int position = start;
+        for(int shift = 0; shift < 64 && position < limit; shift += 7) {
+            final byte b = payload[position++];
+            value |= (long) (b & 0x7f) << shift;
+            if(b >= 0) break;
+        }
+        return ((value & 0xffffffffL) << 32) | position;
+    }
+
+    private static int value(final long varint)
+    {
+        return (int) (varint >>> 32);
+    }
+
+    private static int position(final long varint)
+    {
+        return (int) varint;
+    }
+}
@@ -0,0 +1,49 @@
+package ayizan.support.disruptor;
+
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static ayizan.util.Preconditions.checkArgument;
+
+final class TimeoutWaitStrategy implements WaitStrategy
+{
+    private final long timeout;
+    private final int spinTries;
+    private final int yieldTries;
+
+    TimeoutWaitStrategy(final long timeout, final TimeUnit timeUnit, final int spinTries, final int yieldTries)
+    {
+        checkArgument(timeout > 0, "Invalid wait timeout '%s'", timeout);
+        this.timeout = timeUnit.toNanos(timeout);
+        this.spinTries = spinTries;
+        this.yieldTries = yieldTries;
+    }
+
+    @Override
+    public long waitFor(final long sequence, final Sequence cursor, final Sequence dependentSequence, final SequenceBarrier barrier) throws AlertException, InterruptedException, TimeoutException
+    {
+        long availableSequence = dependentSequence.get();
+        if(availableSequence >= sequence) return availableSequence;
+
+        final long deadline = System.nanoTime() + timeout;
+        for(long tries = 0; (availableSequence = dependentSequence.get()) < sequence; tries++) {
+            barrier.checkAlert();
+            if(System.nanoTime() - deadline >= 0) throw TimeoutException.INSTANCE;
+            if(tries < spinTries) continue;
+            if(tries < (long) spinTries + yieldTries) Thread.yield();
+            else LockSupport.parkNanos(1L);
+        }
+        return availableSequence;
+    }
+
+    @Override
+    public void signalAllWhenBlocking()
+    {
+    }
+}
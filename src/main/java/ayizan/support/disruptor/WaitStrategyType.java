@@ -0,0 +1,89 @@
+package ayizan.support.disruptor;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.PhasedBackoffWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+public enum WaitStrategyType
+{
+    BUSY_SPIN
+    {
+        @Override
+        public WaitStrategy newWaitStrategy()
+        {
+            return new BusySpinWaitStrategy();
+        }
+
+        @Override
+        public WaitStrategy newWaitStrategy(final long timeout, final TimeUnit timeUnit)
+        {
+            return new TimeoutWaitStrategy(timeout, timeUnit, Integer.MAX_VALUE, 0);
+        }
+    },
+    YIELDING
+    {
+        @Override
+        public WaitStrategy newWaitStrategy()
+        {
+            return new YieldingWaitStrategy();
+        }
+
+        @Override
+        public WaitStrategy newWaitStrategy(final long timeout, final TimeUnit timeUnit)
+        {
+            return new TimeoutWaitStrategy(timeout, timeUnit, 100, Integer.MAX_VALUE);
+        }
+    },
+    SLEEPING
+    {
+        @Override
+        public WaitStrategy newWaitStrategy()
+        {
+            return new SleepingWaitStrategy();
+        }
+
+        @Override
+        public WaitStrategy newWaitStrategy(final long timeout, final TimeUnit timeUnit)
+        {
+            return new TimeoutWaitStrategy(timeout, timeUnit, 100, 100);
+        }
+    },
+    BLOCKING
+    {
+        @Override
+        public WaitStrategy newWaitStrategy()
+        {
+            return new BlockingWaitStrategy();
+        }
+
+        @Override
+        public WaitStrategy newWaitStrategy(final long timeout, final TimeUnit timeUnit)
+        {
+            return new TimeoutBlockingWaitStrategy(timeout, timeUnit);
+        }
+    },
+    PHASED_BACKOFF
+    {
+        @Override
+        public WaitStrategy newWaitStrategy()
+        {
+            return PhasedBackoffWaitStrategy.withLock(100, 1000, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public WaitStrategy newWaitStrategy(final long timeout, final TimeUnit timeUnit)
+        {
+            return new TimeoutBlockingWaitStrategy(timeout, timeUnit);
+        }
+    };
+
+    public abstract WaitStrategy newWaitStrategy();
+
+    public abstract WaitStrategy newWaitStrategy(long timeout, TimeUnit timeUnit);
+}
@@ -0,0 +1,217 @@
+package ayizan.support.journal;
+
+import ayizan.kernel.clock.Clock;
+import com.google.protobuf.ByteString;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.io.IO.closeQuietly;
+import static ayizan.util.Preconditions.checkArgument;
+import static ayizan.util.Preconditions.checkNotNull;
+
+public class Journal implements Closeable
+{
+    public enum SyncPolicy { NONE, PERIODIC, EVERY_BATCH }
+
+    static final int RECORD_HEADER_SIZE = 16;
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final long DEFAULT_SYNC_INTERVAL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final File directory;
+    private final int segmentSize;
+    private final SyncPolicy syncPolicy;
+    private final long syncInterval;
+
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private long syncTime;
+    private long syncCount;
+    private long records;
+
+    public Journal(final File directory) throws IOException
+    {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public Journal(final File directory, final int segmentSize) throws IOException
+    {
+        this(directory, segmentSize, SyncPolicy.PERIODIC, DEFAULT_SYNC_INTERVAL, TimeUnit.NANOSECONDS);
+    }
+
+    public Journal(final File directory, final int segmentSize, final SyncPolicy syncPolicy, final long syncInterval, final TimeUnit timeUnit) throws IOException
+    {
+        checkArgument(segmentSize > RECORD_HEADER_SIZE, "Invalid segment size '%s'", segmentSize);
+        checkArgument(syncInterval >= 0, "Invalid sync interval '%s'", syncInterval);
+        checkArgument(directory.isDirectory() || directory.mkdirs(), "Invalid journal directory '%s'", directory);
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncPolicy = checkNotNull(syncPolicy, "sync policy is null");
+        this.syncInterval = timeUnit.toNanos(syncInterval);
+        this.syncTime = Clock.now(TimeUnit.NANOSECONDS);
+
+        final File[] segmentFiles = segmentFiles(directory);
+        for(int i = 0; i < segmentFiles.length - 1; i++) records += count(JournalReader.map(segmentFiles[i]));
+        this.segmentIndex = (segmentFiles.length == 0)? 0 : segmentIndex(segmentFiles[segmentFiles.length - 1]);
+        this.segment = map(segmentFile(directory, segmentIndex), segmentSize);
+        this.records += count(segment);
+        segment.position(end(segment));
+    }
+
+    public long append(final int type, final long timestamp, final ByteString payload) throws IOException
+    {
+        final int position = reserve(type, payload.size());
+        segment.putLong(position + 8, timestamp);
+        payload.copyTo(segment);
+        segment.putInt(position + 4, type);
+        return records++;
+    }
+
+    public long append(final int type, final long timestamp, final byte[] payload, final int offset, final int length) throws IOException
+    {
+        final int position = reserve(type, length);
+        segment.putLong(position + 8, timestamp);
+        segment.put(payload, offset, length);
+        segment.putInt(position + 4, type);
+        return records++;
+    }
+
+    public void flush()
+    {
+        switch(syncPolicy) {
+            case NONE:
+                return;
+            case PERIODIC:
+                if(Clock.now(TimeUnit.NANOSECONDS) - syncTime >= syncInterval) sync();
+                return;
+            case EVERY_BATCH:
+                sync();
+                return;
+        }
+        throw new UnsupportedOperationException();
+    }
+
+    public SyncPolicy getSyncPolicy()
+    {
+        return syncPolicy;
+    }
+
+    public long getRecordCount()
+    {
+        return records;
+    }
+
+    public File getSnapshotFile(final int partition)
+    {
+        return snapshotFile(directory, partition);
+    }
+
+    long getSyncCount()
+    {
+        return syncCount;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if(segment != null) {
+            sync();
+            segment = null;
+        }
+    }
+
+    private void sync()
+    {
+        segment.force();
+        syncTime = Clock.now(TimeUnit.NANOSECONDS);
+        syncCount++;
+    }
+
+    private int reserve(final int type, final int length) throws IOException
+    {
+        checkArgument(type != 0, "Invalid record type '%s'", type);
+        checkArgument(length <= segmentSize - RECORD_HEADER_SIZE, "Record size '%s' exceeds segment size '%s'", length, segmentSize);
+        if(segment.remaining() < RECORD_HEADER_SIZE + length) roll();
+
+        final int position = segment.position();
+        segment.putInt(position, length);
+        segment.position(position + RECORD_HEADER_SIZE);
+        return position;
+    }
+
+    private void roll() throws IOException
+    {
+        sync();
+        segment = map(segmentFile(directory, ++segmentIndex), segmentSize);
+    }
+
+    static File[] segmentFiles(final File directory)
+    {
+        final File[] segmentFiles = directory.listFiles(new FileFilter()
+        {
+            @Override
+            public boolean accept(final File file)
+            {
+                return file.isFile() && file.getName().endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        Arrays.sort(segmentFiles);
+        return segmentFiles;
+    }
+
+    static File segmentFile(final File directory, final long segmentIndex)
+    {
+        return new File(directory, String.format("%016d%s", segmentIndex, SEGMENT_SUFFIX));
+    }
+
+    static File snapshotFile(final File directory, final int partition)
+    {
+        return new File(directory, String.format("%04d%s", partition, SNAPSHOT_SUFFIX));
+    }
+
+    static long segmentIndex(final File segmentFile)
+    {
+        final String name = segmentFile.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static MappedByteBuffer map(final File segmentFile, final int segmentSize) throws IOException
+    {
+        final RandomAccessFile file = new RandomAccessFile(segmentFile, "rw");
+        try {
+            if(file.length() < segmentSize) file.setLength(segmentSize);
+            return file.getChannel().map(MapMode.READ_WRITE, 0, file.length());
+        }
+        finally {
+            closeQuietly(file);
+        }
+    }
+
+    static int end(final MappedByteBuffer segment)
+    {
+        int position = 0;
+        while(position + RECORD_HEADER_SIZE <= segment.limit() && segment.getInt(position + 4) != 0) {
+            position += RECORD_HEADER_SIZE + segment.getInt(position);
+        }
+        return position;
+    }
+
+    static long count(final MappedByteBuffer segment)
+    {
+        long records = 0;
+        for(int position = 0; position + RECORD_HEADER_SIZE <= segment.limit() && segment.getInt(position + 4) != 0; records++) {
+            position += RECORD_HEADER_SIZE + segment.getInt(position);
+        }
+        return records;
+    }
+}
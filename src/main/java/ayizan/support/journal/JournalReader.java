@@ -0,0 +1,60 @@
+package ayizan.support.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+
+import static ayizan.io.IO.closeQuietly;
+import static ayizan.support.journal.Journal.RECORD_HEADER_SIZE;
+import static ayizan.util.Preconditions.checkArgument;
+
+public class JournalReader
+{
+    public interface Handler
+    {
+        void next(int type, long timestamp, ByteBuffer payload) throws Exception;
+    }
+
+    private final File directory;
+
+    public JournalReader(final File directory)
+    {
+        checkArgument(directory.isDirectory(), "Invalid journal directory '%s'", directory);
+        this.directory = directory;
+    }
+
+    public long read(final Handler handler) throws Exception
+    {
+        return read(handler, 0);
+    }
+
+    public long read(final Handler handler, final long fromRecord) throws Exception
+    {
+        long records = 0;
+        for(final File segmentFile : Journal.segmentFiles(directory)) {
+            final MappedByteBuffer segment = map(segmentFile);
+            final ByteBuffer payload = segment.duplicate();
+            for(int position = 0, type; position + RECORD_HEADER_SIZE <= segment.limit() && (type = segment.getInt(position + 4)) != 0; records++) {
+                final int length = segment.getInt(position);
+                payload.limit(position + RECORD_HEADER_SIZE + length).position(position + RECORD_HEADER_SIZE);
+                if(records >= fromRecord) handler.next(type, segment.getLong(position + 8), payload);
+                position += RECORD_HEADER_SIZE + length;
+            }
+        }
+        return records;
+    }
+
+    static MappedByteBuffer map(final File segmentFile) throws IOException
+    {
+        final RandomAccessFile file = new RandomAccessFile(segmentFile, "r");
+        try {
+            return file.getChannel().map(MapMode.READ_ONLY, 0, file.length());
+        }
+        finally {
+            closeQuietly(file);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package ayizan.support.journal;
+
+import ayizan.domain.Depths.DepthSnapshotOrBuilder;
+import ayizan.domain.Depths.DepthUpdateOrBuilder;
+import ayizan.domain.Executions.AcceptExecutionOrBuilder;
+import ayizan.domain.Executions.CancelExecutionOrBuilder;
+import ayizan.domain.Executions.ReplaceExecutionOrBuilder;
+import ayizan.domain.Executions.StatusExecutionOrBuilder;
+import ayizan.domain.Executions.TradeExecutionOrBuilder;
+import ayizan.kernel.clock.Clock;
+import ayizan.kernel.clock.ManualClock;
+import ayizan.message.exchange.Dictionary.Type;
+import ayizan.message.exchange.Instructions.CancelOrderInstruction;
+import ayizan.message.exchange.Instructions.CancelReplaceOrderInstruction;
+import ayizan.message.exchange.Instructions.PlaceOrderInstruction;
+import ayizan.service.ExecutionVenue;
+import ayizan.service.ExecutionVenue.ExecutionCallback;
+import ayizan.service.exchange.Exchange;
+import ayizan.support.codec.Encoding;
+import ayizan.support.codec.InstructionFlyweight;
+import ayizan.support.disruptor.SymbolPartitioner;
+import ayizan.support.journal.JournalReader.Handler;
+import com.google.protobuf.Message.Builder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.io.IO.closeQuietly;
+import static ayizan.util.Preconditions.checkArgument;
+
+public class JournalReplayer implements Handler
+{
+    private static final ExecutionCallback IGNORE_EXECUTIONS = new ExecutionCallback()
+    {
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void notify(final AcceptExecutionOrBuilder acceptExecution)
+        {
+        }
+
+        @Override
+        public void notify(final TradeExecutionOrBuilder tradeExecution)
+        {
+        }
+
+        @Override
+        public void notify(final ReplaceExecutionOrBuilder replaceExecution)
+        {
+        }
+
+        @Override
+        public void notify(final CancelExecutionOrBuilder cancelExecution)
+        {
+        }
+
+        @Override
+        public void notify(final StatusExecutionOrBuilder statusExecution)
+        {
+        }
+
+        @Override
+        public void notify(final DepthUpdateOrBuilder depthUpdate)
+        {
+        }
+
+        @Override
+        public void notify(final DepthSnapshotOrBuilder depthSnapshot)
+        {
+        }
+
+        @Override
+        public void commit()
+        {
+        }
+    };
+
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    private final PlaceOrderInstruction.Builder placeOrderInstruction;
+    private final CancelReplaceOrderInstruction.Builder cancelReplaceOrderInstruction;
+    private final CancelOrderInstruction.Builder cancelOrderInstruction;
+    private final InstructionFlyweight instructionFlyweight;
+
+    private final JournalReader journalReader;
+    private final SymbolPartitioner symbolPartitioner;
+    private final int partition;
+    private final ManualClock clock;
+
+    private ExecutionVenue executionVenue;
+    private ExecutionCallback executionCallback;
+    private byte[] buffer;
+
+    public JournalReplayer(final JournalReader journalReader)
+    {
+        this(journalReader, new SymbolPartitioner(1), 0);
+    }
+
+    public JournalReplayer(final JournalReader journalReader, final SymbolPartitioner symbolPartitioner, final int partition)
+    {
+        checkArgument(partition >= 0 && partition < symbolPartitioner.partitions(), "Invalid partition '%s' of '%s'", partition, symbolPartitioner.partitions());
+        this.placeOrderInstruction = PlaceOrderInstruction.newBuilder();
+        this.cancelReplaceOrderInstruction = CancelReplaceOrderInstruction.newBuilder();
+        this.cancelOrderInstruction = CancelOrderInstruction.newBuilder();
+        this.instructionFlyweight = new InstructionFlyweight();
+        this.journalReader = journalReader;
+        this.symbolPartitioner = symbolPartitioner;
+        this.partition = partition;
+        this.clock = new ManualClock();
+        this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    public long recover(final Exchange exchange, final File snapshotFile) throws Exception
+    {
+        return replay(exchange, IGNORE_EXECUTIONS, snapshotFile.isFile()? readSnapshot(exchange, snapshotFile) : 0);
+    }
+
+    public long replay(final ExecutionVenue executionVenue) throws Exception
+    {
+        return replay(executionVenue, IGNORE_EXECUTIONS);
+    }
+
+    public long replay(final ExecutionVenue executionVenue, final ExecutionCallback executionCallback) throws Exception
+    {
+        return replay(executionVenue, executionCallback, 0);
+    }
+
+    public long replay(final ExecutionVenue executionVenue, final ExecutionCallback executionCallback, final long fromRecord) throws Exception
+    {
+        final Clock systemClock = Clock.getClock();
+        try {
+            this.executionVenue = executionVenue;
+            this.executionCallback = executionCallback;
+            Clock.setClock(clock);
+            return journalReader.read(this, fromRecord);
+        }
+        finally {
+            Clock.setClock(systemClock);
+            this.executionCallback = null;
+            this.executionVenue = null;
+        }
+    }
+
+    @Override
+    public void next(final int type, final long timestamp, final ByteBuffer payload) throws Exception
+    {
+        clock.setTime(timestamp, TimeUnit.NANOSECONDS);
+        if(Encoding.valueOfSchema(type) == Encoding.BINARY) {
+            if(symbolPartitioner.partition(InstructionFlyweight.symbolHash(payload, payload.position())) == partition) nextBinary(Encoding.type(type), instructionFlyweight.wrap(payload, payload.position()));
+            return;
+        }
+        final int length = copy(payload);
+        if(symbolPartitioner.partition(buffer, length) != partition) return;
+        switch(type) {
+            case Type.PLACE_ORDER_INSTRUCTION_VALUE:
+                executionVenue.placeOrder(mergeFrom(placeOrderInstruction, length).getPlaceOrderOrBuilder(), executionCallback);
+                return;
+            case Type.CANCEL_REPLACE_ORDER_INSTRUCTION_VALUE:
+                executionVenue.cancelReplaceOrder(mergeFrom(cancelReplaceOrderInstruction, length).getCancelReplaceOrderOrBuilder(), executionCallback);
+                return;
+            case Type.CANCEL_ORDER_INSTRUCTION_VALUE:
+                executionVenue.cancelOrder(mergeFrom(cancelOrderInstruction, length).getCancelOrderOrBuilder(), executionCallback);
+                return;
+            case Type.ORDER_STATUS_INSTRUCTION_VALUE:
+                return;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private void nextBinary(final int type, final InstructionFlyweight instruction)
+    {
+        switch(type) {
+            case Type.PLACE_ORDER_INSTRUCTION_VALUE:
+                executionVenue.placeOrder(instruction.asPlaceOrderSpecification(), executionCallback);
+                return;
+            case Type.CANCEL_REPLACE_ORDER_INSTRUCTION_VALUE:
+                executionVenue.cancelReplaceOrder(instruction.asCancelReplaceOrderSpecification(), executionCallback);
+                return;
+            case Type.CANCEL_ORDER_INSTRUCTION_VALUE:
+                executionVenue.cancelOrder(instruction.asCancelOrderSpecification(), executionCallback);
+                return;
+            case Type.ORDER_STATUS_INSTRUCTION_VALUE:
+                return;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private static long readSnapshot(final Exchange exchange, final File snapshotFile) throws IOException
+    {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+        try {
+            return exchange.readSnapshot(input);
+        }
+        finally {
+            closeQuietly(input);
+        }
+    }
+
+    private int copy(final ByteBuffer payload)
+    {
+        final int length = payload.remaining();
+        if(buffer.length < length) buffer = new byte[Math.max(length, buffer.length << 1)];
+        payload.get(buffer, 0, length);
+        return length;
+    }
+
+    private <T extends Builder> T mergeFrom(final T message, final int length) throws Exception
+    {
+        message.clear().mergeFrom(buffer, 0, length);
+        return message;
+    }
+}
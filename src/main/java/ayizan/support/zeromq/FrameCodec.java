@@ -0,0 +1,206 @@
+package ayizan.support.zeromq;
+
+import ayizan.message.Messages.PacketOrBuilder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.nio.ByteBuffer;
+
+final class FrameCodec
+{
+    private static final int WIRETYPE_VARINT = 0;
+    private static final int WIRETYPE_FIXED64 = 1;
+    private static final int WIRETYPE_LENGTH_DELIMITED = 2;
+    private static final int WIRETYPE_FIXED32 = 5;
+
+    private static final int FRAME_PACKET_FIELD = 1;
+    private static final int ID_FIELD = 1;
+    private static final int SCHEMA_FIELD = 2;
+    private static final int HEADER_FIELD = 3;
+    private static final int PAYLOAD_FIELD = 4;
+
+    private FrameCodec() {}
+
+    public static int entrySize(final int packetSize)
+    {
+        return 1 + CodedOutputStream.computeRawVarint32Size(packetSize) + packetSize;
+    }
+
+    public static int packetSize(final PacketOrBuilder packet)
+    {
+        int size = CodedOutputStream.computeInt64Size(ID_FIELD, packet.getId()) + CodedOutputStream.computeInt32Size(SCHEMA_FIELD, packet.getSchema());
+        for(int i = 0; i < packet.getHeaderCount(); i++) size += CodedOutputStream.computeMessageSize(HEADER_FIELD, packet.getHeader(i));
+        if(packet.hasPayload()) size += CodedOutputStream.computeBytesSize(PAYLOAD_FIELD, packet.getPayload());
+        return size;
+    }
+
+    public static int packetSize(final long id, final int schema, final int payloadLength)
+    {
+        return CodedOutputStream.computeInt64Size(ID_FIELD, id) +
+               CodedOutputStream.computeInt32Size(SCHEMA_FIELD, schema) +
+               CodedOutputStream.computeTagSize(PAYLOAD_FIELD) + CodedOutputStream.computeRawVarint32Size(payloadLength) + payloadLength;
+    }
+
+    public static void putPacket(final ByteBuffer buffer, final PacketOrBuilder packet, final int packetSize)
+    {
+        putPacketHeader(buffer, packet.getId(), packet.getSchema(), packetSize);
+        for(int i = 0; i < packet.getHeaderCount(); i++) {
+            final ByteString header = packet.getHeader(i).toByteString();
+            putTag(buffer, HEADER_FIELD, WIRETYPE_LENGTH_DELIMITED);
+            putRawVarint64(buffer, header.size());
+            header.copyTo(buffer);
+        }
+        if(packet.hasPayload()) {
+            putTag(buffer, PAYLOAD_FIELD, WIRETYPE_LENGTH_DELIMITED);
+            putRawVarint64(buffer, packet.getPayload().size());
+            packet.getPayload().copyTo(buffer);
+        }
+    }
+
+    public static void putPacket(final ByteBuffer buffer, final long id, final int schema, final byte[] payload, final int offset, final int length)
+    {
+        putPacketHeader(buffer, id, schema, packetSize(id, schema, length));
+        putTag(buffer, PAYLOAD_FIELD, WIRETYPE_LENGTH_DELIMITED);
+        putRawVarint64(buffer, length);
+        buffer.put(payload, offset, length);
+    }
+
+    public static int getPacketLimit(final ByteBuffer buffer) throws InvalidProtocolBufferException
+    {
+        final long tag = getRawVarint64(buffer);
+        if(tag != ((FRAME_PACKET_FIELD << 3) | WIRETYPE_LENGTH_DELIMITED)) throw new InvalidProtocolBufferException("Invalid frame tag " + tag);
+        return getLimit(buffer);
+    }
+
+    public static PacketView getPacket(final ByteBuffer buffer, final int limit, final PacketView packet) throws InvalidProtocolBufferException
+    {
+        packet.wrap(buffer);
+        while(buffer.position() < limit) {
+            final int fieldTag = (int) getRawVarint64(buffer);
+            switch(fieldTag) {
+                case (ID_FIELD << 3) | WIRETYPE_VARINT:
+                    packet.id = getRawVarint64(buffer);
+                    break;
+                case (SCHEMA_FIELD << 3) | WIRETYPE_VARINT:
+                    packet.schema = (int) getRawVarint64(buffer);
+                    break;
+                case (PAYLOAD_FIELD << 3) | WIRETYPE_LENGTH_DELIMITED:
+                    final int payloadLimit = getLimit(buffer);
+                    packet.payload.limit(payloadLimit);
+                    packet.payload.position(buffer.position());
+                    buffer.position(payloadLimit);
+                    break;
+                default:
+                    skipField(buffer, fieldTag);
+            }
+        }
+        if(buffer.position() != limit) throw new InvalidProtocolBufferException("Truncated packet");
+        return packet;
+    }
+
+    private static void putPacketHeader(final ByteBuffer buffer, final long id, final int schema, final int packetSize)
+    {
+        putTag(buffer, FRAME_PACKET_FIELD, WIRETYPE_LENGTH_DELIMITED);
+        putRawVarint64(buffer, packetSize);
+        putTag(buffer, ID_FIELD, WIRETYPE_VARINT);
+        putRawVarint64(buffer, id);
+        putTag(buffer, SCHEMA_FIELD, WIRETYPE_VARINT);
+        putRawVarint64(buffer, schema);
+    }
+
+    private static void putTag(final ByteBuffer buffer, final int field, final int wireType)
+    {
+        buffer.put((byte) ((field << 3) | wireType));
+    }
+
+    private static void putRawVarint64(final ByteBuffer buffer, final long value)
+    {
+        long remaining = value;
+        while((remaining & ~0x7fL) != 0) {
+            buffer.put((byte) ((remaining & 0x7f) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    private static long getRawVarint64(final ByteBuffer buffer) throws InvalidProtocolBufferException
+    {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            if(!buffer.hasRemaining()) throw new InvalidProtocolBufferException("Truncated varint");
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if(b >= 0) return value;
+        }
+        throw new InvalidProtocolBufferException("Malformed varint");
+    }
+
+    private static int getLimit(final ByteBuffer buffer) throws InvalidProtocolBufferException
+    {
+        final long length = getRawVarint64(buffer);
+        if(length < 0 || length > buffer.remaining()) throw new InvalidProtocolBufferException("Invalid length " + length);
+        return buffer.position() + (int) length;
+    }
+
+    private static void skipField(final ByteBuffer buffer, final int fieldTag) throws InvalidProtocolBufferException
+    {
+        switch(fieldTag & 7) {
+            case WIRETYPE_VARINT:
+                getRawVarint64(buffer);
+                return;
+            case WIRETYPE_FIXED64:
+                skip(buffer, 8);
+                return;
+            case WIRETYPE_LENGTH_DELIMITED:
+                buffer.position(getLimit(buffer));
+                return;
+            case WIRETYPE_FIXED32:
+                skip(buffer, 4);
+                return;
+            default:
+                throw new InvalidProtocolBufferException("Invalid wire type " + (fieldTag & 7));
+        }
+    }
+
+    private static void skip(final ByteBuffer buffer, final int length) throws InvalidProtocolBufferException
+    {
+        if(length > buffer.remaining()) throw new InvalidProtocolBufferException("Truncated field");
+        buffer.position(buffer.position() + length);
+    }
+
+
+    static final class PacketView
+    {
+        private ByteBuffer buffer;
+        private ByteBuffer payload;
+        private long id;
+        private int schema;
+
+        public long getId()
+        {
+            return id;
+        }
+
+        public int getSchema()
+        {
+            return schema;
+        }
+
+        public ByteBuffer getPayload()
+        {
+            return payload;
+        }
+
+        private void wrap(final ByteBuffer buffer)
+        {
+            if(this.buffer != buffer) {
+                this.buffer = buffer;
+                this.payload = buffer.duplicate();
+            }
+            payload.limit(0);
+            id = 0;
+            schema = 0;
+        }
+    }
+}
@@ -1,42 +1,63 @@
 package ayizan.support.zeromq;
 
+import ayizan.kernel.Affinity;
+import ayizan.kernel.NamedThreadFactory;
 import ayizan.message.Messages.Packet;
 import ayizan.message.Messages.PacketOrBuilder;
+import ayizan.support.zeromq.FrameCodec.PacketView;
+import com.google.protobuf.InvalidProtocolBufferException;
 import org.zeromq.ZMQ;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
 
 import static ayizan.util.Exceptions.swallow;
 
 public class ZmqConnector implements Closeable
 {
     private static final byte[] ALL_TOPICS = new byte[0];
-    private static final int MAX_FRAME_SIZE = 1500;
+    private static final int SEGMENT_SIZE = 1500;
+    private static final String CONTEXT_THREAD_NAME = "ayizan-zmq-context";
 
     private final ZMQ.Context context;
 
     //TODO: pass in network configuration & wait policy
     public ZmqConnector()
     {
-        this.context = ZMQ.context(1);
+        this(null);
+    }
+
+    public ZmqConnector(final String ioCpus)
+    {
+        this.context = (ioCpus == null)? ZMQ.context(1) : context(ioCpus);
     }
 
     public Subscription subscribe(final ZmqTopic topic)
+    {
+        return subscribe(topic, false);
+    }
+
+    public Subscription subscribe(final ZmqTopic topic, final boolean direct)
     {
         final ZMQ.Socket socket = context.socket(ZMQ.SUB);
         socket.bind(topic.getUri());
         socket.subscribe(ALL_TOPICS);
-        return new Subscription(socket);
+        return new Subscription(socket, allocate(direct));
     }
 
 
     public Publication publish(final ZmqTopic topic)
+    {
+        return publish(topic, false);
+    }
+
+    public Publication publish(final ZmqTopic topic, final boolean direct)
     {
         final ZMQ.Socket socket = context.socket(ZMQ.PUB);
         socket.connect(topic.getUri());
-        return new Publication(socket);
+        return new Publication(socket, allocate(direct));
     }
 
     @Override
@@ -46,42 +67,73 @@ public class ZmqConnector implements Closeable
         context.term();
     }
 
+    private static ZMQ.Context context(final String ioCpus)
+    {
+        return Affinity.callPinned(new NamedThreadFactory(CONTEXT_THREAD_NAME), ioCpus, new Callable<ZMQ.Context>()
+        {
+            @Override
+            public ZMQ.Context call()
+            {
+                final ZMQ.Context context = ZMQ.context(1);
+                context.socket(ZMQ.SUB).close();
+                return context;
+            }
+        });
+    }
+
     public static class Subscription implements Closeable
     {
         private final ZMQ.Socket socket;
-        private final Packet.Builder packet;
-        private final byte[] buffer;
+        private final PacketView packet;
+        private ByteBuffer buffer;
+        private long decodeErrorCount;
 
         public interface Notifier
         {
-            boolean next(PacketOrBuilder packet);
+            boolean next(long id, int schema, ByteBuffer payload);
         }
 
-        private Subscription(final ZMQ.Socket socket)
+        private Subscription(final ZMQ.Socket socket, final ByteBuffer buffer)
         {
-            this.buffer = new byte[MAX_FRAME_SIZE];
-            this.packet = Packet.newBuilder();
+            this.buffer = (ByteBuffer) buffer.limit(0);
+            this.packet = new PacketView();
             this.socket = socket;
         }
 
+        public long getDecodeErrorCount()
+        {
+            return decodeErrorCount;
+        }
+
         public void receive(final Notifier notifier) throws IOException
         {
             int waitPolicy = 0;
             do {
-                final int length = socket.recv(buffer, 0, MAX_FRAME_SIZE, waitPolicy);
-                if(length <= 0) break;
-                else {
+                while(buffer.hasRemaining()) {
+                    waitPolicy = ZMQ.DONTWAIT;
+                    final int limit;
                     try {
-                        packet.mergeFrom(buffer, 0, length);
-                        waitPolicy = ZMQ.DONTWAIT;
+                        limit = FrameCodec.getPacketLimit(buffer);
                     }
-                    catch(final Throwable throwable) {
-                        swallow(throwable);
-                        break;
+                    catch(final InvalidProtocolBufferException e) {
+                        decodeErrorCount++;
+                        swallow(e);
+                        buffer.limit(0);
+                        return;
                     }
+                    try {
+                        FrameCodec.getPacket(buffer, limit, packet);
+                    }
+                    catch(final InvalidProtocolBufferException e) {
+                        decodeErrorCount++;
+                        swallow(e);
+                        buffer.position(limit);
+                        continue;
+                    }
+                    if(!notifier.next(packet.getId(), packet.getSchema(), packet.getPayload())) return;
                 }
             }
-            while(notifier.next(packet));
+            while(receiveFrame(waitPolicy));
         }
 
         @Override
@@ -89,25 +141,89 @@ public class ZmqConnector implements Closeable
         {
             socket.close();
         }
+
+        private boolean receiveFrame(final int waitPolicy)
+        {
+            buffer.clear();
+            try {
+                int flags = waitPolicy;
+                do {
+                    if(buffer.remaining() < SEGMENT_SIZE) buffer = grow(buffer, buffer.position() + SEGMENT_SIZE);
+                    final int position = buffer.position();
+                    final int length = buffer.isDirect()? socket.recvByteBuffer((ByteBuffer) buffer.limit(position + SEGMENT_SIZE), flags) : socket.recv(buffer.array(), buffer.arrayOffset() + position, SEGMENT_SIZE, flags);
+                    if(length <= 0 || length > SEGMENT_SIZE) {
+                        if(length > SEGMENT_SIZE) decodeErrorCount++;
+                        discard();
+                        return false;
+                    }
+                    buffer.limit(buffer.capacity()).position(position + length);
+                    flags = 0;
+                }
+                while(socket.hasReceiveMore());
+            }
+            catch(final Throwable throwable) {
+                swallow(throwable);
+                discard();
+                return false;
+            }
+            buffer.flip();
+            return true;
+        }
+
+        private void discard()
+        {
+            buffer.limit(0);
+            while(socket.hasReceiveMore()) socket.recv(0);
+        }
     }
 
 
     public static class Publication implements Closeable
     {
         private final ZMQ.Socket socket;
-        private final ByteBuffer buffer;
+        private ByteBuffer buffer;
 
         public Publication(final ZMQ.Socket socket)
         {
-            this.buffer = ByteBuffer.allocate(MAX_FRAME_SIZE);
+            this(socket, allocate(false));
+        }
+
+        public Publication(final ZMQ.Socket socket, final ByteBuffer buffer)
+        {
+            this.buffer = (ByteBuffer) buffer.clear();
             this.socket = socket;
         }
 
         public void publish(final Packet.Builder packet)
         {
-            packet.build().toByteString().copyTo((ByteBuffer) buffer.clear());
-            //socket.sendZeroCopy(buffer, buffer.position(), 0); //Requires DirectByteBuffer
-            socket.send(buffer.array(), buffer.arrayOffset(), buffer.position(), 0);
+            offer(packet);
+            flush();
+        }
+
+        public void offer(final PacketOrBuilder packet)
+        {
+            final int packetSize = FrameCodec.packetSize(packet);
+            reserve(FrameCodec.entrySize(packetSize));
+            FrameCodec.putPacket(buffer, packet, packetSize);
+        }
+
+        public void offer(final long id, final int schema, final byte[] payload, final int offset, final int length)
+        {
+            reserve(FrameCodec.entrySize(FrameCodec.packetSize(id, schema, length)));
+            FrameCodec.putPacket(buffer, id, schema, payload, offset, length);
+        }
+
+        public void flush()
+        {
+            if(buffer.position() == 0) return;
+            final int length = buffer.position();
+            for(int position = 0; position < length; position += SEGMENT_SIZE) {
+                final int limit = Math.min(length, position + SEGMENT_SIZE);
+                final int flags = (limit < length)? ZMQ.SNDMORE : 0;
+                if(buffer.isDirect()) socket.sendByteBuffer((ByteBuffer) buffer.limit(limit).position(position), flags);
+                else socket.send(buffer.array(), buffer.arrayOffset() + position, limit - position, flags);
+            }
+            buffer.clear();
         }
 
         @Override
@@ -115,5 +231,28 @@ public class ZmqConnector implements Closeable
         {
             socket.close();
         }
+
+        private void reserve(final int entrySize)
+        {
+            if(buffer.position() > 0 && buffer.position() + entrySize > SEGMENT_SIZE) flush();
+            if(entrySize > buffer.remaining()) buffer = grow(buffer, buffer.position() + entrySize);
+        }
+    }
+
+    private static ByteBuffer allocate(final boolean direct)
+    {
+        return allocate(direct, SEGMENT_SIZE);
+    }
+
+    private static ByteBuffer allocate(final boolean direct, final int capacity)
+    {
+        return direct? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static ByteBuffer grow(final ByteBuffer buffer, final int capacity)
+    {
+        final ByteBuffer grownBuffer = allocate(buffer.isDirect(), Math.max(capacity, buffer.capacity() << 1));
+        buffer.flip();
+        return grownBuffer.put(buffer);
     }
 }
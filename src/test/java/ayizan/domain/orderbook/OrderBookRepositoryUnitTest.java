@@ -0,0 +1,82 @@
+package ayizan.domain.orderbook;
+
+import ayizan.domain.Instruments.InstrumentSpecification;
+import ayizan.domain.orderbook.OrderBookRepository.OrderBookFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static ayizan.domain.orderbook.OrderBookRepository.UNKNOWN_SYMBOL_ID;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderBookRepositoryUnitTest
+{
+    private static final InstrumentSpecification INSTRUMENT_1 = InstrumentSpecification.newBuilder().setSymbol("XXX.GOOG").build();
+    private static final InstrumentSpecification INSTRUMENT_2 = InstrumentSpecification.newBuilder().setSymbol("XXX.AAPL").build();
+
+    @Mock
+    private OrderBookFactory orderBookFactory;
+    @Mock
+    private OrderBook orderBook;
+
+    private OrderBookRepository orderBookRepository;
+
+    @Before
+    public void setUp()
+    {
+        orderBookRepository = new OrderBookRepository(orderBookFactory, 1);
+    }
+
+    @Test
+    public void registeredInstrumentsResolvedToSymbolIds()
+    {
+        for(int i = 0; i < 100; i++) orderBookRepository.register(InstrumentSpecification.newBuilder().setSymbol("XXX." + i).build());
+
+        assertThat(orderBookRepository.size(), equalTo(100));
+        for(int i = 0; i < 100; i++) {
+            final int symbolId = orderBookRepository.lookupSymbolId("XXX." + i);
+            assertThat(symbolId, equalTo(i));
+            assertThat(orderBookRepository.lookupInstrument(symbolId).getSymbol(), equalTo("XXX." + i));
+        }
+        assertThat(orderBookRepository.lookupSymbolId("XXX.UNKNOWN"), equalTo(UNKNOWN_SYMBOL_ID));
+    }
+
+    @Test
+    public void orderBookCreatedLazilyOnce()
+    {
+        orderBookRepository.register(INSTRUMENT_1);
+        final int symbolId = orderBookRepository.register(INSTRUMENT_2);
+        doReturn(orderBook).when(orderBookFactory).newInstance(INSTRUMENT_2);
+        verifyZeroInteractions(orderBookFactory);
+
+        assertThat(orderBookRepository.lookup(symbolId), sameInstance(orderBook));
+        assertThat(orderBookRepository.lookup(INSTRUMENT_2.getSymbol()), sameInstance(orderBook));
+        verify(orderBookFactory).newInstance(INSTRUMENT_2);
+    }
+
+    @Test
+    public void unknownSymbolResolvedToNoOrderBook()
+    {
+        orderBookRepository.register(INSTRUMENT_1);
+
+        assertThat(orderBookRepository.lookup("XXX.UNKNOWN"), nullValue());
+        assertThat(orderBookRepository.lookup(1), nullValue());
+        assertThat(orderBookRepository.lookup(UNKNOWN_SYMBOL_ID), nullValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateInstrumentRejected()
+    {
+        orderBookRepository.register(INSTRUMENT_1);
+        orderBookRepository.register(INSTRUMENT_1.toBuilder().setTickSize(0.5).build());
+    }
+}
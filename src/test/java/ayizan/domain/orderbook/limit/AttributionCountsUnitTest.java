@@ -0,0 +1,23 @@
+package ayizan.domain.orderbook.limit;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class AttributionCountsUnitTest
+{
+    private final AttributionCounts attributionCounts = new AttributionCounts();
+
+    @Test
+    public void countsKeptPerAttributionAcrossResize()
+    {
+        for(int attributionId = 0; attributionId < 100; attributionId++) attributionCounts.add(attributionId, attributionId + 1);
+        attributionCounts.add(42, -43);
+
+        assertThat(attributionCounts.get(0), equalTo(1));
+        assertThat(attributionCounts.get(42), equalTo(0));
+        assertThat(attributionCounts.get(99), equalTo(100));
+        assertThat(attributionCounts.get(100), equalTo(0));
+    }
+}
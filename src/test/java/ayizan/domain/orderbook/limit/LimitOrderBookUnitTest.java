@@ -1,5 +1,6 @@
 package ayizan.domain.orderbook.limit;
 
+import ayizan.domain.Executions.RejectReason;
 import ayizan.domain.Instruments.InstrumentSpecification;
 import ayizan.domain.Orders.Side;
 import ayizan.domain.Orders.TimeInForce;
@@ -7,6 +8,7 @@ import ayizan.domain.Identifier;
 import ayizan.domain.Sides;
 import ayizan.domain.orderbook.Order;
 import ayizan.domain.orderbook.OrderBook;
+import ayizan.domain.orderbook.limit.LimitOrderBook.LimitOrderBookBuilder;
 import ayizan.test.matcher.OrderMatcher.OrderMatcherBuilder;
 import org.hamcrest.Matcher;
 import org.junit.Before;
@@ -16,8 +18,15 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
 import static ayizan.domain.StandardUnits.toLots;
 import static ayizan.domain.StandardUnits.toTicks;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
@@ -40,6 +49,8 @@ public class LimitOrderBookUnitTest
     private static final Identifier ID_1 = new Identifier("1", 1);
     private static final Identifier ID_2 = new Identifier("2", 2);
     private static final Identifier ID_3 = new Identifier("3", 3);
+    private static final Identifier ID_4 = new Identifier("4", 4);
+    private static final int ORDER_RECORD_LENGTH = 2 + 1 + 4 + 8 + 1 + 1 + 8 + 8 + 8 + 8;
 
     @Mock
     private OrderBook.Matcher orderMatcher;
@@ -148,6 +159,128 @@ public class LimitOrderBookUnitTest
                      equalsSellOrder(101.0, 2.0).setIdentifier(ID_2).build());
     }
 
+    @Test
+    public void buyOrdersInPriceTimePriorityOrderWithLadder()
+    {
+        limitOrderBook = ladderOrderBook();
+        setupOrder(ID_1, Side.BUY, 99.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_2, Side.BUY, 100.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_3, Side.BUY, 99.5, 3.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        limitOrderBook.execute(Side.SELL, allOrderMatcher());
+        limitOrderBook.commit();
+
+        verifyOrders(equalsBuyOrder(100.0, 2.0).setIdentifier(ID_2).build(),
+                     equalsBuyOrder(99.5, 3.0).setIdentifier(ID_3).build(),
+                     equalsBuyOrder(99.0, 1.0).setIdentifier(ID_1).build());
+    }
+
+    @Test
+    public void sellOrdersInPriceTimePriorityOrderWithRecentredLadder()
+    {
+        limitOrderBook = ladderOrderBook();
+        setupOrder(ID_1, Side.SELL, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_2, Side.SELL, 110.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_3, Side.SELL, 90.0, 3.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        limitOrderBook.execute(Side.BUY, allOrderMatcher());
+        limitOrderBook.commit();
+
+        verifyOrders(equalsSellOrder(90.0, 3.0).setIdentifier(ID_3).build(),
+                     equalsSellOrder(100.0, 1.0).setIdentifier(ID_1).build(),
+                     equalsSellOrder(110.0, 2.0).setIdentifier(ID_2).build());
+    }
+
+    @Test
+    public void offTickBuyOrderRejectedWithLadder()
+    {
+        limitOrderBook = ladderOrderBook();
+        final Order order = limitOrderBook.accept(ID_1, Side.BUY, toTicks(100.005), toLots(1.0), 0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.commit();
+
+        assertThat(order.getRejectReason(), equalTo(RejectReason.INVALID_PRICE));
+    }
+
+    @Test
+    public void buyOrderBeyondMaximumLadderSpanRejected()
+    {
+        limitOrderBook = LimitOrderBookBuilder.newBuilder().
+                setInstrument(INSTRUMENT).
+                setLadderSize(64).
+                setMaxLadderSize(128).
+                build();
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        final Order farOrder = limitOrderBook.accept(ID_2, Side.BUY, toTicks(102.0), toLots(1.0), 0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.commit();
+        assertThat(farOrder.getRejectReason(), equalTo(RejectReason.INVALID_PRICE));
+
+        setupOrder(ID_3, Side.BUY, 101.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        assertThat(limitOrderBook.getLevelCount(Side.BUY), equalTo(2));
+
+        limitOrderBook.execute(Side.SELL, allOrderMatcher());
+        limitOrderBook.commit();
+        verifyOrders(equalsBuyOrder(101.0, 2.0).setIdentifier(ID_3).build(),
+                     equalsBuyOrder(100.0, 1.0).setIdentifier(ID_1).build());
+    }
+
+    @Test
+    public void restingOrderKeepsIdentifierAfterLaterAccepts()
+    {
+        final Order order = limitOrderBook.accept("1", 1, Side.BUY, toTicks(100.0), toLots(1.0), 0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.commit();
+        limitOrderBook.execute(Side.SELL, noOrderMatcher());
+        limitOrderBook.commit();
+        setupOrder(ID_2, Side.BUY, 99.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        assertThat(order.getIdentifier(), equalTo(ID_1));
+        assertThat(limitOrderBook.status(ID_1), sameInstance(order));
+        assertThat(limitOrderBook.status(ID_2).getIdentifier(), equalTo(ID_2));
+    }
+
+    @Test
+    public void duplicateRestingIdentifierRejected()
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        final Order order = limitOrderBook.accept(new Identifier("1", 1), Side.BUY, toTicks(99.0), toLots(1.0), 0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.commit();
+
+        assertThat(order.getRejectReason(), equalTo(RejectReason.DUPLICATE_ORDER));
+        assertThat(limitOrderBook.getOrderCount(), equalTo(1));
+        assertThat(limitOrderBook.getLevelCount(Side.BUY), equalTo(1));
+    }
+
+    @Test
+    public void replaceReusingCancelledIdentifierAccepted()
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.cancel(ID_1).cancel();
+        final Order order = limitOrderBook.accept(ID_1, Side.BUY, toTicks(99.0), toLots(1.0), 0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.commit();
+        limitOrderBook.commit();
+
+        assertThat(order.getRejectReason(), equalTo(RejectReason.NONE));
+        assertThat(limitOrderBook.status(ID_1), sameInstance(order));
+        assertThat(limitOrderBook.getOrderCount(), equalTo(1));
+    }
+
+    @Test
+    public void cancelledBuyOrderRecycledOnNextInstruction()
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        final Order cancelledOrder = limitOrderBook.cancel(ID_1).cancel();
+        limitOrderBook.commit();
+
+        assertThat(cancelledOrder, equalsBuyOrder(100.0, 1.0).setCancelledQuantity(1.0).build());
+
+        setupOrder(ID_2, Side.BUY, 100.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        final Order order = limitOrderBook.accept(ID_3, Side.BUY, toTicks(99.0), toLots(3.0), 0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.commit();
+
+        assertThat(order, sameInstance(cancelledOrder));
+        assertThat(order, equalsBuyOrder(99.0, 3.0).setIdentifier(ID_3).build());
+    }
+
     @Test
     public void buyOrdersCancelledInPriceTimePriorityOrder()
     {
@@ -186,6 +319,128 @@ public class LimitOrderBookUnitTest
         verifyNoOrders();
     }
 
+    @Test
+    public void liquidityWithinLimitPriceExcludesAttribution()
+    {
+        setupOrder(ID_1, Side.SELL, 99.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_2, Side.SELL, 100.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_3, Side.SELL, 101.0, 3.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        assertThat(limitOrderBook.liquidity(Side.BUY, toTicks(100.0), toLots(10.0), 0), equalTo(toLots(3.0)));
+        assertThat(limitOrderBook.liquidity(Side.BUY, toTicks(100.0), toLots(2.0), ID_2.getAttributionId()), equalTo(toLots(1.0)));
+        assertThat(limitOrderBook.liquidity(Side.BUY, toTicks(101.0), toLots(2.0), 0), equalTo(toLots(2.0)));
+        assertThat(limitOrderBook.liquidity(Side.SELL, toTicks(99.0), toLots(1.0), 0), equalTo(0L));
+    }
+
+    @Test
+    public void liquidityIncludesAttributionOnceItsOrdersAreCancelled()
+    {
+        setupOrder(ID_1, Side.SELL, 99.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_2, Side.SELL, 100.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        limitOrderBook.cancel(ID_1).cancel();
+        limitOrderBook.commit();
+
+        assertThat(limitOrderBook.liquidity(Side.BUY, toTicks(100.0), toLots(2.0), ID_1.getAttributionId()), equalTo(toLots(2.0)));
+        assertThat(limitOrderBook.liquidity(Side.BUY, toTicks(100.0), toLots(2.0), ID_2.getAttributionId()), equalTo(0L));
+    }
+
+
+    @Test
+    public void snapshotRestoresOrdersInPriceTimePriorityOrder() throws Exception
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_2, Side.BUY, 100.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_3, Side.BUY, 99.0, 3.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        limitOrderBook.writeSnapshot(new DataOutputStream(snapshot), 42L);
+
+        final LimitOrderBook restoredOrderBook = new LimitOrderBook(INSTRUMENT);
+        assertThat(restoredOrderBook.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray()))), equalTo(42L));
+
+        final Order order = restoredOrderBook.accept(ID_4, Side.SELL, toTicks(101.0), toLots(1.0), 0, TimeInForce.GOOD_TILL_CANCEL);
+        restoredOrderBook.commit();
+        assertThat(order.getOrderId(), equalTo(limitOrderBook.accept(ID_4, Side.SELL, toTicks(101.0), toLots(1.0), 0, TimeInForce.GOOD_TILL_CANCEL).getOrderId()));
+        limitOrderBook.commit();
+
+        restoredOrderBook.execute(Side.SELL, allOrderMatcher());
+        restoredOrderBook.commit();
+
+        verifyOrders(equalsBuyOrder(100.0, 1.0).setIdentifier(ID_1).build(),
+                     equalsBuyOrder(100.0, 2.0).setIdentifier(ID_2).build(),
+                     equalsBuyOrder(99.0, 3.0).setIdentifier(ID_3).build());
+    }
+
+    @Test
+    public void snapshotCountsEveryRestingOrder() throws Exception
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(ID_2, Side.SELL, 101.0, 2.0, TimeInForce.GOOD_TILL_CANCEL);
+        setupOrder(new Identifier("1", 1), Side.BUY, 99.0, 3.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        limitOrderBook.writeSnapshot(new DataOutputStream(snapshot), 0L);
+
+        final LimitOrderBook restoredOrderBook = new LimitOrderBook(INSTRUMENT);
+        final ByteArrayInputStream input = new ByteArrayInputStream(snapshot.toByteArray());
+        restoredOrderBook.readSnapshot(new DataInputStream(input));
+
+        assertThat(input.available(), equalTo(0));
+        assertThat(restoredOrderBook.getOrderCount(), equalTo(2));
+        assertThat(restoredOrderBook.getLevelCount(Side.BUY), equalTo(1));
+        assertThat(restoredOrderBook.getLevelCount(Side.SELL), equalTo(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshotWithDuplicateIdentifierRejected() throws Exception
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        limitOrderBook.writeSnapshot(new DataOutputStream(snapshot), 0L);
+
+        final byte[] bytes = snapshot.toByteArray();
+        final byte[] header = new byte[bytes.length - ORDER_RECORD_LENGTH - 4];
+        final byte[] record = new byte[ORDER_RECORD_LENGTH];
+        System.arraycopy(bytes, 0, header, 0, header.length);
+        System.arraycopy(bytes, bytes.length - record.length, record, 0, record.length);
+
+        final ByteArrayOutputStream duplicateSnapshot = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(duplicateSnapshot);
+        output.write(header);
+        output.writeInt(2);
+        output.write(record);
+        output.write(record);
+
+        new LimitOrderBook(INSTRUMENT).readSnapshot(new DataInputStream(new ByteArrayInputStream(duplicateSnapshot.toByteArray())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshotWithInvalidPriceRejected() throws Exception
+    {
+        setupOrder(ID_1, Side.BUY, 100.005, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        limitOrderBook.writeSnapshot(new DataOutputStream(snapshot), 0L);
+        ladderOrderBook().readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshotNotLoadedIntoNonEmptyOrderBook() throws Exception
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0, TimeInForce.GOOD_TILL_CANCEL);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        limitOrderBook.writeSnapshot(new DataOutputStream(snapshot), 0L);
+        limitOrderBook.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+    }
+
+    private LimitOrderBook ladderOrderBook()
+    {
+        return LimitOrderBookBuilder.newBuilder().
+                setInstrument(INSTRUMENT).
+                setLadderSize(64).
+                build();
+    }
 
     private void setupOrder(final Identifier identifier, final Side side, final double price, final double quantity, final TimeInForce timeInForce)
     {
@@ -0,0 +1,81 @@
+package ayizan.domain.orderbook.limit;
+
+import ayizan.domain.Identifier;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class LimitOrderIndexUnitTest
+{
+    private static final Identifier ID_1 = new Identifier("1", 1);
+    private static final Identifier ID_2 = new Identifier("1", 2);
+
+    private LimitOrderIndex limitOrderIndex;
+
+    @Before
+    public void setUp()
+    {
+        limitOrderIndex = new LimitOrderIndex(0);
+    }
+
+    @Test
+    public void limitOrderFoundByIdAndAttribution()
+    {
+        final LimitOrder limitOrder1 = limitOrder(ID_1);
+        final LimitOrder limitOrder2 = limitOrder(ID_2);
+        limitOrderIndex.put(limitOrder1);
+        limitOrderIndex.put(limitOrder2);
+
+        assertThat(limitOrderIndex.get("1", 1), sameInstance(limitOrder1));
+        assertThat(limitOrderIndex.get("1", 2), sameInstance(limitOrder2));
+        assertThat(limitOrderIndex.get(new Identifier("1", 1)), sameInstance(limitOrder1));
+        assertThat(limitOrderIndex.get("1", 3), nullValue());
+        assertThat(limitOrderIndex.get("2", 1), nullValue());
+    }
+
+    @Test
+    public void limitOrderNotReplacedForSameIdentifier()
+    {
+        final LimitOrder limitOrder1 = limitOrder(ID_1);
+        final LimitOrder limitOrder2 = limitOrder(new Identifier("1", 1));
+        limitOrderIndex.put(limitOrder1);
+
+        assertThat(limitOrderIndex.put(limitOrder2), sameInstance(limitOrder1));
+        assertThat(limitOrderIndex.get(ID_1), sameInstance(limitOrder1));
+        assertThat(limitOrderIndex.size(), equalTo(1));
+    }
+
+    @Test
+    public void limitOrdersFoundAfterResizeAndRemoval()
+    {
+        final LimitOrder[] limitOrders = new LimitOrder[10000];
+        for(int i = 0; i < limitOrders.length; i++) limitOrderIndex.put(limitOrders[i] = limitOrder(new Identifier(String.valueOf(i), i % 7)));
+        for(int i = 0; i < limitOrders.length; i += 2) assertThat(limitOrderIndex.remove(limitOrders[i]), sameInstance(limitOrders[i]));
+
+        assertThat(limitOrderIndex.size(), equalTo(limitOrders.length / 2));
+        for(int i = 0; i < limitOrders.length; i++) {
+            final LimitOrder limitOrder = limitOrderIndex.get(String.valueOf(i), i % 7);
+            if((i % 2) == 0) assertThat(limitOrder, nullValue());
+            else assertThat(limitOrder, sameInstance(limitOrders[i]));
+        }
+    }
+
+    @Test
+    public void removeIgnoresUnindexedLimitOrder()
+    {
+        final LimitOrder limitOrder = limitOrder(ID_1);
+        limitOrderIndex.put(limitOrder);
+
+        assertThat(limitOrderIndex.remove(limitOrder(new Identifier("1", 1))), nullValue());
+        assertThat(limitOrderIndex.get(ID_1), sameInstance(limitOrder));
+    }
+
+    private LimitOrder limitOrder(final Identifier identifier)
+    {
+        return new LimitOrder().setIdentifier(identifier);
+    }
+}
@@ -0,0 +1,64 @@
+package ayizan.domain.orderbook.limit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class LimitUnitTest
+{
+    private Limit limit;
+
+    @Before
+    public void setUp()
+    {
+        limit = new Limit().setPrice(100);
+    }
+
+    @Test
+    public void quantityAndOrderCountTrackAddedOrders()
+    {
+        limit.add(limitOrder(10)).add(limitOrder(20));
+
+        assertThat(limit.getQuantity(), equalTo(30L));
+        assertThat(limit.getOrderCount(), equalTo(2));
+    }
+
+    @Test
+    public void quantityReducedByFillAndCancel()
+    {
+        final LimitOrder limitOrder1 = limitOrder(10);
+        final LimitOrder limitOrder2 = limitOrder(20);
+        limit.add(limitOrder1).add(limitOrder2);
+
+        limitOrder1.fill(4);
+        assertThat(limit.getQuantity(), equalTo(26L));
+
+        limitOrder2.cancel();
+        assertThat(limit.getQuantity(), equalTo(6L));
+        assertThat(limit.getOrderCount(), equalTo(2));
+    }
+
+    @Test
+    public void quantityAndOrderCountReducedByRemove()
+    {
+        final LimitOrder limitOrder1 = limitOrder(10);
+        final LimitOrder limitOrder2 = limitOrder(20);
+        limit.add(limitOrder1).add(limitOrder2);
+
+        limitOrder1.fill(10);
+        limit.remove(limitOrder1);
+        limit.remove(limitOrder2);
+        assertThat(limit.getQuantity(), equalTo(0L));
+        assertThat(limit.getOrderCount(), equalTo(0));
+
+        limitOrder2.fill(5);
+        assertThat(limit.getQuantity(), equalTo(0L));
+    }
+
+    private static LimitOrder limitOrder(final long quantity)
+    {
+        return new LimitOrder().setPrice(100).setQuantity(quantity).setWorkingQuantity(quantity);
+    }
+}
@@ -0,0 +1,67 @@
+package ayizan.kernel;
+
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class AffinityUnitTest
+{
+    private final NamedThreadFactory threadFactory = new NamedThreadFactory("pinned");
+
+    @Test
+    public void cpuRangesSplitIntoSingleCpus()
+    {
+        assertThat(Affinity.split("2-4,7"), equalTo(new String[] {"2", "3", "4", "7"}));
+    }
+
+    @Test
+    public void threadsStartedByPinnedCallInheritCpus()
+    {
+        assumeAffinity();
+        final String cpu = Affinity.cpus().split("[,-]")[0];
+        final String[] ioThreadCpus = new String[1];
+        Affinity.callPinned(threadFactory, cpu, new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                final Thread ioThread = new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        ioThreadCpus[0] = Affinity.cpus();
+                    }
+                });
+                ioThread.start();
+                ioThread.join();
+                return null;
+            }
+        });
+
+        assertThat(ioThreadCpus[0], equalTo(cpu));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unavailableCpusRejected()
+    {
+        assumeAffinity();
+        Affinity.callPinned(threadFactory, "4095", new Callable<Void>()
+        {
+            @Override
+            public Void call()
+            {
+                return null;
+            }
+        });
+    }
+
+    private static void assumeAffinity()
+    {
+        assumeTrue(Affinity.threadId() >= 0 && Affinity.cpus() != null);
+    }
+}
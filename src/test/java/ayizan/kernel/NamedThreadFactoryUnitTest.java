@@ -0,0 +1,55 @@
+package ayizan.kernel;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class NamedThreadFactoryUnitTest
+{
+    private static final Runnable NOOP = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+        }
+    };
+
+    @Test
+    public void threadsNamedInSequence()
+    {
+        final NamedThreadFactory threadFactory = new NamedThreadFactory("matching", true, Thread.MAX_PRIORITY, null);
+        final Thread thread1 = threadFactory.newThread(NOOP);
+        final Thread thread2 = threadFactory.newThread(NOOP);
+
+        assertThat(thread1.getName(), equalTo("matching-1"));
+        assertThat(thread2.getName(), equalTo("matching-2"));
+        assertThat(thread1.isDaemon(), equalTo(true));
+        assertThat(thread1.getPriority(), equalTo(Thread.MAX_PRIORITY));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPriorityRejected()
+    {
+        new NamedThreadFactory("matching", true, Thread.MAX_PRIORITY + 1, null);
+    }
+
+    @Test
+    public void threadPinnedToCpuRuns() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        new NamedThreadFactory("io", true, Thread.NORM_PRIORITY, "0").newThread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                latch.countDown();
+            }
+        }).start();
+
+        assertThat(latch.await(5, TimeUnit.SECONDS), equalTo(true));
+    }
+}
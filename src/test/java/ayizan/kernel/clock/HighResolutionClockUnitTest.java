@@ -0,0 +1,104 @@
+package ayizan.kernel.clock;
+
+import ayizan.kernel.clock.HighResolutionClock.TimeSource;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class HighResolutionClockUnitTest
+{
+    private static final long WALL_CLOCK_OFFSET = TimeUnit.DAYS.toNanos(365 * 40) + 123456;
+    private static final long TICK = 1000;
+
+    @Test
+    public void timeAnchoredToWallClock()
+    {
+        final TickingTimeSource timeSource = new TickingTimeSource();
+        final HighResolutionClock clock = new HighResolutionClock(timeSource, 1, 2, TimeUnit.SECONDS);
+        timeSource.advance(TimeUnit.MICROSECONDS.toNanos(250));
+
+        final long now = clock.currentTime(TimeUnit.NANOSECONDS);
+        assertThat(now, greaterThanOrEqualTo(timeSource.wallTime() - 4 * TICK));
+        assertThat(now, lessThanOrEqualTo(timeSource.wallTime()));
+    }
+
+    @Test
+    public void wallClockStepForwardFollowedAfterCalibration()
+    {
+        final TickingTimeSource timeSource = new TickingTimeSource();
+        final HighResolutionClock clock = new HighResolutionClock(timeSource, 1, 2, TimeUnit.MILLISECONDS);
+        timeSource.step(TimeUnit.MILLISECONDS.toNanos(50));
+        timeSource.advance(TimeUnit.MILLISECONDS.toNanos(1));
+
+        final long now = clock.currentTime(TimeUnit.NANOSECONDS);
+        assertThat(now, greaterThanOrEqualTo(timeSource.wallTime() - TimeUnit.MILLISECONDS.toNanos(1) - 4 * TICK));
+        assertThat(now, lessThanOrEqualTo(timeSource.wallTime()));
+    }
+
+    @Test
+    public void wallClockJitterBackwardsIgnored()
+    {
+        final TickingTimeSource timeSource = new TickingTimeSource();
+        final HighResolutionClock clock = new HighResolutionClock(timeSource, 1, 2, TimeUnit.MILLISECONDS);
+        final long before = clock.currentTime(TimeUnit.NANOSECONDS);
+        timeSource.step(-TimeUnit.MICROSECONDS.toNanos(500));
+        timeSource.advance(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertThat(clock.currentTime(TimeUnit.NANOSECONDS), greaterThanOrEqualTo(before));
+    }
+
+    @Test
+    public void timeMonotonicAcrossCalibrations()
+    {
+        final HighResolutionClock clock = new HighResolutionClock(10, 2000, TimeUnit.MICROSECONDS);
+        long previous = clock.currentTime(TimeUnit.NANOSECONDS);
+        for(int i = 0; i < 100000; i++) {
+            final long now = clock.currentTime(TimeUnit.NANOSECONDS);
+            assertThat(now, greaterThanOrEqualTo(previous));
+            previous = now;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toleranceBelowWallClockResolutionRejected()
+    {
+        new HighResolutionClock(1, 100, TimeUnit.MICROSECONDS);
+    }
+
+    private static class TickingTimeSource implements TimeSource
+    {
+        private long nanoTime = 5000;
+        private long offset = WALL_CLOCK_OFFSET;
+
+        @Override
+        public long currentTimeMillis()
+        {
+            return TimeUnit.NANOSECONDS.toMillis(nanoTime() + offset);
+        }
+
+        @Override
+        public long nanoTime()
+        {
+            return nanoTime += TICK;
+        }
+
+        private void advance(final long nanos)
+        {
+            nanoTime += nanos;
+        }
+
+        private void step(final long nanos)
+        {
+            offset += nanos;
+        }
+
+        private long wallTime()
+        {
+            return nanoTime + offset;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ayizan.kernel.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class HistogramUnitTest
+{
+    @Test
+    public void bucketsCoverValuesContiguously()
+    {
+        for(int index = 1; index < 1000; index++) {
+            assertThat(Histogram.lowestEquivalentValue(index), equalTo(Histogram.highestEquivalentValue(index - 1) + 1));
+            assertThat(Histogram.index(Histogram.lowestEquivalentValue(index)), equalTo(index));
+            assertThat(Histogram.index(Histogram.highestEquivalentValue(index)), equalTo(index));
+        }
+        assertThat(Histogram.index(Long.MAX_VALUE), equalTo(Histogram.index(Long.MAX_VALUE - 1)));
+    }
+
+    @Test
+    public void percentilesWithinBucketPrecision()
+    {
+        final Histogram histogram = new Histogram();
+        for(long value = 1; value <= 100000; value++) histogram.record(value);
+
+        assertThat(histogram.getTotalCount(), equalTo(100000L));
+        assertThat(histogram.getMin(), equalTo(1L));
+        assertThat(histogram.getMax(), equalTo(100000L));
+        assertWithin(histogram.getValueAtPercentile(50), 50000);
+        assertWithin(histogram.getValueAtPercentile(99), 99000);
+        assertThat(histogram.getValueAtPercentile(100), equalTo(100000L));
+    }
+
+    @Test
+    public void histogramsAdded()
+    {
+        final Histogram histogram1 = new Histogram();
+        final Histogram histogram2 = new Histogram();
+        histogram1.record(10);
+        histogram2.record(1000);
+
+        histogram1.add(histogram2);
+        assertThat(histogram1.getTotalCount(), equalTo(2L));
+        assertThat(histogram1.getMin(), equalTo(10L));
+        assertThat(histogram1.getMax(), equalTo(1000L));
+        assertThat(histogram1.getValueAtPercentile(50), equalTo(10L));
+    }
+
+    private static void assertWithin(final long value, final long expected)
+    {
+        assertThat(value, greaterThanOrEqualTo(expected));
+        assertThat(value, lessThanOrEqualTo(expected + expected / 64));
+    }
+}
@@ -0,0 +1,48 @@
+package ayizan.kernel.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class LatencyRecorderUnitTest
+{
+    @Test
+    public void intervalSwapsRecordedLatencies()
+    {
+        final LatencyRecorder latencyRecorder = new LatencyRecorder("matching[0]");
+        latencyRecorder.record(100);
+        latencyRecorder.record(200);
+
+        final Histogram interval = latencyRecorder.interval();
+        assertThat(interval.getTotalCount(), equalTo(2L));
+        assertThat(interval.getMax(), equalTo(200L));
+        assertThat(latencyRecorder.interval().getTotalCount(), equalTo(0L));
+    }
+
+    @Test
+    public void noLatenciesLostWhileSwapping() throws Exception
+    {
+        final int records = 2000000;
+        final LatencyRecorder latencyRecorder = new LatencyRecorder("inbound[0]");
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for(int i = 0; i < records; i++) latencyRecorder.record(i & 0xfff);
+                latch.countDown();
+            }
+        });
+        writer.start();
+
+        long total = 0;
+        while(latch.getCount() > 0) total += latencyRecorder.interval().getTotalCount();
+        total += latencyRecorder.interval().getTotalCount();
+
+        assertThat(total, equalTo((long) records));
+    }
+}
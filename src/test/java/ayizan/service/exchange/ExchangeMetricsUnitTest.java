@@ -0,0 +1,98 @@
+package ayizan.service.exchange;
+
+import ayizan.domain.Executions.RejectReason;
+import ayizan.domain.Orders.CancelOrderSpecification;
+import ayizan.domain.Orders.OrderStatusSpecification;
+import ayizan.domain.Orders.Side;
+import ayizan.service.exchange.ExchangeUnitTest.ExecutionCallbackWrapper;
+import ayizan.service.exchange.SymbolMetrics.Instruction;
+import ayizan.test.Fixtures;
+import org.junit.Before;
+import org.junit.Test;
+
+import static ayizan.service.exchange.Exchange.DEFAULT_INSTRUMENT;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class ExchangeMetricsUnitTest
+{
+    private static final String SYMBOL = DEFAULT_INSTRUMENT.getSymbol();
+
+    private final ExecutionCallbackWrapper executionCallback = new ExecutionCallbackWrapper();
+    private Exchange exchange;
+    private SymbolMetrics symbolMetrics;
+
+    @Before
+    public void setUp()
+    {
+        exchange = new Exchange();
+        symbolMetrics = exchange.getMetrics().getSymbolMetrics(SYMBOL);
+    }
+
+    @Test
+    public void restingOrdersAndLevelsTrackOrderBook()
+    {
+        placeOrder("1", Side.BUY, 100, 10);
+        placeOrder("2", Side.BUY, 100, 10);
+        placeOrder("3", Side.BUY, 99, 10);
+        placeOrder("4", Side.SELL, 101, 10);
+
+        assertThat(symbolMetrics.getRestingOrderCount(), equalTo(4L));
+        assertThat(symbolMetrics.getBidLevelCount(), equalTo(2L));
+        assertThat(symbolMetrics.getAskLevelCount(), equalTo(1L));
+
+        placeOrder("5", Side.SELL, 100, 20);
+        cancelOrder("4", 4);
+
+        assertThat(symbolMetrics.getRestingOrderCount(), equalTo(1L));
+        assertThat(symbolMetrics.getBidLevelCount(), equalTo(1L));
+        assertThat(symbolMetrics.getAskLevelCount(), equalTo(0L));
+    }
+
+    @Test
+    public void duplicateIdentifierNotCountedAsRestingOrder()
+    {
+        placeOrder("1", Side.BUY, 100, 10);
+        placeOrder("1", Side.BUY, 99, 10);
+
+        assertThat(symbolMetrics.getRestingOrderCount(), equalTo(1L));
+        assertThat(symbolMetrics.getRejectCount(RejectReason.DUPLICATE_ORDER), equalTo(1L));
+    }
+
+    @Test
+    public void instructionsTradesAndRejectsCounted()
+    {
+        placeOrder("1", Side.BUY, 100, 10);
+        placeOrder("2", Side.SELL, 100, 4);
+        cancelOrder("unknown", 1);
+        exchange.orderStatus(OrderStatusSpecification.newBuilder().setId("status-unknown").setAttributionId(1).setSymbol(SYMBOL).setStatusId("unknown"), executionCallback);
+
+        assertThat(symbolMetrics.getInstructionCount(Instruction.PLACE_ORDER), equalTo(2L));
+        assertThat(symbolMetrics.getInstructionCount(Instruction.CANCEL_ORDER), equalTo(1L));
+        assertThat(symbolMetrics.getInstructionCount(Instruction.ORDER_STATUS), equalTo(1L));
+        assertThat(symbolMetrics.getInstructionCount(), equalTo(4L));
+        assertThat(symbolMetrics.getTradeCount(), equalTo(1L));
+        assertThat(symbolMetrics.getRejectCount(RejectReason.UNKNOWN_ORDER), equalTo(2L));
+        assertThat(symbolMetrics.getRejectCount(), equalTo(2L));
+    }
+
+    @Test
+    public void unknownInstrumentCountedSeparately()
+    {
+        exchange.placeOrder(Fixtures.placeOrder("1", Side.BUY, 100, 10).setSymbol("XXX.UNKNOWN"), executionCallback);
+
+        final SymbolMetrics unknownSymbolMetrics = exchange.getMetrics().getSymbolMetrics(ExchangeMetrics.UNKNOWN_SYMBOL);
+        assertThat(unknownSymbolMetrics.getRejectCount(RejectReason.UNKNOWN_INSTRUMENT), equalTo(1L));
+        assertThat(symbolMetrics.getInstructionCount(), equalTo(0L));
+    }
+
+    private void placeOrder(final String id, final Side side, final long price, final long quantity)
+    {
+        exchange.placeOrder(Fixtures.placeOrder(id, side, price, quantity), executionCallback);
+    }
+
+    private void cancelOrder(final String cancelId, final int attributionId)
+    {
+        exchange.cancelOrder(CancelOrderSpecification.newBuilder().setId("cancel-" + cancelId).setAttributionId(attributionId).setSymbol(SYMBOL).setCancelId(cancelId), executionCallback);
+    }
+}
@@ -1,39 +1,59 @@
 package ayizan.service.exchange;
 
 
+import ayizan.domain.Depths.DepthAction;
+import ayizan.domain.Depths.DepthLevel;
+import ayizan.domain.Depths.DepthSnapshot;
+import ayizan.domain.Depths.DepthSnapshotOrBuilder;
+import ayizan.domain.Depths.DepthUpdate;
+import ayizan.domain.Depths.DepthUpdateOrBuilder;
 import ayizan.domain.Identifier;
 import ayizan.domain.Executions.AcceptExecution;
 import ayizan.domain.Executions.AcceptExecutionOrBuilder;
 import ayizan.domain.Executions.CancelExecution;
 import ayizan.domain.Executions.CancelExecutionOrBuilder;
+import ayizan.domain.Executions.RejectReason;
 import ayizan.domain.Executions.ReplaceExecution;
 import ayizan.domain.Executions.ReplaceExecutionOrBuilder;
 import ayizan.domain.Executions.StatusExecution;
 import ayizan.domain.Executions.StatusExecutionOrBuilder;
 import ayizan.domain.Executions.TradeExecution;
 import ayizan.domain.Executions.TradeExecutionOrBuilder;
+import ayizan.domain.Instruments.InstrumentSpecification;
 import ayizan.domain.Orders.CancelOrderSpecification;
 import ayizan.domain.Orders.CancelReplaceOrderSpecification;
 import ayizan.domain.Orders.OrderStatusSpecification;
 import ayizan.domain.Orders.PlaceOrderSpecification;
 import ayizan.domain.Orders.Side;
 import ayizan.domain.Orders.TimeInForce;
+import ayizan.domain.orderbook.OrderBookRepository;
+import ayizan.domain.orderbook.limit.LimitOrderBook;
+import ayizan.domain.orderbook.limit.LimitOrderBook.LimitOrderBookBuilder;
 import ayizan.service.ExecutionVenue.ExecutionCallback;
+import ayizan.service.exchange.policy.SnapshotPolicy.IntervalSnapshotPolicy;
 import ayizan.test.matcher.ExecutionMatcher.AbstractExecutionMatcherBuilder;
 import ayizan.test.matcher.ExecutionMatcher.AcceptExecutionMatcherBuilder;
 import ayizan.test.matcher.ExecutionMatcher.CancelExecutionMatcherBuilder;
 import ayizan.test.matcher.ExecutionMatcher.ReplaceExecutionMatcherBuilder;
 import ayizan.test.matcher.ExecutionMatcher.StatusExecutionMatcherBuilder;
 import ayizan.test.matcher.ExecutionMatcher.TradeExecutionMatcherBuilder;
+import com.google.protobuf.Message;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import static ayizan.domain.StandardUnits.toLots;
 import static ayizan.domain.StandardUnits.toTicks;
 import static ayizan.service.exchange.Exchange.DEFAULT_INSTRUMENT;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
@@ -43,6 +63,8 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 public class ExchangeUnitTest
 {
     private static final String SYMBOL = DEFAULT_INSTRUMENT.getSymbol();
+    private static final String UNKNOWN_SYMBOL = "XXX.UNKNOWN";
+    private static final InstrumentSpecification OTHER_INSTRUMENT = DEFAULT_INSTRUMENT.toBuilder().setSymbol("XXX.AAPL").build();
 
     private static final Identifier ID_1 = new Identifier("1", 1);
     private static final Identifier ID_2 = new Identifier("2", 2);
@@ -137,6 +159,84 @@ public class ExchangeUnitTest
                                            equalsTradeExecution(ID_2, Side.SELL, 100.0, 1.0, 100.0, 1.0));
     }
 
+    @Test
+    public void placeFillOrKillBuyLimitOrderFillsAtMultiplePrices()
+    {
+        setupOrder(ID_1, Side.SELL, 100.0, 1.0);
+        setupOrder(ID_2, Side.SELL, 99.0, 1.0);
+        exchange.placeOrder(limitOrder(ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL), executionCallback);
+
+        executionCallback.verifyExecutions(equalsAcceptExecution(ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL),
+                                           equalsTradeExecution(ID_3, Side.BUY, 100.0, 2.0, 99.0, 1.0).setTimeInForce(TimeInForce.FILL_OR_KILL),
+                                           equalsTradeExecution(ID_2, Side.SELL, 99.0, 1.0, 99.0, 1.0),
+                                           equalsTradeExecution(ID_3, Side.BUY, 100.0, 2.0, 100.0, 1.0).setWorkingQuantity(0).setFilledQuantity(toLots(2.0)).setTimeInForce(TimeInForce.FILL_OR_KILL),
+                                           equalsTradeExecution(ID_1, Side.SELL, 100.0, 1.0, 100.0, 1.0));
+    }
+
+    @Test
+    public void placeFillOrKillBuyLimitOrderWithInsufficientLiquidityCancels()
+    {
+        setupOrder(ID_1, Side.SELL, 101.0, 1.0);
+        setupOrder(ID_2, Side.SELL, 100.0, 1.0);
+        exchange.placeOrder(limitOrder(ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL), executionCallback);
+
+        executionCallback.verifyExecutions(equalsAcceptExecution(ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL),
+                                           equalsCancelExecution(ID_3, ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL));
+    }
+
+    @Test
+    public void placeFillOrKillBuyLimitOrderIgnoresOwnLiquidity()
+    {
+        setupOrder(ID_1, Side.SELL, 100.0, 1.0);
+        setupOrder(new Identifier("5", 3), Side.SELL, 100.0, 1.0);
+        exchange.placeOrder(limitOrder(ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL), executionCallback);
+
+        executionCallback.verifyExecutions(equalsAcceptExecution(ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL),
+                                           equalsCancelExecution(ID_3, ID_3, Side.BUY, 100.0, 2.0).setTimeInForce(TimeInForce.FILL_OR_KILL));
+    }
+
+    @Test
+    public void placeBuyLimitOrderBySymbolIdFills()
+    {
+        setupOrder(ID_1, Side.SELL, 100.0, 1.0);
+        exchange.placeOrder(limitOrder(ID_2, Side.BUY, 100.0, 1.0).setSymbolId(0), executionCallback);
+
+        executionCallback.verifyExecutions(equalsAcceptExecution(ID_2, Side.BUY, 100.0, 1.0),
+                                           equalsTradeExecution(ID_2, Side.BUY, 100.0, 1.0, 100.0, 1.0),
+                                           equalsTradeExecution(ID_1, Side.SELL, 100.0, 1.0, 100.0, 1.0));
+    }
+
+    @Test
+    public void placeBuyLimitOrderDoesNotFillAgainstOtherSymbol()
+    {
+        exchange = new Exchange(Exchange.newOrderBookRepository(DEFAULT_INSTRUMENT, OTHER_INSTRUMENT));
+        setupOrder(limitOrder(ID_1, Side.SELL, 100.0, 1.0).setSymbol(OTHER_INSTRUMENT.getSymbol()));
+        exchange.placeOrder(limitOrder(ID_2, Side.BUY, 100.0, 1.0), executionCallback);
+
+        executionCallback.verifyExecutions(equalsAcceptExecution(ID_2, Side.BUY, 100.0, 1.0));
+    }
+
+    @Test
+    public void placeBuyLimitOrderForUnknownSymbolRejected()
+    {
+        exchange.placeOrder(limitOrder(ID_1, Side.BUY, 100.0, 1.0).setSymbol(UNKNOWN_SYMBOL), executionCallback);
+
+        executionCallback.verifyExecutions(equalsAcceptExecution(ID_1, Side.BUY, 100.0, 1.0).
+                                                   setSymbol(UNKNOWN_SYMBOL).
+                                                   setWorkingQuantity(0).
+                                                   setRejectReason(RejectReason.UNKNOWN_INSTRUMENT));
+    }
+
+    @Test
+    public void placeBuyLimitOrderForMismatchedSymbolIdRejected()
+    {
+        exchange.placeOrder(limitOrder(ID_1, Side.BUY, 100.0, 1.0).setSymbolId(1), executionCallback);
+
+        executionCallback.verifyExecutions(equalsAcceptExecution(ID_1, Side.BUY, 100.0, 1.0).
+                                                   setWorkingQuantity(0).
+                                                   setRejectReason(RejectReason.UNKNOWN_INSTRUMENT));
+    }
+
     @Test
     public void cancelReplaceBuyLimitOrder()
     {
@@ -156,6 +256,39 @@ public class ExchangeUnitTest
         executionCallback.verifyExecutions(equalsReplaceExecution(CANCEL_REPLACE_ID_1, ID_1, Side.BUY, 100.0, 2.0, 101.0, 3.0).setFilledQuantity(toLots(1.0)));
     }
 
+    @Test
+    public void cancelReplaceWithDuplicateIdLeavesOriginalResting()
+    {
+        final Identifier duplicateIdentifier = new Identifier("2", ID_1.getAttributionId());
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0);
+        setupOrder(duplicateIdentifier, Side.BUY, 99.0, 1.0);
+        exchange.cancelReplaceOrder(cancelReplaceOrder(duplicateIdentifier, ID_1, 101.0, 2.0), executionCallback);
+
+        executionCallback.verifyExecutions(equalsReplaceRejection(duplicateIdentifier, ID_1, RejectReason.DUPLICATE_ORDER));
+        executionCallback.verifyDepthUpdates();
+
+        executionCallback = new ExecutionCallbackWrapper();
+        exchange.cancelOrder(cancelOrder(CANCEL_ID_1, ID_1), executionCallback);
+        executionCallback.verifyExecutions(equalsCancelExecution(CANCEL_ID_1, ID_1, Side.BUY, 100.0, 1.0));
+    }
+
+    @Test
+    public void cancelReplaceWithInvalidPriceLeavesOriginalResting()
+    {
+        final OrderBookRepository orderBookRepository = new OrderBookRepository(LimitOrderBook.newOrderBookFactory(LimitOrderBookBuilder.newBuilder().setLadderSize(64)));
+        orderBookRepository.register(DEFAULT_INSTRUMENT);
+        exchange = new Exchange(orderBookRepository);
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0);
+        exchange.cancelReplaceOrder(cancelReplaceOrder(CANCEL_REPLACE_ID_1, ID_1, 100.005, 2.0), executionCallback);
+
+        executionCallback.verifyExecutions(equalsReplaceRejection(CANCEL_REPLACE_ID_1, ID_1, RejectReason.INVALID_PRICE));
+        executionCallback.verifyDepthUpdates();
+
+        executionCallback = new ExecutionCallbackWrapper();
+        exchange.cancelOrder(cancelOrder(CANCEL_ID_1, ID_1), executionCallback);
+        executionCallback.verifyExecutions(equalsCancelExecution(CANCEL_ID_1, ID_1, Side.BUY, 100.0, 1.0));
+    }
+
     @Test
     public void cancelBuyLimitOrder()
     {
@@ -185,6 +318,82 @@ public class ExchangeUnitTest
         executionCallback.verifyExecutions(equalsStatusExecution(STATUS_ID_1, ID_1, Side.BUY, 100.0, 1.0));
     }
 
+    @Test
+    public void placeBuyLimitOrderAddsLevel()
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0);
+        exchange.placeOrder(limitOrder(ID_2, Side.BUY, 99.0, 2.0), executionCallback);
+
+        executionCallback.verifyDepthUpdates(depthUpdate(DepthAction.ADD_LEVEL, Side.BUY, 99.0, 2.0, 1));
+    }
+
+    @Test
+    public void placeBuyLimitOrderUpdatesAndDeletesLevels()
+    {
+        setupOrder(ID_1, Side.SELL, 100.0, 1.0);
+        setupOrder(ID_2, Side.SELL, 101.0, 1.0);
+        setupOrder(ID_3, Side.SELL, 101.0, 2.0);
+        exchange.placeOrder(limitOrder(ID_4, Side.BUY, 101.0, 2.0), executionCallback);
+
+        executionCallback.verifyDepthUpdates(depthUpdate(DepthAction.DELETE_LEVEL, Side.SELL, 100.0, 0, 0),
+                                             depthUpdate(DepthAction.UPDATE_LEVEL, Side.SELL, 101.0, 2.0, 1));
+    }
+
+    @Test
+    public void cancelBuyLimitOrderDeletesLevel()
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0);
+
+        exchange.cancelOrder(cancelOrder(CANCEL_ID_1, ID_1), executionCallback);
+        executionCallback.verifyDepthUpdates(depthUpdate(DepthAction.DELETE_LEVEL, Side.BUY, 100.0, 0, 0));
+    }
+
+    @Test
+    public void cancelReplaceBuyLimitOrderAtSamePriceUpdatesLevel()
+    {
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0);
+        setupOrder(ID_2, Side.BUY, 100.0, 1.0);
+
+        exchange.cancelReplaceOrder(cancelReplaceOrder(CANCEL_REPLACE_ID_1, ID_1, 100.0, 3.0), executionCallback);
+        executionCallback.verifyDepthUpdates(depthUpdate(DepthAction.UPDATE_LEVEL, Side.BUY, 100.0, 4.0, 2));
+    }
+
+    @Test
+    public void depthSnapshotPublishedEveryEventInterval()
+    {
+        exchange = new Exchange(Exchange.newOrderBookRepository(DEFAULT_INSTRUMENT), IntervalSnapshotPolicy.allocate(2, 4, 1, TimeUnit.HOURS));
+        setupOrder(ID_1, Side.BUY, 100.0, 1.0);
+        setupOrder(ID_2, Side.BUY, 99.0, 2.0);
+        setupOrder(ID_3, Side.BUY, 98.0, 3.0);
+
+        exchange.placeOrder(limitOrder(ID_4, Side.SELL, 101.0, 4.0), executionCallback);
+        executionCallback.verifyDepthSnapshots(DepthSnapshot.newBuilder().
+                setTimestamp(0).
+                setSymbol(SYMBOL).
+                addBid(depthLevel(100.0, 1.0, 1)).
+                addBid(depthLevel(99.0, 2.0, 1)).
+                addAsk(depthLevel(101.0, 4.0, 1)).
+                build());
+    }
+
+    @Test
+    public void depthSnapshotPublishedWhenTimeIntervalExpires()
+    {
+        exchange = new Exchange(Exchange.newOrderBookRepository(DEFAULT_INSTRUMENT), IntervalSnapshotPolicy.allocate(1, 100, 1, TimeUnit.SECONDS));
+        final long placeTime = TimeUnit.SECONDS.toNanos(1000);
+        exchange.placeOrder(limitOrder(ID_1, Side.BUY, 100.0, 1.0), mock(ExecutionCallback.class), placeTime);
+
+        exchange.expireSnapshots(executionCallback, placeTime + TimeUnit.MILLISECONDS.toNanos(999));
+        executionCallback.verifyDepthSnapshots();
+
+        exchange.expireSnapshots(executionCallback, placeTime + TimeUnit.SECONDS.toNanos(1));
+        executionCallback.verifyDepthSnapshots(DepthSnapshot.newBuilder().
+                setTimestamp(0).
+                setSymbol(SYMBOL).
+                addBid(depthLevel(100.0, 1.0, 1)).
+                build());
+    }
+
     private AcceptExecutionMatcherBuilder equalsAcceptExecution(final Identifier identifier, final Side side, final double price, final double quantity)
     {
         return AcceptExecutionMatcherBuilder.newBuilder().
@@ -243,6 +452,15 @@ public class ExchangeUnitTest
                 setReplaceQuantity(toLots(replaceQuantity));
     }
 
+    private ReplaceExecutionMatcherBuilder equalsReplaceRejection(final Identifier identifier, final Identifier cancelIdentifier, final RejectReason rejectReason)
+    {
+        return ReplaceExecutionMatcherBuilder.newBuilder().
+                setIdentifier(identifier).
+                setSymbol(SYMBOL).
+                setCancelId(cancelIdentifier.getId()).
+                setRejectReason(rejectReason);
+    }
+
     private StatusExecutionMatcherBuilder equalsStatusExecution(final Identifier identifier, final Identifier statusIdentifier, final Side side, final double price, final double quantity)
     {
         return StatusExecutionMatcherBuilder.newBuilder().
@@ -257,6 +475,28 @@ public class ExchangeUnitTest
                 setTimeInForce(TimeInForce.GOOD_TILL_CANCEL);
     }
 
+    private DepthUpdate depthUpdate(final DepthAction action, final Side side, final double price, final double quantity, final int orderCount)
+    {
+        return DepthUpdate.newBuilder().
+                setTimestamp(0).
+                setSymbol(SYMBOL).
+                setAction(action).
+                setSide(side).
+                setPrice(toTicks(price)).
+                setQuantity(toLots(quantity)).
+                setOrderCount(orderCount).
+                build();
+    }
+
+    private DepthLevel depthLevel(final double price, final double quantity, final int orderCount)
+    {
+        return DepthLevel.newBuilder().
+                setPrice(toTicks(price)).
+                setQuantity(toLots(quantity)).
+                setOrderCount(orderCount).
+                build();
+    }
+
     private PlaceOrderSpecification.Builder limitOrder(final Identifier identifier, final Side side, final double price, final double quantity)
     {
         return PlaceOrderSpecification.newBuilder().
@@ -300,14 +540,51 @@ public class ExchangeUnitTest
 }
 
     private void setupOrder(final Identifier identifier, final Side side, final double price, final double quantity)
+    {
+        setupOrder(limitOrder(identifier, side, price, quantity));
+    }
+
+    private void setupOrder(final PlaceOrderSpecification.Builder placeOrderSpecification)
     {
         final ExecutionCallback ignoreExecutionCallback = mock(ExecutionCallback.class);
-        exchange.placeOrder(limitOrder(identifier, side, price, quantity), ignoreExecutionCallback);
+        exchange.placeOrder(placeOrderSpecification, ignoreExecutionCallback);
     }
 
     public static class ExecutionCallbackWrapper implements ExecutionCallback
     {
         private ExecutionCallback executionCallback = mock(ExecutionCallback.class);
+        private List<DepthUpdate> depthUpdates = new ArrayList<DepthUpdate>();
+        private List<DepthSnapshot> depthSnapshots = new ArrayList<DepthSnapshot>();
+        private List<Message> executions = new ArrayList<Message>();
+        private List<Long> timestamps = new ArrayList<Long>();
+        private List<Long> timestampNanos = new ArrayList<Long>();
+
+        public void verifyDepthUpdates(final DepthUpdate... expectedDepthUpdates)
+        {
+            assertThat(depthUpdates, equalTo(Arrays.asList(expectedDepthUpdates)));
+        }
+
+        public void verifyDepthSnapshots(final DepthSnapshot... expectedDepthSnapshots)
+        {
+            assertThat(depthSnapshots, equalTo(Arrays.asList(expectedDepthSnapshots)));
+        }
+
+        public void verifyTimestamps(final Long... expectedTimestamps)
+        {
+            assertThat(timestamps, equalTo(Arrays.asList(expectedTimestamps)));
+        }
+
+        public void verifyTimestampNanos(final Long... expectedTimestampNanos)
+        {
+            assertThat(timestampNanos, equalTo(Arrays.asList(expectedTimestampNanos)));
+        }
+
+        public void verifyNotifications(final ExecutionCallbackWrapper expectedExecutionCallback)
+        {
+            assertThat(executions, equalTo(expectedExecutionCallback.executions));
+            assertThat(depthUpdates, equalTo(expectedExecutionCallback.depthUpdates));
+            assertThat(depthSnapshots, equalTo(expectedExecutionCallback.depthSnapshots));
+        }
 
         public void verifyExecutions(final AbstractExecutionMatcherBuilder<?>... matchers)
         {
@@ -332,33 +609,60 @@ public class ExchangeUnitTest
 
         public void notify(final AcceptExecutionOrBuilder acceptExecution)
         {
+            record(acceptExecution.getTimestamp(), acceptExecution.getTimestampNanos());
+            executions.add(((AcceptExecution.Builder) acceptExecution).clone().buildPartial());
             executionCallback.notify(((AcceptExecution.Builder) acceptExecution).clone());
         }
 
         public void notify(final TradeExecutionOrBuilder tradeExecution)
         {
+            record(tradeExecution.getTimestamp(), tradeExecution.getTimestampNanos());
+            executions.add(((TradeExecution.Builder) tradeExecution).clone().buildPartial());
             executionCallback.notify(((TradeExecution.Builder) tradeExecution).clone());
         }
 
         public void notify(final ReplaceExecutionOrBuilder replaceExecution)
         {
+            record(replaceExecution.getTimestamp(), replaceExecution.getTimestampNanos());
+            executions.add(((ReplaceExecution.Builder) replaceExecution).clone().buildPartial());
             executionCallback.notify(((ReplaceExecution.Builder) replaceExecution).clone());
         }
 
         public void notify(final CancelExecutionOrBuilder cancelExecution)
         {
+            record(cancelExecution.getTimestamp(), cancelExecution.getTimestampNanos());
+            executions.add(((CancelExecution.Builder) cancelExecution).clone().buildPartial());
             executionCallback.notify(((CancelExecution.Builder) cancelExecution).clone());
         }
 
         public void notify(final StatusExecutionOrBuilder statusExecution)
         {
+            record(statusExecution.getTimestamp(), statusExecution.getTimestampNanos());
+            executions.add(((StatusExecution.Builder) statusExecution).clone().buildPartial());
             executionCallback.notify(((StatusExecution.Builder) statusExecution).clone());
         }
 
+        public void notify(final DepthUpdateOrBuilder depthUpdate)
+        {
+            record(depthUpdate.getTimestamp(), depthUpdate.getTimestampNanos());
+            depthUpdates.add(((DepthUpdate.Builder) depthUpdate).clone().setTimestamp(0).clearTimestampNanos().build());
+        }
+
+        public void notify(final DepthSnapshotOrBuilder depthSnapshot)
+        {
+            record(depthSnapshot.getTimestamp(), depthSnapshot.getTimestampNanos());
+            depthSnapshots.add(((DepthSnapshot.Builder) depthSnapshot).clone().setTimestamp(0).clearTimestampNanos().build());
+        }
+
         public void commit()
         {
             executionCallback.commit();
         }
 
+        private void record(final long timestamp, final long timestampNanos)
+        {
+            timestamps.add(timestamp);
+            this.timestampNanos.add(timestampNanos);
+        }
     }
 }
@@ -0,0 +1,79 @@
+package ayizan.service.exchange;
+
+import ayizan.domain.Orders.Side;
+import ayizan.kernel.clock.Clock;
+import ayizan.kernel.clock.ManualClock;
+import ayizan.service.exchange.ExchangeUnitTest.ExecutionCallbackWrapper;
+import ayizan.test.Fixtures.ClockRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.test.Fixtures.placeOrder;
+
+public class ExecutionPublisherUnitTest
+{
+    @Rule
+    public ClockRule clockRule = new ClockRule();
+
+    @Before
+    public void setUp()
+    {
+        clockRule.install(new TickingClock());
+    }
+
+    @Test
+    public void executionsOfOneInstructionShareTimestamp()
+    {
+        final Exchange exchange = new Exchange();
+        exchange.placeOrder(placeOrder("1", Side.SELL, 10000, 1), new ExecutionCallbackWrapper());
+        exchange.placeOrder(placeOrder("2", Side.SELL, 10100, 1), new ExecutionCallbackWrapper());
+        exchange.placeOrder(placeOrder("3", Side.SELL, 10200, 1), new ExecutionCallbackWrapper());
+
+        final ExecutionCallbackWrapper executionCallback = new ExecutionCallbackWrapper();
+        exchange.placeOrder(placeOrder("4", Side.BUY, 10200, 3), executionCallback);
+
+        executionCallback.verifyTimestamps(4L, 4L, 4L, 4L, 4L, 4L, 4L, 4L, 4L, 4L);
+    }
+
+    @Test
+    public void executionsCarryNanosecondTimestamp()
+    {
+        clockRule.install(new ManualClock().setTime(1000000123L, TimeUnit.NANOSECONDS));
+        final ExecutionCallbackWrapper executionCallback = new ExecutionCallbackWrapper();
+        final Exchange exchange = new Exchange();
+        exchange.placeOrder(placeOrder("1", Side.SELL, 10000, 1), executionCallback);
+
+        executionCallback.verifyTimestamps(1000L, 1000L);
+        executionCallback.verifyTimestampNanos(1000000123L, 1000000123L);
+    }
+
+    @Test
+    public void suppliedInstructionTimeUsedInsteadOfClock()
+    {
+        final ExecutionCallbackWrapper executionCallback = new ExecutionCallbackWrapper();
+        final Exchange exchange = new Exchange();
+        exchange.placeOrder(placeOrder("1", Side.SELL, 10000, 1), executionCallback, 7000000042L);
+
+        executionCallback.verifyTimestamps(7000L, 7000L);
+        executionCallback.verifyTimestampNanos(7000000042L, 7000000042L);
+    }
+
+    private static class TickingClock extends Clock
+    {
+        private long time;
+
+        @Override
+        protected void sleepFor(final long duration, final TimeUnit timeUnit)
+        {
+        }
+
+        @Override
+        protected long currentTime(final TimeUnit timeUnit)
+        {
+            return timeUnit.convert(++time, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package ayizan.service.exchange;
+
+import ayizan.domain.Depths.DepthAction;
+import ayizan.domain.Depths.DepthUpdate;
+import ayizan.domain.Executions.AcceptExecution;
+import ayizan.domain.Executions.CancelExecution;
+import ayizan.domain.Executions.ReplaceExecution;
+import ayizan.domain.Executions.StatusExecution;
+import ayizan.domain.Executions.TradeExecution;
+import ayizan.domain.Orders.CancelOrderSpecification;
+import ayizan.domain.Orders.CancelReplaceOrderSpecification;
+import ayizan.domain.Orders.OrderStatusSpecification;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.orderbook.OrderBook.LevelVisitor;
+import ayizan.kernel.clock.ManualClock;
+import ayizan.service.ExecutionVenue.ExecutionCallback;
+import ayizan.service.ExecutionVenue.ExecutionWriter;
+import ayizan.service.exchange.ExchangeUnitTest.ExecutionCallbackWrapper;
+import ayizan.support.codec.ExecutionFlyweight;
+import ayizan.test.Fixtures.ClockRule;
+import com.google.protobuf.Message;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static ayizan.service.exchange.Exchange.DEFAULT_INSTRUMENT;
+import static ayizan.test.Fixtures.placeOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class ExecutionWriterUnitTest
+{
+    private static final String SYMBOL = DEFAULT_INSTRUMENT.getSymbol();
+
+    @Rule
+    public ClockRule clockRule = new ClockRule();
+
+    @Before
+    public void setUp()
+    {
+        clockRule.install(new ManualClock().setTime(1000L, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void writtenExecutionsMatchNotifiedExecutions()
+    {
+        final ExecutionCallbackWrapper notifiedExecutions = new ExecutionCallbackWrapper();
+        final WritingCallback writtenExecutions = new WritingCallback();
+        execute(new Exchange(), notifiedExecutions);
+        execute(new Exchange(), writtenExecutions);
+
+        final Long[] timestamps = new Long[13];
+        Arrays.fill(timestamps, 1000L);
+        notifiedExecutions.verifyTimestamps(timestamps);
+        writtenExecutions.verifyNotifications(notifiedExecutions);
+    }
+
+    @Test
+    public void rejectionWrittenWithoutPreviousExecutionState()
+    {
+        final WritingCallback writtenExecutions = new WritingCallback();
+        final Exchange exchange = new Exchange();
+        exchange.placeOrder(placeOrder("1", Side.SELL, 10000, 5), writtenExecutions);
+        exchange.cancelOrder(CancelOrderSpecification.newBuilder().setId("2").setAttributionId(1).setSymbol(SYMBOL).setCancelId("1"), writtenExecutions);
+        exchange.cancelOrder(CancelOrderSpecification.newBuilder().setId("3").setAttributionId(1).setSymbol(SYMBOL).setCancelId("1"), writtenExecutions);
+
+        final CancelExecution cancelRejection = writtenExecutions.executionFlyweight.wrap(writtenExecutions.buffer, 0).mergeTo(CancelExecution.newBuilder()).build();
+        assertThat(cancelRejection.getId(), equalTo("3"));
+        assertThat(cancelRejection.hasRejectReason(), equalTo(true));
+        assertThat(cancelRejection.hasExecutionId(), equalTo(false));
+        assertThat(cancelRejection.hasOrder(), equalTo(false));
+    }
+
+    private static void execute(final Exchange exchange, final ExecutionCallback executionCallback)
+    {
+        exchange.placeOrder(placeOrder("1", Side.SELL, 10000, 5), executionCallback);
+        exchange.placeOrder(placeOrder("2", Side.BUY, 10000, 2), executionCallback);
+        exchange.cancelReplaceOrder(CancelReplaceOrderSpecification.newBuilder().setId("3").setAttributionId(1).setSymbol(SYMBOL).setCancelId("1").setPrice(10100).setQuantity(4), executionCallback);
+        exchange.orderStatus(OrderStatusSpecification.newBuilder().setId("4").setAttributionId(1).setSymbol(SYMBOL).setStatusId("3"), executionCallback);
+        exchange.cancelOrder(CancelOrderSpecification.newBuilder().setId("5").setAttributionId(1).setSymbol(SYMBOL).setCancelId("3"), executionCallback);
+        exchange.placeOrder(placeOrder("7", Side.BUY, 10000, 0), executionCallback);
+    }
+
+    private static class WritingCallback extends ExecutionCallbackWrapper implements ExecutionWriter
+    {
+        private final ExecutionFlyweight executionFlyweight = new ExecutionFlyweight();
+        private ByteBuffer buffer;
+        private Message.Builder execution;
+
+        @Override
+        public ExecutionFlyweight claimAcceptExecution(final int length)
+        {
+            return claim(AcceptExecution.newBuilder(), length);
+        }
+
+        @Override
+        public ExecutionFlyweight claimTradeExecution(final int length)
+        {
+            return claim(TradeExecution.newBuilder(), length);
+        }
+
+        @Override
+        public ExecutionFlyweight claimReplaceExecution(final int length)
+        {
+            return claim(ReplaceExecution.newBuilder(), length);
+        }
+
+        @Override
+        public ExecutionFlyweight claimCancelExecution(final int length)
+        {
+            return claim(CancelExecution.newBuilder(), length);
+        }
+
+        @Override
+        public ExecutionFlyweight claimStatusExecution(final int length)
+        {
+            return claim(StatusExecution.newBuilder(), length);
+        }
+
+        @Override
+        public void publish()
+        {
+            if(execution instanceof AcceptExecution.Builder) notify(executionFlyweight.mergeTo((AcceptExecution.Builder) execution));
+            else if(execution instanceof TradeExecution.Builder) notify(executionFlyweight.mergeTo((TradeExecution.Builder) execution));
+            else if(execution instanceof ReplaceExecution.Builder) notify(executionFlyweight.mergeTo((ReplaceExecution.Builder) execution));
+            else if(execution instanceof CancelExecution.Builder) notify(executionFlyweight.mergeTo((CancelExecution.Builder) execution));
+            else if(execution instanceof StatusExecution.Builder) notify(executionFlyweight.mergeTo((StatusExecution.Builder) execution));
+        }
+
+        @Override
+        public void writeDepthUpdate(final String symbol, final long timestampNanos, final DepthAction action, final Side side, final long price, final long quantity, final int orderCount)
+        {
+            notify(DepthUpdate.newBuilder().
+                    setSymbol(symbol).
+                    setTimestampNanos(timestampNanos).
+                    setAction(action).
+                    setSide(side).
+                    setPrice(price).
+                    setQuantity(quantity).
+                    setOrderCount(orderCount));
+        }
+
+        @Override
+        public LevelVisitor claimDepthSnapshot(final String symbol, final long timestampNanos)
+        {
+            return null;
+        }
+
+        @Override
+        public void publishDepthSnapshot()
+        {
+        }
+
+        private ExecutionFlyweight claim(final Message.Builder execution, final int length)
+        {
+            this.execution = execution;
+            this.buffer = ByteBuffer.allocate(length);
+            return executionFlyweight.wrap(buffer, 0);
+        }
+    }
+}
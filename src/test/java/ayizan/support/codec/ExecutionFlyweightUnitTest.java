@@ -0,0 +1,102 @@
+package ayizan.support.codec;
+
+import ayizan.domain.Executions.AcceptExecution;
+import ayizan.domain.Executions.CancelExecution;
+import ayizan.domain.Executions.OrderState;
+import ayizan.domain.Executions.RejectReason;
+import ayizan.domain.Executions.ReplaceExecution;
+import ayizan.domain.Executions.TradeExecution;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class ExecutionFlyweightUnitTest
+{
+    private static final OrderState ORDER = OrderState.newBuilder().
+            setOrderId(11).
+            setSide(Side.BUY).
+            setPrice(10000).
+            setQuantity(5).
+            setWorkingQuantity(3).
+            setFilledQuantity(2).
+            setTimeInForce(TimeInForce.GOOD_TILL_CANCEL).
+            build();
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(256);
+    private final ExecutionFlyweight executionFlyweight = new ExecutionFlyweight();
+
+    @Test
+    public void acceptExecutionRoundTrip()
+    {
+        final AcceptExecution acceptExecution = AcceptExecution.newBuilder().
+                setTimestamp(1000L).
+                setId("1").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setExecutionId(21).
+                setOrder(ORDER).
+                build();
+        executionFlyweight.wrap(buffer, 4).set(acceptExecution);
+
+        assertThat(executionFlyweight.length(), equalTo(ExecutionFlyweight.encodedLength(acceptExecution)));
+        assertThat(executionFlyweight.mergeTo(AcceptExecution.newBuilder()).build(), equalTo(acceptExecution));
+    }
+
+    @Test
+    public void tradeExecutionRoundTrip()
+    {
+        final TradeExecution tradeExecution = TradeExecution.newBuilder().
+                setTimestamp(1000L).
+                setId("1").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setTimestampNanos(1000000123L).
+                setExecutionId(22).
+                setOrder(ORDER).
+                setTradePrice(9999).
+                setTradeQuantity(2).
+                build();
+        executionFlyweight.wrap(buffer, 0).set(tradeExecution);
+
+        assertThat(executionFlyweight.mergeTo(TradeExecution.newBuilder()).build(), equalTo(tradeExecution));
+    }
+
+    @Test
+    public void replaceExecutionRoundTrip()
+    {
+        final ReplaceExecution replaceExecution = ReplaceExecution.newBuilder().
+                setTimestamp(1000L).
+                setId("2").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setExecutionId(23).
+                setCancelId("1").
+                setCancelOrder(ORDER).
+                setReplaceOrder(ORDER.toBuilder().setOrderId(12).clearPrice()).
+                build();
+        executionFlyweight.wrap(buffer, 0).set(replaceExecution);
+
+        assertThat(executionFlyweight.mergeTo(ReplaceExecution.newBuilder()).build(), equalTo(replaceExecution));
+    }
+
+    @Test
+    public void cancelRejectionRoundTrip()
+    {
+        final CancelExecution cancelExecution = CancelExecution.newBuilder().
+                setTimestamp(1000L).
+                setId("3").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setCancelId("1").
+                setRejectReason(RejectReason.UNKNOWN_ORDER).
+                build();
+        executionFlyweight.wrap(buffer, 0).set(cancelExecution);
+
+        assertThat(executionFlyweight.mergeTo(CancelExecution.newBuilder()).build(), equalTo(cancelExecution));
+    }
+}
@@ -0,0 +1,157 @@
+package ayizan.support.codec;
+
+import ayizan.domain.Orders.CancelOrderSpecification;
+import ayizan.domain.Orders.CancelReplaceOrderSpecification;
+import ayizan.domain.Orders.OrderStatusSpecification;
+import ayizan.domain.Orders.PlaceOrderSpecification;
+import ayizan.domain.Orders.PlaceOrderSpecificationOrBuilder;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import com.google.protobuf.Message;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class InstructionFlyweightUnitTest
+{
+    private final ByteBuffer buffer = ByteBuffer.allocate(256);
+    private final InstructionFlyweight instructionFlyweight = new InstructionFlyweight();
+
+    @Test
+    public void placeOrderSpecificationRoundTrip()
+    {
+        final PlaceOrderSpecification placeOrderSpecification = PlaceOrderSpecification.newBuilder().
+                setId("1").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setSymbolId(7).
+                setSide(Side.SELL).
+                setPrice(10000).
+                setQuantity(5).
+                setTimeInForce(TimeInForce.FILL_OR_KILL).
+                build();
+        instructionFlyweight.wrap(buffer, 8).set(placeOrderSpecification);
+
+        assertThat(instructionFlyweight.length(), equalTo(InstructionFlyweight.encodedLength(placeOrderSpecification)));
+        assertThat(instructionFlyweight.mergeTo(PlaceOrderSpecification.newBuilder()).build(), equalTo(placeOrderSpecification));
+    }
+
+    @Test
+    public void marketPlaceOrderSpecificationWithoutSymbolIdRoundTrip()
+    {
+        final PlaceOrderSpecification placeOrderSpecification = PlaceOrderSpecification.newBuilder().
+                setId("1").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setSide(Side.BUY).
+                setQuantity(5).
+                setTimeInForce(TimeInForce.IMMEDIATE_OR_CANCEL).
+                build();
+        instructionFlyweight.wrap(buffer, 0).set(placeOrderSpecification);
+
+        assertThat(instructionFlyweight.hasSymbolId(), equalTo(false));
+        assertThat(instructionFlyweight.hasPrice(), equalTo(false));
+        assertThat(instructionFlyweight.mergeTo(PlaceOrderSpecification.newBuilder()).build(), equalTo(placeOrderSpecification));
+    }
+
+    @Test
+    public void cancelSpecificationsRoundTrip()
+    {
+        final CancelReplaceOrderSpecification cancelReplaceOrderSpecification = CancelReplaceOrderSpecification.newBuilder().
+                setId("2").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setCancelId("1").
+                setPrice(10001).
+                setQuantity(6).
+                build();
+        instructionFlyweight.wrap(buffer, 0).set(cancelReplaceOrderSpecification);
+        assertThat(instructionFlyweight.mergeTo(CancelReplaceOrderSpecification.newBuilder()).build(), equalTo(cancelReplaceOrderSpecification));
+
+        final CancelOrderSpecification cancelOrderSpecification = CancelOrderSpecification.newBuilder().
+                setId("3").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setSymbolId(7).
+                setCancelId("2").
+                build();
+        instructionFlyweight.wrap(buffer, 0).set(cancelOrderSpecification);
+        assertThat(instructionFlyweight.mergeTo(CancelOrderSpecification.newBuilder()).build(), equalTo(cancelOrderSpecification));
+
+        final OrderStatusSpecification orderStatusSpecification = OrderStatusSpecification.newBuilder().
+                setId("4").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setStatusId("2").
+                build();
+        instructionFlyweight.wrap(buffer, 0).set(orderStatusSpecification);
+        assertThat(instructionFlyweight.mergeTo(OrderStatusSpecification.newBuilder()).build(), equalTo(orderStatusSpecification));
+    }
+
+    @Test
+    public void placeOrderSpecificationViewReadsSlot()
+    {
+        final PlaceOrderSpecification placeOrderSpecification = PlaceOrderSpecification.newBuilder().
+                setId("1").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setSide(Side.SELL).
+                setPrice(10000).
+                setQuantity(5).
+                setTimeInForce(TimeInForce.GOOD_TILL_CANCEL).
+                build();
+        instructionFlyweight.wrap(buffer, 0).set(placeOrderSpecification);
+
+        final PlaceOrderSpecificationOrBuilder placeOrderSpecificationView = instructionFlyweight.asPlaceOrderSpecification();
+        assertThat(placeOrderSpecificationView.getSide(), equalTo(Side.SELL));
+        assertThat(placeOrderSpecificationView.hasSymbolId(), equalTo(false));
+        assertThat(PlaceOrderSpecification.newBuilder().mergeFrom((Message) placeOrderSpecificationView).build(), equalTo(placeOrderSpecification));
+    }
+
+    @Test
+    public void repeatedIdentifiersInterned()
+    {
+        instructionFlyweight.wrap(buffer, 0).set(CancelOrderSpecification.newBuilder().
+                setId("3").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setCancelId("2"));
+        final String symbol = instructionFlyweight.getSymbol();
+        final String cancelId = instructionFlyweight.getCancelId();
+
+        instructionFlyweight.wrap(buffer, 64).set(OrderStatusSpecification.newBuilder().
+                setId("4").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setStatusId("2"));
+        assertThat(instructionFlyweight.getSymbol(), sameInstance(symbol));
+        assertThat(instructionFlyweight.getStatusId(), sameInstance(cancelId));
+        assertThat(instructionFlyweight.getId(), equalTo("4"));
+    }
+
+    @Test
+    public void symbolHashMatchesSymbol()
+    {
+        instructionFlyweight.wrap(buffer, 0).set(OrderStatusSpecification.newBuilder().
+                setId("4").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setStatusId("2"));
+
+        assertThat(InstructionFlyweight.symbolHash(buffer, 0), equalTo("XXX.GOOG".hashCode()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonAsciiIdRejected()
+    {
+        instructionFlyweight.wrap(buffer, 0).set(OrderStatusSpecification.newBuilder().
+                setId("\u00e9").
+                setAttributionId(300).
+                setSymbol("XXX.GOOG").
+                setStatusId("2"));
+    }
+}
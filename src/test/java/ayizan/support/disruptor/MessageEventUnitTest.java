@@ -0,0 +1,83 @@
+package ayizan.support.disruptor;
+
+import ayizan.domain.Orders.PlaceOrderSpecification;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import ayizan.message.Messages.Packet;
+import ayizan.message.exchange.Dictionary.Type;
+import ayizan.message.exchange.Instructions.PlaceOrderInstruction;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+public class MessageEventUnitTest
+{
+    @Test
+    public void messageTranslatedThroughSlot()
+    {
+        final MessageEvent event = MessageEvent.newEventFactory().newInstance();
+        event.translateFrom(Type.PLACE_ORDER_INSTRUCTION_VALUE, placeOrderInstruction("XXX.GOOG"));
+
+        final PlaceOrderInstruction.Builder placeOrderInstruction = PlaceOrderInstruction.newBuilder();
+        event.translateTo(Type.PLACE_ORDER_INSTRUCTION_VALUE, placeOrderInstruction);
+
+        assertThat(placeOrderInstruction.build(), equalTo(placeOrderInstruction("XXX.GOOG").build()));
+    }
+
+    @Test
+    public void slotReusedForConsecutiveMessages()
+    {
+        final MessageEvent event = MessageEvent.newEventFactory().newInstance();
+        final PlaceOrderInstruction.Builder placeOrderInstruction = PlaceOrderInstruction.newBuilder();
+        for(final String symbol : new String[] {"XXX.GOOGLE", "XXX.GOOG", "XXX.A"}) {
+            event.translateFrom(Type.PLACE_ORDER_INSTRUCTION_VALUE, placeOrderInstruction(symbol));
+            event.translateTo(Type.PLACE_ORDER_INSTRUCTION_VALUE, placeOrderInstruction);
+
+            assertThat(placeOrderInstruction.build(), equalTo(placeOrderInstruction(symbol).build()));
+        }
+    }
+
+    @Test
+    public void packetTranslatedThroughSlot()
+    {
+        final MessageEvent event = MessageEvent.newEventFactory().newInstance();
+        final Packet.Builder packet = Packet.newBuilder().
+                setId(1).
+                setSchema(Type.PLACE_ORDER_INSTRUCTION_VALUE).
+                setPayload(placeOrderInstruction("XXX.GOOG").build().toByteString());
+        event.translateFrom(packet.getSchema(), packet.getPayload().asReadOnlyByteBuffer(), new SymbolPartitioner(3));
+
+        final Packet.Builder publishedPacket = Packet.newBuilder().setId(1);
+        event.translateTo(publishedPacket);
+
+        assertThat(publishedPacket.build(), equalTo(packet.build()));
+        assertThat(event.partition(), equalTo(("XXX.GOOG".hashCode() & Integer.MAX_VALUE) % 3));
+    }
+
+    @Test
+    public void slotGrowsToLargerMessage()
+    {
+        final MessageEvent event = MessageEvent.newEventFactory(16).newInstance();
+        event.translateFrom(Type.PLACE_ORDER_INSTRUCTION_VALUE, placeOrderInstruction("XXX.GOOG"));
+
+        final PlaceOrderInstruction.Builder placeOrderInstruction = PlaceOrderInstruction.newBuilder();
+        event.translateTo(Type.PLACE_ORDER_INSTRUCTION_VALUE, placeOrderInstruction);
+
+        assertThat(event.capacity(), greaterThan(16));
+        assertThat(placeOrderInstruction.build(), equalTo(placeOrderInstruction("XXX.GOOG").build()));
+    }
+
+    private static PlaceOrderInstruction.Builder placeOrderInstruction(final String symbol)
+    {
+        return PlaceOrderInstruction.newBuilder().setType(Type.PLACE_ORDER_INSTRUCTION).setPlaceOrder(PlaceOrderSpecification.newBuilder().
+                setId("1").
+                setAttributionId(300).
+                setSymbol(symbol).
+                setSide(Side.BUY).
+                setPrice(100).
+                setQuantity(1).
+                setTimeInForce(TimeInForce.GOOD_TILL_CANCEL));
+    }
+}
@@ -0,0 +1,103 @@
+package ayizan.support.disruptor;
+
+import ayizan.service.exchange.Exchange;
+import ayizan.support.codec.Encoding;
+import ayizan.support.disruptor.MessageServiceConfiguration.MessageServiceConfigurationBuilder;
+import ayizan.support.zeromq.ZmqConnector.Subscription;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class MessageServiceConfigurationUnitTest
+{
+    @Test
+    public void defaultConfiguration()
+    {
+        final MessageServiceConfiguration configuration = MessageServiceConfiguration.DEFAULT_CONFIGURATION;
+
+        assertThat(configuration.getInboundProducerType(), equalTo(ProducerType.MULTI));
+        assertThat(configuration.getInboundWaitStrategy(), equalTo(WaitStrategyType.BUSY_SPIN));
+        assertThat(configuration.getOutboundProducerType(), equalTo(ProducerType.MULTI));
+        assertThat(configuration.getOutboundWaitStrategy(), equalTo(WaitStrategyType.BUSY_SPIN));
+        assertThat(configuration.getExecutionEncoding(), equalTo(Encoding.PROTOBUF));
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void timedWaitStrategyTimesOut() throws Exception
+    {
+        final RingBuffer<MessageEvent> ringBuffer = RingBuffer.createMultiProducer(MessageEvent.newEventFactory(16), 16, WaitStrategyType.BUSY_SPIN.newWaitStrategy(1, TimeUnit.MILLISECONDS));
+        ringBuffer.newBarrier().waitFor(0);
+    }
+
+    @Test
+    public void waitStrategyAppliedToBothRings()
+    {
+        final MessageServiceConfiguration configuration = MessageServiceConfigurationBuilder.newBuilder().
+                setWaitStrategy(WaitStrategyType.BLOCKING).
+                build();
+
+        assertThat(configuration.getInboundWaitStrategy(), equalTo(WaitStrategyType.BLOCKING));
+        assertThat(configuration.getOutboundWaitStrategy(), equalTo(WaitStrategyType.BLOCKING));
+    }
+
+    @Test
+    public void waitStrategyInstancesNotShared()
+    {
+        assertThat(WaitStrategyType.BLOCKING.newWaitStrategy(), instanceOf(BlockingWaitStrategy.class));
+        assertThat(WaitStrategyType.BLOCKING.newWaitStrategy(), not(sameInstance(WaitStrategyType.BLOCKING.newWaitStrategy())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ringSizeMustBePowerOfTwo()
+    {
+        MessageServiceConfigurationBuilder.newBuilder().setInboundRingSize(1000).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cpuListMustBeValid()
+    {
+        MessageServiceConfigurationBuilder.newBuilder().setMatchingCpus("2-3,x").build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void secondSubscriptionRejectedForSingleProducerInboundRing() throws Exception
+    {
+        final MessageService messageService = new MessageService(MessageServiceConfigurationBuilder.newBuilder().setInboundProducerType(ProducerType.SINGLE).build(), null, new Exchange());
+        try {
+            messageService.subscribe(mock(Subscription.class));
+            messageService.subscribe(mock(Subscription.class));
+        }
+        finally {
+            messageService.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void matchingCpuRequiredForEveryPartition()
+    {
+        new MessageService(MessageServiceConfigurationBuilder.newBuilder().setMatchingCpus("2").build(), null, new Exchange(), new Exchange());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unboundMatchingCpuRejected()
+    {
+        new MessageService(MessageServiceConfigurationBuilder.newBuilder().setMatchingCpus("4095").build(), null, new Exchange());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleProducerOutboundRingRejectedForPartitionedExchanges()
+    {
+        new MessageService(MessageServiceConfigurationBuilder.newBuilder().setOutboundProducerType(ProducerType.SINGLE).build(), null, new Exchange(), new Exchange());
+    }
+}
@@ -0,0 +1,93 @@
+package ayizan.support.disruptor;
+
+import ayizan.domain.Orders.CancelOrderSpecification;
+import ayizan.domain.Orders.CancelReplaceOrderSpecification;
+import ayizan.domain.Orders.OrderStatusSpecification;
+import ayizan.domain.Orders.PlaceOrderSpecification;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import ayizan.message.exchange.Dictionary.Type;
+import ayizan.message.exchange.Instructions.CancelOrderInstruction;
+import ayizan.message.exchange.Instructions.CancelReplaceOrderInstruction;
+import ayizan.message.exchange.Instructions.OrderStatusInstruction;
+import ayizan.message.exchange.Instructions.PlaceOrderInstruction;
+import com.google.protobuf.ByteString;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class SymbolPartitionerUnitTest
+{
+    private static final String SYMBOL = "XXX.GOOG";
+
+    @Test
+    public void symbolHashForPlaceOrderInstruction()
+    {
+        final ByteString payload = PlaceOrderInstruction.newBuilder().setType(Type.PLACE_ORDER_INSTRUCTION).setPlaceOrder(PlaceOrderSpecification.newBuilder().
+                setId("1").
+                setAttributionId(300).
+                setSymbol(SYMBOL).
+                setSide(Side.BUY).
+                setPrice(-1).
+                setQuantity(1).
+                setTimeInForce(TimeInForce.GOOD_TILL_CANCEL)).build().toByteString();
+
+        assertThat(SymbolPartitioner.symbolHash(payload), equalTo(SYMBOL.hashCode()));
+    }
+
+    @Test
+    public void symbolHashForCancelReplaceOrderInstruction()
+    {
+        final ByteString payload = CancelReplaceOrderInstruction.newBuilder().setType(Type.CANCEL_REPLACE_ORDER_INSTRUCTION).setCancelReplaceOrder(CancelReplaceOrderSpecification.newBuilder().
+                setId("2").
+                setAttributionId(1).
+                setSymbol(SYMBOL).
+                setCancelId("1").
+                setPrice(1).
+                setQuantity(1)).build().toByteString();
+
+        assertThat(SymbolPartitioner.symbolHash(payload), equalTo(SYMBOL.hashCode()));
+    }
+
+    @Test
+    public void symbolHashForCancelOrderAndOrderStatusInstructions()
+    {
+        final ByteString cancelPayload = CancelOrderInstruction.newBuilder().setType(Type.CANCEL_ORDER_INSTRUCTION).setCancelOrder(CancelOrderSpecification.newBuilder().
+                setId("2").
+                setAttributionId(1).
+                setSymbol(SYMBOL).
+                setCancelId("1")).build().toByteString();
+        final ByteString statusPayload = OrderStatusInstruction.newBuilder().setType(Type.ORDER_STATUS_INSTRUCTION).setOrderStatus(OrderStatusSpecification.newBuilder().
+                setId("3").
+                setAttributionId(1).
+                setSymbol(SYMBOL).
+                setStatusId("1")).build().toByteString();
+
+        assertThat(SymbolPartitioner.symbolHash(cancelPayload), equalTo(SYMBOL.hashCode()));
+        assertThat(SymbolPartitioner.symbolHash(statusPayload), equalTo(SYMBOL.hashCode()));
+    }
+
+    @Test
+    public void partitionWithinRange()
+    {
+        final SymbolPartitioner symbolPartitioner = new SymbolPartitioner(3);
+        for(int i = 0; i < 100; i++) {
+            final ByteString payload = CancelOrderInstruction.newBuilder().setType(Type.CANCEL_ORDER_INSTRUCTION).setCancelOrder(CancelOrderSpecification.newBuilder().
+                    setId("1").
+                    setAttributionId(1).
+                    setSymbol("XXX." + i).
+                    setCancelId("1")).build().toByteString();
+            assertThat(symbolPartitioner.partition(payload), equalTo((("XXX." + i).hashCode() & Integer.MAX_VALUE) % 3));
+        }
+    }
+
+    @Test
+    public void malformedPayloadMappedToFirstPartition()
+    {
+        final SymbolPartitioner symbolPartitioner = new SymbolPartitioner(4);
+
+        assertThat(symbolPartitioner.partition(ByteString.EMPTY), equalTo(0));
+        assertThat(symbolPartitioner.partition(ByteString.copyFrom(new byte[] {0x12, 0x7f, 0x1a})), equalTo(0));
+    }
+}
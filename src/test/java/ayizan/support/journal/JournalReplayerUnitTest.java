@@ -0,0 +1,201 @@
+package ayizan.support.journal;
+
+import ayizan.domain.Executions.TradeExecutionOrBuilder;
+import ayizan.domain.Orders.CancelOrderSpecification;
+import ayizan.domain.Orders.PlaceOrderSpecification;
+import ayizan.domain.Orders.PlaceOrderSpecificationOrBuilder;
+import ayizan.domain.Orders.Side;
+import ayizan.kernel.clock.Clock;
+import ayizan.message.exchange.Dictionary.Type;
+import ayizan.message.exchange.Instructions.CancelOrderInstruction;
+import ayizan.message.exchange.Instructions.PlaceOrderInstruction;
+import ayizan.service.ExecutionVenue;
+import ayizan.service.ExecutionVenue.ExecutionCallback;
+import ayizan.service.exchange.Exchange;
+import ayizan.support.codec.Encoding;
+import ayizan.support.codec.InstructionFlyweight;
+import ayizan.support.disruptor.SymbolPartitioner;
+import ayizan.test.Fixtures;
+import com.google.protobuf.Message;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static ayizan.domain.StandardUnits.toLots;
+import static ayizan.domain.StandardUnits.toTicks;
+import static ayizan.service.exchange.Exchange.DEFAULT_INSTRUMENT;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JournalReplayerUnitTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Journal journal;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        journal = new Journal(temporaryFolder.getRoot(), 1024);
+    }
+
+    @Test
+    public void instructionsReplayedWithRecordedTimestamps() throws Exception
+    {
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 1000000123L, placeOrder("1", Side.SELL).build().toByteString());
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 2000000456L, placeOrder("2", Side.BUY).build().toByteString());
+        journal.close();
+
+        final List<Long> tradeTimestamps = new ArrayList<Long>();
+        final ExecutionCallback executionCallback = mock(ExecutionCallback.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+            {
+                tradeTimestamps.add(((TradeExecutionOrBuilder) invocation.getArguments()[0]).getTimestampNanos());
+                return null;
+            }
+        }).when(executionCallback).notify(any(TradeExecutionOrBuilder.class));
+
+        final long records = new JournalReplayer(new JournalReader(temporaryFolder.getRoot())).replay(new Exchange(), executionCallback);
+
+        assertThat(records, equalTo(2L));
+        assertThat(tradeTimestamps, equalTo(Arrays.asList(2000000456L, 2000000456L)));
+    }
+
+    @Test
+    public void instructionsReplayedInOrder() throws Exception
+    {
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 1000L, placeOrder("1", Side.SELL).build().toByteString());
+        journal.append(Type.CANCEL_ORDER_INSTRUCTION_VALUE, 2000L, CancelOrderInstruction.newBuilder().
+                setType(Type.CANCEL_ORDER_INSTRUCTION).
+                setCancelOrder(CancelOrderSpecification.newBuilder().
+                        setId("CANCEL_1").
+                        setAttributionId(1).
+                        setSymbol(DEFAULT_INSTRUMENT.getSymbol()).
+                        setCancelId("1")).
+                build().toByteString());
+        journal.close();
+
+        final ExecutionVenue executionVenue = mock(ExecutionVenue.class);
+        new JournalReplayer(new JournalReader(temporaryFolder.getRoot())).replay(executionVenue);
+
+        verify(executionVenue).placeOrder(any(PlaceOrderSpecification.Builder.class), any(ExecutionCallback.class));
+        verify(executionVenue).cancelOrder(any(CancelOrderSpecification.Builder.class), any(ExecutionCallback.class));
+    }
+
+    @Test
+    public void binaryInstructionsReplayed() throws Exception
+    {
+        final PlaceOrderSpecification placeOrderSpecification = placeOrder("1", Side.SELL).getPlaceOrder();
+        final ByteBuffer buffer = ByteBuffer.allocate(InstructionFlyweight.encodedLength(placeOrderSpecification));
+        new InstructionFlyweight().wrap(buffer, 0).set(placeOrderSpecification);
+        journal.append(Encoding.BINARY.schema(Type.PLACE_ORDER_INSTRUCTION_VALUE), 1000L, buffer.array(), 0, buffer.capacity());
+        journal.close();
+
+        final List<PlaceOrderSpecification> replayedPlaceOrderSpecifications = new ArrayList<PlaceOrderSpecification>();
+        final ExecutionVenue executionVenue = mock(ExecutionVenue.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+            {
+                replayedPlaceOrderSpecifications.add(PlaceOrderSpecification.newBuilder().mergeFrom((Message) invocation.getArguments()[0]).build());
+                return null;
+            }
+        }).when(executionVenue).placeOrder(any(PlaceOrderSpecificationOrBuilder.class), any(ExecutionCallback.class));
+        new JournalReplayer(new JournalReader(temporaryFolder.getRoot())).replay(executionVenue);
+
+        assertThat(replayedPlaceOrderSpecifications, equalTo(Arrays.asList(placeOrderSpecification)));
+    }
+
+    @Test
+    public void clockRestoredAfterReplay() throws Exception
+    {
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 1000L, placeOrder("1", Side.SELL).build().toByteString());
+        journal.close();
+
+        final Clock clock = Clock.getClock();
+        new JournalReplayer(new JournalReader(temporaryFolder.getRoot())).replay(new Exchange());
+
+        assertThat(Clock.getClock(), sameInstance(clock));
+    }
+
+    @Test
+    public void recoveryReplaysJournalFromSnapshotSequence() throws Exception
+    {
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 1000L, placeOrder("1", Side.SELL).build().toByteString());
+        final Exchange snapshotExchange = new Exchange();
+        new JournalReplayer(new JournalReader(temporaryFolder.getRoot())).replay(snapshotExchange);
+        final DataOutputStream output = new DataOutputStream(new FileOutputStream(journal.getSnapshotFile(0)));
+        snapshotExchange.writeSnapshot(output, journal.getRecordCount());
+        output.close();
+
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 2000L, placeOrder("2", Side.SELL).build().toByteString());
+        journal.close();
+
+        final Exchange exchange = new Exchange();
+        final long records = new JournalReplayer(new JournalReader(temporaryFolder.getRoot())).recover(exchange, journal.getSnapshotFile(0));
+
+        assertThat(records, equalTo(2L));
+        assertThat(exchange.getMetrics().getSymbolMetrics(DEFAULT_INSTRUMENT.getSymbol()).getPlaceOrderCount(), equalTo(1L));
+        assertThat(exchange.getMetrics().getSymbolMetrics(DEFAULT_INSTRUMENT.getSymbol()).getRestingOrderCount(), equalTo(2L));
+    }
+
+    @Test
+    public void partitionedReplaySkipsOtherPartitions() throws Exception
+    {
+        final PlaceOrderInstruction otherPartitionPlaceOrder = placeOrder("1", Side.SELL).setPlaceOrder(placeOrder("1", Side.SELL).getPlaceOrderBuilder().setSymbol("XXX.GOOG")).build();
+        final PlaceOrderInstruction partitionPlaceOrder = placeOrder("2", Side.SELL).setPlaceOrder(placeOrder("2", Side.SELL).getPlaceOrderBuilder().setSymbol("XXX.EBAY")).build();
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 1000L, otherPartitionPlaceOrder.toByteString());
+        journal.append(Type.PLACE_ORDER_INSTRUCTION_VALUE, 2000L, partitionPlaceOrder.toByteString());
+        journal.close();
+
+        final SymbolPartitioner symbolPartitioner = new SymbolPartitioner(2);
+        final int partition = symbolPartitioner.partition(partitionPlaceOrder.toByteString());
+        assertThat(symbolPartitioner.partition(otherPartitionPlaceOrder.toByteString()), not(equalTo(partition)));
+
+        final List<String> replayedSymbols = new ArrayList<String>();
+        final ExecutionVenue executionVenue = mock(ExecutionVenue.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+            {
+                replayedSymbols.add(((PlaceOrderSpecificationOrBuilder) invocation.getArguments()[0]).getSymbol());
+                return null;
+            }
+        }).when(executionVenue).placeOrder(any(PlaceOrderSpecificationOrBuilder.class), any(ExecutionCallback.class));
+        new JournalReplayer(new JournalReader(temporaryFolder.getRoot()), symbolPartitioner, partition).replay(executionVenue);
+
+        assertThat(replayedSymbols, equalTo(Arrays.asList("XXX.EBAY")));
+    }
+
+    private PlaceOrderInstruction.Builder placeOrder(final String id, final Side side)
+    {
+        return PlaceOrderInstruction.newBuilder().
+                setType(Type.PLACE_ORDER_INSTRUCTION).
+                setPlaceOrder(Fixtures.placeOrder(id, side, toTicks(100.0), toLots(1.0)));
+    }
+}
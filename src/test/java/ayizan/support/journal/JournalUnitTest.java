@@ -0,0 +1,137 @@
+package ayizan.support.journal;
+
+import ayizan.kernel.clock.ManualClock;
+import ayizan.support.journal.Journal.SyncPolicy;
+import ayizan.support.journal.JournalReader.Handler;
+import ayizan.test.Fixtures.ClockRule;
+import com.google.protobuf.ByteString;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class JournalUnitTest
+{
+    private static final int SEGMENT_SIZE = 64;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ClockRule clockRule = new ClockRule();
+
+    @Test
+    public void recordsAppendedInOrder() throws Exception
+    {
+        final Journal journal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE);
+        journal.append(101, 1L, ByteString.copyFromUtf8("first"));
+        journal.append(102, 2L, ByteString.copyFromUtf8("second"));
+        journal.close();
+
+        assertThat(records(temporaryFolder.getRoot()), equalTo(Arrays.asList("101:first", "102:second")));
+    }
+
+    @Test
+    public void recordsRollIntoNewSegment() throws Exception
+    {
+        final Journal journal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE);
+        for(int i = 0; i < 10; i++) journal.append(101, 1L, ByteString.copyFromUtf8("record-" + i));
+        journal.close();
+
+        assertThat(Journal.segmentFiles(temporaryFolder.getRoot()).length, equalTo(5));
+        assertThat(records(temporaryFolder.getRoot()).size(), equalTo(10));
+        assertThat(records(temporaryFolder.getRoot()).get(9), equalTo("101:record-9"));
+    }
+
+    @Test
+    public void recordsAppendedAfterReopen() throws Exception
+    {
+        final Journal journal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE);
+        journal.append(101, 1L, ByteString.copyFromUtf8("first"));
+        journal.close();
+
+        final Journal reopenedJournal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE);
+        reopenedJournal.append(102, 2L, ByteString.copyFromUtf8("second"));
+        reopenedJournal.close();
+
+        assertThat(records(temporaryFolder.getRoot()), equalTo(Arrays.asList("101:first", "102:second")));
+    }
+
+    @Test
+    public void recordSequenceContinuesAfterReopen() throws Exception
+    {
+        final Journal journal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE);
+        for(int i = 0; i < 10; i++) assertThat(journal.append(101, 1L, ByteString.copyFromUtf8("record-" + i)), equalTo((long) i));
+        journal.close();
+
+        final Journal reopenedJournal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE);
+        assertThat(reopenedJournal.getRecordCount(), equalTo(10L));
+        assertThat(reopenedJournal.append(102, 2L, ByteString.copyFromUtf8("next")), equalTo(10L));
+        reopenedJournal.close();
+    }
+
+    @Test
+    public void periodicSyncForcesOncePerInterval() throws Exception
+    {
+        final ManualClock manualClock = clockRule.install(new ManualClock().setTime(0, TimeUnit.MILLISECONDS));
+        final Journal journal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE, SyncPolicy.PERIODIC, 10, TimeUnit.MILLISECONDS);
+        journal.flush();
+        manualClock.setTime(5, TimeUnit.MILLISECONDS);
+        journal.flush();
+        assertThat(journal.getSyncCount(), equalTo(0L));
+
+        manualClock.setTime(10, TimeUnit.MILLISECONDS);
+        journal.flush();
+        journal.flush();
+        assertThat(journal.getSyncCount(), equalTo(1L));
+        journal.close();
+    }
+
+    @Test
+    public void syncPolicyControlsBatchFlush() throws Exception
+    {
+        final Journal unsyncedJournal = new Journal(temporaryFolder.newFolder("none"), SEGMENT_SIZE, SyncPolicy.NONE, 0, TimeUnit.MILLISECONDS);
+        final Journal syncedJournal = new Journal(temporaryFolder.newFolder("batch"), SEGMENT_SIZE, SyncPolicy.EVERY_BATCH, 0, TimeUnit.MILLISECONDS);
+        for(int i = 0; i < 3; i++) {
+            unsyncedJournal.flush();
+            syncedJournal.flush();
+        }
+
+        assertThat(unsyncedJournal.getSyncCount(), equalTo(0L));
+        assertThat(syncedJournal.getSyncCount(), equalTo(3L));
+        unsyncedJournal.close();
+        syncedJournal.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordLargerThanSegmentRejected() throws Exception
+    {
+        final Journal journal = new Journal(temporaryFolder.getRoot(), SEGMENT_SIZE);
+        journal.append(101, 1L, ByteString.copyFrom(new byte[SEGMENT_SIZE]));
+    }
+
+    private static List<String> records(final File directory) throws Exception
+    {
+        final List<String> records = new ArrayList<String>();
+        new JournalReader(directory).read(new Handler()
+        {
+            @Override
+            public void next(final int type, final long timestamp, final ByteBuffer payload) throws Exception
+            {
+                final byte[] bytes = new byte[payload.remaining()];
+                payload.get(bytes);
+                records.add(type + ":" + new String(bytes, "UTF-8"));
+            }
+        });
+        return records;
+    }
+}
@@ -0,0 +1,58 @@
+package ayizan.support.zeromq;
+
+import ayizan.support.zeromq.FrameCodec.PacketView;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class FrameCodecUnitTest
+{
+    private final ByteBuffer buffer = ByteBuffer.allocate(256);
+    private final PacketView packet = new PacketView();
+
+    @Test
+    public void packetDecodedInPlace() throws Exception
+    {
+        FrameCodec.putPacket(buffer, 7, 300, new byte[] {0, 1, 2, 3, 4}, 1, 3);
+        buffer.flip();
+
+        FrameCodec.getPacket(buffer, FrameCodec.getPacketLimit(buffer), packet);
+
+        assertThat(packet.getId(), equalTo(7L));
+        assertThat(packet.getSchema(), equalTo(300));
+        assertThat(packet.getPayload(), equalTo(ByteBuffer.wrap(new byte[] {1, 2, 3})));
+        assertThat(buffer.hasRemaining(), equalTo(false));
+    }
+
+    @Test
+    public void malformedPacketSkippedWithinFrame() throws Exception
+    {
+        FrameCodec.putPacket(buffer, 1, 300, new byte[] {1}, 0, 1);
+        final int malformedPosition = buffer.position();
+        FrameCodec.putPacket(buffer, 2, 300, new byte[] {2}, 0, 1);
+        FrameCodec.putPacket(buffer, 3, 300, new byte[] {3}, 0, 1);
+        buffer.put(malformedPosition + 2, (byte) 0x07);
+        buffer.flip();
+
+        FrameCodec.getPacket(buffer, FrameCodec.getPacketLimit(buffer), packet);
+        assertThat(packet.getId(), equalTo(1L));
+
+        final int limit = FrameCodec.getPacketLimit(buffer);
+        try {
+            FrameCodec.getPacket(buffer, limit, packet);
+            fail();
+        }
+        catch(final InvalidProtocolBufferException e) {
+            buffer.position(limit);
+        }
+
+        FrameCodec.getPacket(buffer, FrameCodec.getPacketLimit(buffer), packet);
+        assertThat(packet.getId(), equalTo(3L));
+        assertThat(packet.getPayload(), equalTo(ByteBuffer.wrap(new byte[] {3})));
+    }
+}
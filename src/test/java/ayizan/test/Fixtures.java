@@ -0,0 +1,49 @@
+package ayizan.test;
+
+import ayizan.domain.Orders.PlaceOrderSpecification;
+import ayizan.domain.Orders.Side;
+import ayizan.domain.Orders.TimeInForce;
+import ayizan.kernel.clock.Clock;
+import org.junit.rules.ExternalResource;
+
+import static ayizan.service.exchange.Exchange.DEFAULT_INSTRUMENT;
+
+public final class Fixtures
+{
+    private Fixtures() {}
+
+    public static PlaceOrderSpecification.Builder placeOrder(final String id, final Side side, final long price, final long quantity)
+    {
+        return PlaceOrderSpecification.newBuilder().
+                setId(id).
+                setAttributionId(Integer.parseInt(id)).
+                setSymbol(DEFAULT_INSTRUMENT.getSymbol()).
+                setSide(side).
+                setPrice(price).
+                setQuantity(quantity).
+                setTimeInForce(TimeInForce.GOOD_TILL_CANCEL);
+    }
+
+    public static class ClockRule extends ExternalResource
+    {
+        private Clock clock;
+
+        public <T extends Clock> T install(final T clock)
+        {
+            Clock.setClock(clock);
+            return clock;
+        }
+
+        @Override
+        protected void before()
+        {
+            clock = Clock.getClock();
+        }
+
+        @Override
+        protected void after()
+        {
+            Clock.setClock(clock);
+        }
+    }
+}
@@ -3,7 +3,9 @@ package ayizan.test.matcher;
 import ayizan.domain.Identifier;
 import ayizan.domain.Executions.AcceptExecutionOrBuilder;
 import ayizan.domain.Executions.CancelExecutionOrBuilder;
+import ayizan.domain.Executions.OrderState;
 import ayizan.domain.Executions.OrderStateOrBuilder;
+import ayizan.domain.Executions.RejectReason;
 import ayizan.domain.Executions.ReplaceExecutionOrBuilder;
 import ayizan.domain.Executions.StatusExecutionOrBuilder;
 import ayizan.domain.Executions.TradeExecutionOrBuilder;
@@ -89,6 +91,7 @@ public class ExecutionMatcher
     {
         private Identifier identifier;
         private String symbol;
+        private RejectReason rejectReason = RejectReason.NONE;
 
         public static AcceptExecutionMatcherBuilder newBuilder()
         {
@@ -108,6 +111,12 @@ public class ExecutionMatcher
             return this;
         }
 
+        public AcceptExecutionMatcherBuilder setRejectReason(final RejectReason rejectReason)
+        {
+            this.rejectReason = rejectReason;
+            return this;
+        }
+
 
         @Override
         public Matcher<AcceptExecutionOrBuilder> build()
@@ -116,13 +125,15 @@ public class ExecutionMatcher
                          Matchers.<AcceptExecutionOrBuilder>hasProperty("attributionId", equalTo(identifier.getAttributionId())),
                          Matchers.<AcceptExecutionOrBuilder>hasProperty("executionId", notNullValue()),
                          Matchers.<AcceptExecutionOrBuilder>hasProperty("symbol", equalTo(symbol)),
-                         Matchers.<AcceptExecutionOrBuilder>hasProperty("order", buildOrderStateMatcher()));
+                         Matchers.<AcceptExecutionOrBuilder>hasProperty("order", buildOrderStateMatcher()),
+                         Matchers.<AcceptExecutionOrBuilder>hasProperty("rejectReason", equalTo(rejectReason)));
         }
 
         @Override
         public Builder<Matcher<?>> clear()
         {
             identifier = null;
+            rejectReason = RejectReason.NONE;
             return this;
         }
     }
@@ -243,6 +254,7 @@ public class ExecutionMatcher
         private String cancelId;
         private long replacePrice;
         private long replaceQuantity;
+        private RejectReason rejectReason = RejectReason.NONE;
 
         public static ReplaceExecutionMatcherBuilder newBuilder()
         {
@@ -279,10 +291,25 @@ public class ExecutionMatcher
             return this;
         }
 
+        public ReplaceExecutionMatcherBuilder setRejectReason(final RejectReason rejectReason)
+        {
+            this.rejectReason = rejectReason;
+            return this;
+        }
+
         @Override
         @SuppressWarnings("unchecked")
         public Matcher<ReplaceExecutionOrBuilder> build()
         {
+            if(rejectReason != RejectReason.NONE) {
+                return allOf(Matchers.<ReplaceExecutionOrBuilder>hasProperty("id", equalTo(identifier.getId())),
+                             Matchers.<ReplaceExecutionOrBuilder>hasProperty("attributionId", equalTo(identifier.getAttributionId())),
+                             Matchers.<ReplaceExecutionOrBuilder>hasProperty("symbol", equalTo(symbol)),
+                             Matchers.<ReplaceExecutionOrBuilder>hasProperty("cancelId", equalTo(cancelId)),
+                             Matchers.<ReplaceExecutionOrBuilder>hasProperty("cancelOrder", equalTo(OrderState.getDefaultInstance())),
+                             Matchers.<ReplaceExecutionOrBuilder>hasProperty("replaceOrder", equalTo(OrderState.getDefaultInstance())),
+                             Matchers.<ReplaceExecutionOrBuilder>hasProperty("rejectReason", equalTo(rejectReason)));
+            }
             return allOf(Matchers.<ReplaceExecutionOrBuilder>hasProperty("id", equalTo(identifier.getId())),
                          Matchers.<ReplaceExecutionOrBuilder>hasProperty("attributionId", equalTo(identifier.getAttributionId())),
                          Matchers.<ReplaceExecutionOrBuilder>hasProperty("executionId", notNullValue()),
@@ -296,6 +323,7 @@ public class ExecutionMatcher
         public Builder<Matcher<?>> clear()
         {
             identifier = null;
+            rejectReason = RejectReason.NONE;
             return this;
         }
 